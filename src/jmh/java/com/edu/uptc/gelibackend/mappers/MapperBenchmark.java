@@ -0,0 +1,108 @@
+package com.edu.uptc.gelibackend.mappers;
+
+import com.edu.uptc.gelibackend.dtos.AuthorizedEquipmentDTO;
+import com.edu.uptc.gelibackend.dtos.EquipmentResponseDTO;
+import com.edu.uptc.gelibackend.dtos.EquipmentUseResponseDTO;
+import com.edu.uptc.gelibackend.dtos.UserResponseDTO;
+import com.edu.uptc.gelibackend.entities.EquipmentEntity;
+import com.edu.uptc.gelibackend.entities.EquipmentUseEntity;
+import com.edu.uptc.gelibackend.entities.UserEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de CPU y de asignación de memoria de los mappers de entidad a DTO sobre un grafo en memoria
+ * ({@link MapperDataProvider}), sin Spring ni base de datos.
+ *
+ * <p>Cada benchmark mapea un elemento por invocación (rotando sobre el catálogo para no medir siempre
+ * el mismo objeto), así que ops/s y {@code gc.alloc.rate.norm} son por DTO raíz. Ejecutar con:</p>
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="MapperBenchmark.equipmentToResponseDTO -prof gc -p authorizationsPerUser=3"
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class MapperBenchmark {
+
+    /**
+     * Equipos autorizados por usuario. Con 200 usuarios y 50 equipos, cada equipo tiene
+     * 4 * authorizationsPerUser usuarios autorizados.
+     */
+    @Param({"3", "15"})
+    private int authorizationsPerUser;
+
+    @Param({"4"})
+    private int functionsPerEquipment;
+
+    private EquipmentMapper equipmentMapper;
+    private UserMapper userMapper;
+    private EquipmentUseMapper equipmentUseMapper;
+    private AuthorizedUserEquipmentsMapper authorizedUserEquipmentsMapper;
+
+    private List<EquipmentEntity> equipments;
+    private List<UserEntity> users;
+    private List<EquipmentUseEntity> uses;
+
+    private int equipmentIndex;
+    private int userIndex;
+    private int useIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Mismo cableado que arma Spring con los constructores de @RequiredArgsConstructor
+        LaboratoryMapper laboratoryMapper = new LaboratoryMapper(new LocationMapper());
+        FunctionMapper functionMapper = new FunctionMapper();
+        BrandMapper brandMapper = new BrandMapper();
+        authorizedUserEquipmentsMapper = new AuthorizedUserEquipmentsMapper(laboratoryMapper, functionMapper, brandMapper);
+        userMapper = new UserMapper(authorizedUserEquipmentsMapper, new PositionMapper());
+        equipmentMapper = new EquipmentMapper(laboratoryMapper, functionMapper, userMapper, brandMapper);
+        equipmentUseMapper = new EquipmentUseMapper(equipmentMapper, userMapper, functionMapper);
+
+        MapperDataProvider data = new MapperDataProvider(50, 200, functionsPerEquipment, authorizationsPerUser, 1000);
+        equipments = data.getEquipments();
+        users = data.getUsers();
+        uses = data.getUses();
+    }
+
+    @Benchmark
+    public EquipmentResponseDTO equipmentToResponseDTO() {
+        equipmentIndex = (equipmentIndex + 1) % equipments.size();
+        return equipmentMapper.toResponseDTO(equipments.get(equipmentIndex));
+    }
+
+    @Benchmark
+    public UserResponseDTO userCompleteDTOWithEntity() {
+        userIndex = (userIndex + 1) % users.size();
+        return userMapper.completeDTOWithEntity(new UserResponseDTO(), users.get(userIndex));
+    }
+
+    @Benchmark
+    public EquipmentUseResponseDTO equipmentUseToResponseDTO() {
+        useIndex = (useIndex + 1) % uses.size();
+        return equipmentUseMapper.toResponseDTO(uses.get(useIndex));
+    }
+
+    @Benchmark
+    public List<AuthorizedEquipmentDTO> authorizedEquipmentsToDTOs() {
+        userIndex = (userIndex + 1) % users.size();
+        return authorizedUserEquipmentsMapper.toAuthorizedEquipmentDTOs(users.get(userIndex).getAuthorizedUserEquipments());
+    }
+}
@@ -0,0 +1,159 @@
+package com.edu.uptc.gelibackend.mappers;
+
+import com.edu.uptc.gelibackend.entities.AuthorizedUserEquipmentsEntity;
+import com.edu.uptc.gelibackend.entities.BrandEntity;
+import com.edu.uptc.gelibackend.entities.EquipmentEntity;
+import com.edu.uptc.gelibackend.entities.EquipmentFunctionsEntity;
+import com.edu.uptc.gelibackend.entities.EquipmentFunctionsUsedEntity;
+import com.edu.uptc.gelibackend.entities.EquipmentUseEntity;
+import com.edu.uptc.gelibackend.entities.FunctionEntity;
+import com.edu.uptc.gelibackend.entities.LaboratoryEntity;
+import com.edu.uptc.gelibackend.entities.LocationEntity;
+import com.edu.uptc.gelibackend.entities.PositionEntity;
+import com.edu.uptc.gelibackend.entities.UserEntity;
+import com.edu.uptc.gelibackend.entities.UserPositionHistoryEntity;
+import com.edu.uptc.gelibackend.entities.ids.AuthorizedUserEquipmentsId;
+import com.edu.uptc.gelibackend.entities.ids.EquipmentFunctionsId;
+import com.edu.uptc.gelibackend.entities.ids.EquipmentFunctionsUsedId;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Grafo de entidades en memoria con la forma que devuelve JPA para un laboratorio: equipos con marca,
+ * laboratorio y funciones, usuarios con cargo, historial de cargos y equipos autorizados (en ambos sentidos),
+ * y usos con sus funciones usadas.
+ */
+public class MapperDataProvider {
+
+    private static final String[] ROLES = {"ADMIN", "AUTHORIZED-USER", "QUALITY-ADMIN"};
+
+    private final List<EquipmentEntity> equipments = new ArrayList<>();
+    private final List<UserEntity> users = new ArrayList<>();
+    private final List<EquipmentUseEntity> uses = new ArrayList<>();
+
+    /**
+     * @param equipmentCount          equipos del catálogo
+     * @param userCount               usuarios
+     * @param functionsPerEquipment   funciones de cada equipo
+     * @param authorizationsPerUser   equipos autorizados por usuario; cada equipo termina con
+     *                                userCount * authorizationsPerUser / equipmentCount usuarios autorizados
+     * @param useCount                usos registrados
+     */
+    public MapperDataProvider(int equipmentCount, int userCount, int functionsPerEquipment,
+                              int authorizationsPerUser, int useCount) {
+        LocationEntity location = new LocationEntity(1L, "EDIFICIO DE LABORATORIOS - PISO 2");
+        LaboratoryEntity laboratory = LaboratoryEntity.builder()
+                .id(1L)
+                .laboratoryName("LABORATORIO DE QUÍMICA ANALÍTICA")
+                .laboratoryDescription("Análisis instrumental de muestras de agua y suelos")
+                .laboratoryLocation(location)
+                .laboratoryAvailability(Boolean.TRUE)
+                .laboratoryObservations("Horario de atención de 7:00 a 18:00")
+                .equipmentList(equipments)
+                .build();
+
+        List<BrandEntity> brands = List.of(
+                new BrandEntity(1L, "THERMO FISHER", new ArrayList<>()),
+                new BrandEntity(2L, "AGILENT", new ArrayList<>()),
+                new BrandEntity(3L, "SHIMADZU", new ArrayList<>()));
+
+        List<FunctionEntity> functions = new ArrayList<>();
+        for (long i = 1; i <= Math.max(functionsPerEquipment * 2, 1); i++) {
+            functions.add(new FunctionEntity(i, "FUNCIÓN DE MEDICIÓN " + i, new ArrayList<>(), new ArrayList<>()));
+        }
+
+        for (long i = 1; i <= equipmentCount; i++) {
+            EquipmentEntity equipment = new EquipmentEntity();
+            equipment.setId(i);
+            equipment.setEquipmentName("ESPECTROFOTÓMETRO UV-VIS " + i);
+            equipment.setBrand(brands.get((int) (i % brands.size())));
+            equipment.setInventoryNumber("INV-" + (100000 + i));
+            equipment.setLaboratory(laboratory);
+            equipment.setAvailability(i % 10 != 0);
+            equipment.setEquipmentObservations("Calibrado en " + LocalDate.of(2024, 1 + (int) (i % 12), 10));
+            for (int f = 0; f < functionsPerEquipment; f++) {
+                FunctionEntity function = functions.get((int) ((i + f) % functions.size()));
+                equipment.getEquipmentFunctions().add(new EquipmentFunctionsEntity(
+                        new EquipmentFunctionsId(equipment.getId(), function.getId()), equipment, function));
+            }
+            equipments.add(equipment);
+        }
+
+        PositionEntity analyst = new PositionEntity(1L, "ANALISTA JUNIOR", new ArrayList<>());
+        PositionEntity senior = new PositionEntity(2L, "ANALISTA SENIOR", new ArrayList<>());
+
+        for (long i = 1; i <= userCount; i++) {
+            UserEntity user = new UserEntity();
+            user.setId(i);
+            user.setKeycloakId("kc-" + i + "-5f1e2d3c-4b5a-6978-8a9b-0c1d2e3f4a5b");
+            user.setFirstName("Usuario" + i);
+            user.setLastName("Apellido" + i);
+            user.setEmail("usuario" + i + "@uptc.edu.co");
+            user.setIdentification(String.valueOf(1000000000L + i));
+            user.setState(Boolean.TRUE);
+            user.setRole(ROLES[(int) (i % ROLES.length)]);
+            user.setCreateDateUser(LocalDate.of(2023, 1, 1).plusDays(i));
+            user.setPosition(senior);
+            user.setStatusHistory(new ArrayList<>());
+            user.setPositionHistory(new ArrayList<>(List.of(
+                    new UserPositionHistoryEntity(i, user, analyst, senior, LocalDate.of(2024, 6, 1)))));
+            user.setAuthorizedUserEquipments(new ArrayList<>());
+
+            for (int a = 0; a < authorizationsPerUser && !equipments.isEmpty(); a++) {
+                EquipmentEntity equipment = equipments.get((int) ((i + a) % equipments.size()));
+                AuthorizedUserEquipmentsEntity authorization = AuthorizedUserEquipmentsEntity.builder()
+                        .id(new AuthorizedUserEquipmentsId(user.getId(), equipment.getId()))
+                        .user(user)
+                        .equipment(equipment)
+                        .actualStatus(Boolean.TRUE)
+                        .equipmentAuthorizationHistory(new ArrayList<>())
+                        .build();
+                user.getAuthorizedUserEquipments().add(authorization);
+                equipment.getAuthorizedUsersEquipments().add(authorization);
+            }
+            users.add(user);
+        }
+
+        LocalDateTime firstStart = LocalDateTime.of(2025, 3, 3, 7, 0);
+        for (long i = 1; i <= useCount && !users.isEmpty() && !equipments.isEmpty(); i++) {
+            EquipmentEntity equipment = equipments.get((int) (i % equipments.size()));
+            LocalDateTime start = firstStart.plusMinutes(i * 47);
+            EquipmentUseEntity use = EquipmentUseEntity.builder()
+                    .id(i)
+                    .equipment(equipment)
+                    .user(users.get((int) (i % users.size())))
+                    .startUseTime(start)
+                    .endUseTime(start.plusMinutes(30 + i % 90))
+                    .isInUse(Boolean.FALSE)
+                    .isVerified(Boolean.TRUE)
+                    .isAvailable(Boolean.TRUE)
+                    .samplesNumber((int) (i % 25) + 1)
+                    .observations("Sin novedad")
+                    .build();
+            List<EquipmentFunctionsUsedEntity> usedFunctions = new ArrayList<>();
+            for (EquipmentFunctionsEntity equipmentFunction : equipment.getEquipmentFunctions().subList(0,
+                    Math.min(2, equipment.getEquipmentFunctions().size()))) {
+                FunctionEntity function = equipmentFunction.getFunction();
+                usedFunctions.add(new EquipmentFunctionsUsedEntity(
+                        new EquipmentFunctionsUsedId(function.getId(), use.getId()), use, function));
+            }
+            use.setEquipmentFunctionsUsedList(usedFunctions);
+            uses.add(use);
+        }
+    }
+
+    public List<EquipmentEntity> getEquipments() {
+        return equipments;
+    }
+
+    public List<UserEntity> getUsers() {
+        return users;
+    }
+
+    public List<EquipmentUseEntity> getUses() {
+        return uses;
+    }
+}
@@ -0,0 +1,39 @@
+package com.edu.uptc.gelibackend.config;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Identidad del usuario que hace la petición, leída del JWT que Spring Security ya validó (firma, issuer y
+ * vigencia). Evita preguntarle a Keycloak por {@code /userinfo} para saber quién es el llamante.
+ */
+@Component
+public class AuthenticatedUserResolver {
+
+    private static final String EMAIL_CLAIM = "email";
+
+    /**
+     * @param id       keycloakId del usuario (claim {@code sub})
+     * @param username claim configurado en {@code jwt.auth.converter.principal-claim} (preferred_username)
+     * @param email    claim {@code email}
+     */
+    public record AuthenticatedUser(String id, String username, String email) {
+    }
+
+    /**
+     * @throws ResponseStatusException 401 si la petición no trae un JWT: los endpoints de contraseña son
+     *                                 {@code permitAll} y pueden llegar sin token
+     */
+    public AuthenticatedUser resolve(Authentication authentication) {
+        if (!(authentication instanceof JwtAuthenticationToken token)) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Token inválido");
+        }
+        Jwt jwt = token.getToken();
+        // JwtAuthConverter ya dejó el principal-claim como nombre de la autenticación
+        return new AuthenticatedUser(jwt.getSubject(), token.getName(), jwt.getClaimAsString(EMAIL_CLAIM));
+    }
+}
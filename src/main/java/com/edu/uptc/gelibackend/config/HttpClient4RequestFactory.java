@@ -0,0 +1,130 @@
+package com.edu.uptc.gelibackend.config;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+
+/**
+ * {@link ClientHttpRequestFactory} sobre Apache HttpClient 4, el mismo que usa el cliente admin de Keycloak
+ * (Spring 6 sólo trae fábrica para HttpClient 5). Permite que el {@code RestTemplate} comparta el pool de
+ * {@link KeycloakHttpClientConfig}. El cuerpo de la petición se arma en memoria: son formularios y JSON cortos.
+ */
+class HttpClient4RequestFactory implements ClientHttpRequestFactory {
+
+    private final CloseableHttpClient httpClient;
+
+    HttpClient4RequestFactory(CloseableHttpClient httpClient) {
+        this.httpClient = httpClient;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
+        return new Request(uri, httpMethod);
+    }
+
+    private class Request extends AbstractClientHttpRequest {
+
+        private final URI uri;
+        private final HttpMethod method;
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+
+        Request(URI uri, HttpMethod method) {
+            this.uri = uri;
+            this.method = method;
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return method;
+        }
+
+        @Override
+        public URI getURI() {
+            return uri;
+        }
+
+        @Override
+        protected OutputStream getBodyInternal(HttpHeaders headers) {
+            return body;
+        }
+
+        @Override
+        protected ClientHttpResponse executeInternal(HttpHeaders headers) throws IOException {
+            RequestBuilder request = RequestBuilder.create(method.name()).setUri(uri);
+            headers.forEach((name, values) -> {
+                // HttpClient calcula la longitud a partir de la entidad
+                if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name) && !HttpHeaders.TRANSFER_ENCODING.equalsIgnoreCase(name)) {
+                    values.forEach(value -> request.addHeader(name, value));
+                }
+            });
+            if (body.size() > 0) {
+                request.setEntity(new ByteArrayEntity(body.toByteArray()));
+            }
+            return new Response(httpClient.execute(request.build()));
+        }
+    }
+
+    private static class Response implements ClientHttpResponse {
+
+        private final CloseableHttpResponse response;
+        private HttpHeaders headers;
+
+        Response(CloseableHttpResponse response) {
+            this.response = response;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() {
+            return HttpStatusCode.valueOf(response.getStatusLine().getStatusCode());
+        }
+
+        @Override
+        public String getStatusText() {
+            return response.getStatusLine().getReasonPhrase();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            if (headers == null) {
+                headers = new HttpHeaders();
+                for (Header header : response.getAllHeaders()) {
+                    headers.add(header.getName(), header.getValue());
+                }
+            }
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            HttpEntity entity = response.getEntity();
+            return entity != null ? entity.getContent() : InputStream.nullInputStream();
+        }
+
+        @Override
+        public void close() {
+            try (response) {
+                // Consumir lo que quede del cuerpo devuelve la conexión al pool en lugar de cerrarla
+                EntityUtils.consume(response.getEntity());
+            } catch (IOException ignored) {
+                // La conexión ya quedó descartada
+            }
+        }
+    }
+}
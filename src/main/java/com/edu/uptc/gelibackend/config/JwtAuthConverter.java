@@ -1,5 +1,6 @@
 package com.edu.uptc.gelibackend.config;
 
+import jakarta.annotation.PostConstruct;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 
@@ -13,11 +14,23 @@ import org.springframework.security.oauth2.server.resource.authentication.JwtAut
 import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
-
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Convierte el JWT validado en un {@link JwtAuthenticationToken} con los roles de realm ({@code ROLE_*}) y los
+ * permisos del cliente. Los clientes reutilizan el mismo access token durante minutos, así que las
+ * autoridades convertidas se guardan por {@code jti} (o por hash del token si no trae) hasta su {@code exp},
+ * con un máximo de entradas.
+ */
 @Component
 @Slf4j
 public class JwtAuthConverter implements Converter<Jwt, AbstractAuthenticationToken> {
@@ -28,6 +41,7 @@ public class JwtAuthConverter implements Converter<Jwt, AbstractAuthenticationTo
     private static final String ROLES_CLAIM = "roles";
 
     private final JwtGrantedAuthoritiesConverter jwtConverter = new JwtGrantedAuthoritiesConverter();
+    private final Map<String, CachedAuthentication> cache = new ConcurrentHashMap<>();
 
     @Value("${jwt.auth.converter.principal-claim:sub}")
     private String principalClaim;
@@ -35,10 +49,33 @@ public class JwtAuthConverter implements Converter<Jwt, AbstractAuthenticationTo
     @Value("${jwt.auth.converter.resource-id-claim}")
     private String resourceIdClaimName;
 
+    @Value("${jwt.auth.converter.cache.max-size:10000}")
+    private int cacheMaxSize;
+
+    private record CachedAuthentication(List<GrantedAuthority> authorities, String principal, Instant expiresAt) {
+    }
+
+    @PostConstruct
+    void init() {
+        this.validateResourceIdClaim();
+    }
+
     @Override
     @NonNull
     public AbstractAuthenticationToken convert(@NonNull Jwt jwt) {
-        this.validateResourceIdClaim();
+        String key = cacheKey(jwt);
+        Instant now = Instant.now();
+        CachedAuthentication cached = cache.get(key);
+        if (cached == null || !now.isBefore(cached.expiresAt())) {
+            cached = authenticate(jwt);
+            if (jwt.getExpiresAt() != null && now.isBefore(jwt.getExpiresAt())) {
+                cache(key, cached, now);
+            }
+        }
+        return new JwtAuthenticationToken(jwt, cached.authorities(), cached.principal());
+    }
+
+    private CachedAuthentication authenticate(Jwt jwt) {
         Collection<GrantedAuthority> authorities = new ArrayList<>(jwtConverter.convert(jwt));
 
         authorities.addAll(this.extractRealmRoles(jwt));
@@ -47,7 +84,31 @@ public class JwtAuthConverter implements Converter<Jwt, AbstractAuthenticationTo
         String principal = jwt.getClaimAsString(principalClaim);
         log.debug("Principal claim: {}, Authorities: {}", principal, authorities);
 
-        return new JwtAuthenticationToken(jwt, authorities, principal);
+        return new CachedAuthentication(List.copyOf(authorities), principal, jwt.getExpiresAt());
+    }
+
+    private void cache(String key, CachedAuthentication authentication, Instant now) {
+        if (cache.size() >= cacheMaxSize) {
+            cache.values().removeIf(entry -> !now.isBefore(entry.expiresAt()));
+            if (cache.size() >= cacheMaxSize) {
+                // Más tokens vigentes que el límite: se empieza de cero en lugar de crecer sin tope
+                cache.clear();
+            }
+        }
+        cache.put(key, authentication);
+    }
+
+    private static String cacheKey(Jwt jwt) {
+        String id = jwt.getId();
+        if (id != null && !id.isBlank()) {
+            return id;
+        }
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(jwt.getTokenValue().getBytes(StandardCharsets.UTF_8));
+            return "sha256:" + HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 
     private Collection<? extends GrantedAuthority> extractRealmRoles(Jwt jwt) {
@@ -0,0 +1,126 @@
+package com.edu.uptc.gelibackend.config;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.jwk.source.JWKSourceBuilder;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.util.Resource;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decoder de JWT con el JWK set de Keycloak en caché y refresco anticipado en segundo plano: las claves se
+ * renuevan {@code jwt.jwk-set.refresh-ahead-ms} antes de vencer, así que una petición sólo descarga el JWK
+ * set si llega con un {@code kid} desconocido (rotación de claves). Mantiene la validación de issuer y de
+ * tiempos que hace el decoder autoconfigurado por Spring Boot y, como el cliente HTTP por defecto de Nimbus,
+ * no acepta respuestas de más de {@link JWKSourceBuilder#DEFAULT_HTTP_SIZE_LIMIT} bytes.
+ */
+@Configuration
+@Slf4j
+public class JwtDecoderConfig {
+
+    @Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri}")
+    private String jwkSetUri;
+
+    @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}")
+    private String issuerUri;
+
+    @Value("${jwt.jwk-set.cache-ttl-ms:300000}")
+    private long cacheTtlMs;
+
+    @Value("${jwt.jwk-set.refresh-ahead-ms:60000}")
+    private long refreshAheadMs;
+
+    @Bean
+    public JWKSource<SecurityContext> keycloakJwkSource(CloseableHttpClient keycloakHttpClient) throws MalformedURLException {
+        // La descarga usa el pool y los timeouts del resto del tráfico con Keycloak
+        return JWKSourceBuilder.<SecurityContext>create(URI.create(jwkSetUri).toURL(), url -> fetch(keycloakHttpClient, url.toString()))
+                .cache(cacheTtlMs, JWKSourceBuilder.DEFAULT_CACHE_REFRESH_TIMEOUT)
+                .refreshAheadCache(refreshAheadMs, true)
+                .build();
+    }
+
+    private static Resource fetch(CloseableHttpClient httpClient, String url) throws IOException {
+        try (CloseableHttpResponse response = httpClient.execute(new HttpGet(new URI(url)))) {
+            HttpEntity entity = response.getEntity();
+            int status = response.getStatusLine().getStatusCode();
+            if (status != 200 || entity == null) {
+                EntityUtils.consumeQuietly(entity);
+                throw new IOException("JWK set request to " + url + " answered " + status);
+            }
+            ContentType contentType = ContentType.get(entity);
+            return new Resource(readLimited(entity, url), contentType != null ? contentType.getMimeType() : null);
+        } catch (URISyntaxException e) {
+            throw new IOException("Invalid JWK set URL " + url, e);
+        }
+    }
+
+    // Lee a lo sumo el límite más un byte: uno más significa que la respuesta no cabe
+    private static String readLimited(HttpEntity entity, String url) throws IOException {
+        int limit = JWKSourceBuilder.DEFAULT_HTTP_SIZE_LIMIT;
+        if (entity.getContentLength() > limit) {
+            EntityUtils.consumeQuietly(entity);
+            throw new IOException("JWK set response from " + url + " exceeds " + limit + " bytes");
+        }
+        try (InputStream content = entity.getContent()) {
+            byte[] body = content.readNBytes(limit + 1);
+            if (body.length > limit) {
+                throw new IOException("JWK set response from " + url + " exceeds " + limit + " bytes");
+            }
+            return new String(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    @Bean
+    public JwtDecoder jwtDecoder(JWKSource<SecurityContext> keycloakJwkSource) {
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, keycloakJwkSource));
+        // Las claims las valida Spring (issuer, exp, nbf), igual que en NimbusJwtDecoder.withJwkSetUri
+        processor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(processor);
+        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuerUri));
+        return decoder;
+    }
+
+    /**
+     * Carga el JWK set al arrancar para que la primera petición no pague la descarga. Si Keycloak no
+     * responde se reintenta en la primera validación.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @SuppressWarnings("unchecked")
+    public void warmUp(ApplicationReadyEvent event) {
+        JWKSource<SecurityContext> jwkSource = event.getApplicationContext().getBean("keycloakJwkSource", JWKSource.class);
+        try {
+            int keys = jwkSource.get(new JWKSelector(new JWKMatcher.Builder().build()), null).size();
+            log.info("Keycloak JWK set loaded with {} keys", keys);
+        } catch (Exception e) {
+            log.warn("Could not load the Keycloak JWK set at startup: {}", e.getMessage());
+        }
+    }
+}
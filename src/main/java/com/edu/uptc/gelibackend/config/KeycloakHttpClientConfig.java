@@ -0,0 +1,72 @@
+package com.edu.uptc.gelibackend.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cliente HTTP único para todo el tráfico con Keycloak: el cliente admin (resteasy), el {@code RestTemplate}
+ * de login/password/recovery/admin REST y la descarga del JWK set comparten el mismo pool de conexiones.
+ *
+ * <p>Todas las llamadas tienen tiempo máximo de conexión, de lectura y de espera por una conexión libre,
+ * así que un Keycloak lento no retiene hilos de Tomcat indefinidamente. El pool se publica en actuator
+ * como {@code httpcomponents.httpclient.pool.*} con {@code httpclient=keycloak}.</p>
+ */
+@Configuration
+public class KeycloakHttpClientConfig {
+
+    @Value("${keycloak.http.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${keycloak.http.max-connections-per-route:20}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${keycloak.http.connect-timeout-ms:2000}")
+    private int connectTimeoutMs;
+
+    @Value("${keycloak.http.read-timeout-ms:5000}")
+    private int readTimeoutMs;
+
+    @Value("${keycloak.http.pool-timeout-ms:2000}")
+    private int poolTimeoutMs;
+
+    @Value("${keycloak.http.keep-alive-ms:30000}")
+    private long keepAliveMs;
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient keycloakHttpClient(MeterRegistry registry) {
+        PoolingHttpClientConnectionManager pool = new PoolingHttpClientConnectionManager();
+        pool.setMaxTotal(maxConnections);
+        pool.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        // Revalida una conexión reutilizada sólo si estuvo inactiva más de 2 s
+        pool.setValidateAfterInactivity(2_000);
+        new PoolingHttpClientConnectionManagerMetricsBinder(pool, "keycloak").bindTo(registry);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeoutMs)
+                .setSocketTimeout(readTimeoutMs)
+                .setConnectionRequestTimeout(poolTimeoutMs)
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(pool)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy((response, context) -> {
+                    long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return serverKeepAlive > 0 ? Math.min(serverKeepAlive, keepAliveMs) : keepAliveMs;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(keepAliveMs, TimeUnit.MILLISECONDS)
+                .disableCookieManagement()
+                .build();
+    }
+}
@@ -0,0 +1,106 @@
+package com.edu.uptc.gelibackend.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.http.Outcome;
+import jakarta.ws.rs.client.ClientRequestContext;
+import jakarta.ws.rs.client.ClientRequestFilter;
+import jakarta.ws.rs.client.ClientResponseContext;
+import jakarta.ws.rs.client.ClientResponseFilter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Timer {@code geli.keycloak.requests} para todas las llamadas HTTP salientes a Keycloak, tanto las del
+ * cliente admin (resteasy) como las del {@code RestTemplate} (token, userinfo, admin REST).
+ *
+ * <p>Tags: {@code client}, {@code method}, {@code uri} (ruta con los ids reemplazados por {@code {id}} para
+ * no disparar la cardinalidad), {@code status} y {@code outcome}. Los errores de conexión se registran con
+ * status {@code IO_ERROR}.</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class KeycloakRequestMetrics {
+
+    public static final String METRIC = "geli.keycloak.requests";
+
+    private static final String START_PROPERTY = KeycloakRequestMetrics.class.getName() + ".start";
+    // Segmentos de la API admin seguidos de un id
+    private static final Set<String> ID_PARENTS = Set.of("users", "clients", "groups", "sessions", "components");
+    private static final Pattern ID_LIKE = Pattern.compile("[0-9a-fA-F-]{16,}|\\d+");
+
+    private final MeterRegistry registry;
+
+    public ClientHttpRequestInterceptor restTemplateInterceptor() {
+        return (request, body, execution) -> {
+            long start = System.nanoTime();
+            try {
+                ClientHttpResponse response = execution.execute(request, body);
+                record("rest-template", request.getMethod().name(), request.getURI(),
+                        String.valueOf(response.getStatusCode().value()),
+                        Outcome.forStatus(response.getStatusCode().value()), start);
+                return response;
+            } catch (IOException e) {
+                record("rest-template", request.getMethod().name(), request.getURI(), "IO_ERROR", Outcome.UNKNOWN, start);
+                throw e;
+            }
+        };
+    }
+
+    /**
+     * Filtro para registrar en el cliente resteasy del admin client. Sólo ve las peticiones que obtienen
+     * respuesta; los fallos de conexión quedan en el timer de {@code KeyCloakUserService}.
+     */
+    public Object adminClientFilter() {
+        return new AdminClientFilter();
+    }
+
+    private class AdminClientFilter implements ClientRequestFilter, ClientResponseFilter {
+
+        @Override
+        public void filter(ClientRequestContext request) {
+            request.setProperty(START_PROPERTY, System.nanoTime());
+        }
+
+        @Override
+        public void filter(ClientRequestContext request, ClientResponseContext response) {
+            if (request.getProperty(START_PROPERTY) instanceof Long start) {
+                record("admin-client", request.getMethod(), request.getUri(),
+                        String.valueOf(response.getStatus()), Outcome.forStatus(response.getStatus()), start);
+            }
+        }
+    }
+
+    private void record(String client, String method, URI uri, String status, Outcome outcome, long start) {
+        Timer.builder(METRIC)
+                .tag("client", client)
+                .tag("method", method)
+                .tag("uri", uriTemplate(uri.getRawPath()))
+                .tag("status", status)
+                .tag("outcome", outcome.name())
+                .register(registry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    static String uriTemplate(String path) {
+        if (path == null || path.isEmpty()) {
+            return "/";
+        }
+        String[] segments = path.split("/");
+        StringBuilder template = new StringBuilder();
+        for (int i = 1; i < segments.length; i++) {
+            String segment = segments[i];
+            boolean isId = ID_PARENTS.contains(segments[i - 1]) || ID_LIKE.matcher(segment).matches();
+            template.append('/').append(isId && !segment.isEmpty() ? "{id}" : segment);
+        }
+        return template.length() == 0 ? "/" : template.toString();
+    }
+}
@@ -0,0 +1,41 @@
+package com.edu.uptc.gelibackend.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Timer {@code geli.mail.send} alrededor de cada {@code send} del {@code JavaMailSender}, con tags
+ * {@code outcome} (SUCCESS/FAILURE) y {@code exception}. Se hace con un aspecto y no envolviendo el bean
+ * para que siga siendo un {@code JavaMailSenderImpl} (lo necesita el health check de correo de actuator).
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class MailMetricsAspect {
+
+    public static final String METRIC = "geli.mail.send";
+
+    private final MeterRegistry registry;
+
+    @Around("execution(* org.springframework.mail.MailSender+.send(..))")
+    public Object timeSend(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(registry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(METRIC)
+                    .tag("outcome", "none".equals(exception) ? "SUCCESS" : "FAILURE")
+                    .tag("exception", exception)
+                    .register(registry));
+        }
+    }
+}
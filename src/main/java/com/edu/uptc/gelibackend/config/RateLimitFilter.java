@@ -0,0 +1,314 @@
+package com.edu.uptc.gelibackend.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limita login, recuperación y cambio de contraseña (endpoints públicos que llaman a Keycloak y a SMTP) con
+ * token buckets por IP y por usuario, configurables por grupo de endpoints en {@code rate-limit.*}.
+ *
+ * <p>Corre justo después de Spring Security, antes de cualquier controlador, así que una petición rechazada
+ * no llega a Keycloak. El usuario sale del JWT o de un campo del cuerpo JSON; para leerlo el cuerpo se guarda
+ * en memoria (hasta {@code rate-limit.max-body-bytes}, declare o no Content-Length) y el controlador lo vuelve a
+ * leer; un cuerpo más grande no se interpreta y sólo aplica el límite por IP. Las rechazadas responden 429 con {@code Retry-After} y se
+ * cuentan en {@code geli.rate-limit.rejected} (tags {@code endpoint} y {@code key}: ip/subject). La IP es
+ * {@code getRemoteAddr()}, que detrás del proxy sale de {@code X-Forwarded-For} según
+ * {@code server.forward-headers-strategy}.</p>
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 1)
+@EnableConfigurationProperties(RateLimitProperties.class)
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    static final String PRINCIPAL = "principal";
+
+    private final RateLimitProperties properties;
+    private final ObjectMapper objectMapper;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final List<EndpointLimit> limits = new ArrayList<>();
+
+    private record EndpointLimit(String name,
+                                 List<String> paths,
+                                 List<String> subjectFields,
+                                 TokenBucketLimiter perIp,
+                                 TokenBucketLimiter perSubject,
+                                 Counter ipRejections,
+                                 Counter subjectRejections) {
+
+        boolean readsBody() {
+            return perSubject != null && subjectFields.stream().anyMatch(field -> !PRINCIPAL.equals(field));
+        }
+    }
+
+    public RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper, MeterRegistry registry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+
+        Map<String, RateLimitProperties.Endpoint> endpoints = properties.endpoints() != null ? properties.endpoints() : Map.of();
+        endpoints.forEach((name, endpoint) -> {
+            if (endpoint.paths() == null || endpoint.paths().isEmpty()) {
+                throw new IllegalStateException("rate-limit.endpoints." + name + ".paths is required");
+            }
+            TokenBucketLimiter perIp = endpoint.perIp() != null ? new TokenBucketLimiter(endpoint.perIp(), properties.maxKeys()) : null;
+            TokenBucketLimiter perSubject = endpoint.perSubject() != null ? new TokenBucketLimiter(endpoint.perSubject(), properties.maxKeys()) : null;
+            limits.add(new EndpointLimit(name, endpoint.paths(),
+                    endpoint.subjectFields() != null ? endpoint.subjectFields() : List.of(),
+                    perIp, perSubject, rejections(registry, name, "ip"), rejections(registry, name, "subject")));
+            if (perIp != null) {
+                Gauge.builder("geli.rate-limit.keys", perIp, TokenBucketLimiter::size)
+                        .tag("endpoint", name).tag("key", "ip").register(registry);
+            }
+            if (perSubject != null) {
+                Gauge.builder("geli.rate-limit.keys", perSubject, TokenBucketLimiter::size)
+                        .tag("endpoint", name).tag("key", "subject").register(registry);
+            }
+        });
+    }
+
+    private static Counter rejections(MeterRegistry registry, String endpoint, String key) {
+        return Counter.builder("geli.rate-limit.rejected").tag("endpoint", endpoint).tag("key", key).register(registry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !properties.enabled() || limitFor(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        EndpointLimit limit = limitFor(request);
+        long now = System.nanoTime();
+
+        if (limit.perIp() != null) {
+            long wait = limit.perIp().tryAcquire(request.getRemoteAddr(), now);
+            if (wait > 0) {
+                limit.ipRejections().increment();
+                reject(response, wait);
+                return;
+            }
+        }
+
+        HttpServletRequest forwarded = request;
+        if (limit.perSubject() != null) {
+            JsonNode body = null;
+            if (limit.readsBody() && mayBeSmallJson(request)) {
+                BufferedBodyRequest buffered = new BufferedBodyRequest(request, properties.maxBodyBytes());
+                forwarded = buffered;
+                if (buffered.isComplete()) {
+                    body = readJson(buffered.head);
+                }
+            }
+            String subject = subject(limit, body);
+            if (subject != null) {
+                long wait = limit.perSubject().tryAcquire(subject, now);
+                if (wait > 0) {
+                    limit.subjectRejections().increment();
+                    log.debug("Rate limit {} rejected subject {}", limit.name(), subject);
+                    reject(response, wait);
+                    return;
+                }
+            }
+        }
+
+        filterChain.doFilter(forwarded, response);
+    }
+
+    // Quita las cubetas llenas: en reposo no ocupan memoria
+    @Scheduled(fixedDelayString = "${rate-limit.prune-interval-ms:60000}")
+    public void prune() {
+        long now = System.nanoTime();
+        for (EndpointLimit limit : limits) {
+            if (limit.perIp() != null) {
+                limit.perIp().prune(now);
+            }
+            if (limit.perSubject() != null) {
+                limit.perSubject().prune(now);
+            }
+        }
+    }
+
+    private EndpointLimit limitFor(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (EndpointLimit limit : limits) {
+            for (String pattern : limit.paths()) {
+                if (pathMatcher.match(pattern, path)) {
+                    return limit;
+                }
+            }
+        }
+        return null;
+    }
+
+    private String subject(EndpointLimit limit, JsonNode body) {
+        for (String field : limit.subjectFields()) {
+            String value = null;
+            if (PRINCIPAL.equals(field)) {
+                if (SecurityContextHolder.getContext().getAuthentication() instanceof JwtAuthenticationToken jwt) {
+                    value = jwt.getName();
+                }
+            } else if (body != null && body.get(field) != null && body.get(field).isTextual()) {
+                value = body.get(field).asText();
+            }
+            if (value != null && !value.isBlank()) {
+                // Mismo usuario con otras mayúsculas o espacios cuenta contra la misma cubeta
+                return field + ':' + value.trim().toLowerCase(Locale.ROOT);
+            }
+        }
+        return null;
+    }
+
+    // Sin Content-Length (chunked) el tamaño sólo se sabe leyendo: lo decide BufferedBodyRequest
+    private boolean mayBeSmallJson(HttpServletRequest request) {
+        long length = request.getContentLengthLong();
+        String contentType = request.getContentType();
+        return length <= properties.maxBodyBytes()
+                && contentType != null && contentType.toLowerCase(Locale.ROOT).contains("json");
+    }
+
+    private JsonNode readJson(byte[] body) {
+        try {
+            return objectMapper.readTree(body);
+        } catch (IOException e) {
+            // El controlador responderá el error de formato; aquí sólo aplica el límite por IP
+            return null;
+        }
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), Map.of(
+                "message", "Demasiadas solicitudes, intenta de nuevo en " + retryAfterSeconds + " segundos"
+        ));
+    }
+
+    /**
+     * Petición con los primeros {@code limit + 1} bytes del cuerpo leídos en memoria. Si el cuerpo cabe en
+     * {@code limit} ({@link #isComplete}) se puede volver a leer desde memoria; si no, el controlador recibe
+     * esos bytes seguidos del resto del cuerpo original.
+     */
+    private static class BufferedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] head;
+        private final boolean complete;
+        private ServletInputStream remainder;
+
+        BufferedBodyRequest(HttpServletRequest request, int limit) throws IOException {
+            super(request);
+            this.head = request.getInputStream().readNBytes(limit + 1);
+            this.complete = head.length <= limit;
+        }
+
+        boolean isComplete() {
+            return complete;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (complete) {
+                return new HeadInputStream(new ByteArrayInputStream(head), null);
+            }
+            if (remainder == null) {
+                remainder = new HeadInputStream(new ByteArrayInputStream(head), super.getInputStream());
+            }
+            return remainder;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            Charset charset = getCharacterEncoding() != null ? Charset.forName(getCharacterEncoding()) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+    }
+
+    /**
+     * Los bytes ya leídos y, si el cuerpo no cupo en memoria, el resto del stream original.
+     */
+    private static class HeadInputStream extends ServletInputStream {
+
+        private final ByteArrayInputStream head;
+        private final ServletInputStream rest;
+
+        HeadInputStream(ByteArrayInputStream head, ServletInputStream rest) {
+            this.head = head;
+            this.rest = rest;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return head.available() == 0 && (rest == null || rest.isFinished());
+        }
+
+        @Override
+        public boolean isReady() {
+            return head.available() > 0 || rest == null || rest.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            // El filtro ya leyó el cuerpo de forma bloqueante antes de que el controlador pudiera iniciar el
+            // modo asíncrono; los endpoints limitados son controladores síncronos y nunca lo piden
+            throw new IllegalStateException("Non-blocking reads are not available: the request body was already "
+                    + "read by " + RateLimitFilter.class.getSimpleName());
+        }
+
+        @Override
+        public int read() throws IOException {
+            int next = head.read();
+            return next != -1 || rest == null ? next : rest.read();
+        }
+
+        @Override
+        public int read(@NonNull byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            int read = head.read(buffer, offset, length);
+            if (read != -1 || rest == null) {
+                return read;
+            }
+            return rest.read(buffer, offset, length);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.edu.uptc.gelibackend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Límites de {@link RateLimitFilter}, por grupo de endpoints ({@code rate-limit.endpoints.<nombre>.*}).
+ *
+ * @param enabled      desactivarlo deja pasar todo (p. ej. en pruebas de carga)
+ * @param maxKeys      máximo de claves (IPs o usuarios) con cubeta propia por límite; por encima de eso las
+ *                     claves nuevas comparten cubetas, así la memoria no crece con un ataque de muchas IPs
+ * @param maxBodyBytes cuerpos JSON más grandes no se leen para buscar el usuario (sólo aplica el límite por IP)
+ */
+@ConfigurationProperties(prefix = "rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("50000") int maxKeys,
+        @DefaultValue("8192") int maxBodyBytes,
+        Map<String, Endpoint> endpoints
+) {
+
+    /**
+     * @param paths         patrones de ruta (estilo Ant) que cuentan contra este límite
+     * @param subjectFields de dónde sale el usuario, el primero presente: campos del cuerpo JSON o
+     *                      {@code principal} para el usuario del JWT
+     * @param perIp         cubeta por IP de origen
+     * @param perSubject    cubeta por usuario (o token temporal); sin límite si no se configura
+     */
+    public record Endpoint(List<String> paths, List<String> subjectFields, Bucket perIp, Bucket perSubject) {
+    }
+
+    /**
+     * Cubeta de {@code capacity} peticiones que se rellena de a una cada {@code period / capacity}.
+     */
+    public record Bucket(int capacity, Duration period) {
+    }
+}
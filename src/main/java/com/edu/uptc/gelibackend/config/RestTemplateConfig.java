@@ -1,14 +1,22 @@
 package com.edu.uptc.gelibackend.config;
 
+import lombok.RequiredArgsConstructor;
+import org.apache.http.impl.client.CloseableHttpClient;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
+@RequiredArgsConstructor
 public class RestTemplateConfig {
 
+    private final KeycloakRequestMetrics keycloakRequestMetrics;
+
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(CloseableHttpClient keycloakHttpClient) {
+        RestTemplate restTemplate = new RestTemplate(new HttpClient4RequestFactory(keycloakHttpClient));
+        // Todas las llamadas del RestTemplate van a Keycloak (token, userinfo, admin REST)
+        restTemplate.getInterceptors().add(keycloakRequestMetrics.restTemplateInterceptor());
+        return restTemplate;
     }
 }
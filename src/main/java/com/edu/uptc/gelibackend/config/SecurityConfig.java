@@ -1,5 +1,6 @@
 package com.edu.uptc.gelibackend.config;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -25,6 +26,8 @@ public class SecurityConfig {
                 .cors(Customizer.withDefaults()) // 🔥 ACTIVAR CORS AQUÍ
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
+                // El despacho ASYNC sólo completa respuestas ya autorizadas (SSE, StreamingResponseBody)
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers(
                         "/swagger-ui/**",
                         "/swagger-ui/index.html",
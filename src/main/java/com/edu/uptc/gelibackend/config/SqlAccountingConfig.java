@@ -0,0 +1,42 @@
+package com.edu.uptc.gelibackend.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.hibernate.cfg.JdbcSettings;
+import org.hibernate.cfg.StatisticsSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Conteo de SQL por petición: registra en Hibernate el inspector de sentencias y, si
+ * {@code hibernate.generate_statistics} está activo, las estadísticas de {@link SqlRequestCounters}, y el
+ * {@link SqlAccountingInterceptor} en Spring MVC.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class SqlAccountingConfig implements WebMvcConfigurer {
+
+    private final SqlAccountingInterceptor sqlAccountingInterceptor;
+
+    @Value("${spring.jpa.properties.hibernate.generate_statistics:false}")
+    private boolean generateStatistics;
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlAccountingHibernateCustomizer() {
+        return properties -> {
+            properties.put(JdbcSettings.STATEMENT_INSPECTOR, SqlRequestCounters.statementInspector());
+            // Sin estadísticas no se carga la subclase de la clase interna StatisticsImpl
+            if (generateStatistics) {
+                properties.put(StatisticsSettings.STATS_BUILDER, SqlRequestCounters.statisticsFactory());
+            }
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(sqlAccountingInterceptor);
+    }
+}
@@ -0,0 +1,101 @@
+package com.edu.uptc.gelibackend.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Cabeceras de depuración {@code X-Sql-*} con los contadores que {@link SqlAccountingInterceptor} dejó en la
+ * petición. Se escriben justo antes de que la respuesta se confirme: al pedir el stream o el writer del
+ * cuerpo, al hacer flush, sendError o sendRedirect, o al terminar la cadena si nada la confirmó (respuestas
+ * sin cuerpo, como un 204). Lo que se consulte mientras se serializa el cuerpo ya no cuenta. Sólo con
+ * {@code sql-accounting.response-headers=true}.
+ */
+@Component
+@ConditionalOnProperty(name = "sql-accounting.response-headers", havingValue = "true")
+public class SqlAccountingHeadersFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENTS_HEADER = "X-Sql-Statements";
+    public static final String ROWS_HEADER = "X-Sql-Rows";
+    public static final String ENTITIES_HEADER = "X-Sql-Entities";
+    public static final String COLLECTIONS_HEADER = "X-Sql-Collections";
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        HeadersBeforeCommitResponse wrapped = new HeadersBeforeCommitResponse(request, response);
+        filterChain.doFilter(request, wrapped);
+        wrapped.writeHeaders();
+    }
+
+    private static class HeadersBeforeCommitResponse extends HttpServletResponseWrapper {
+
+        private final HttpServletRequest request;
+        private boolean written;
+
+        HeadersBeforeCommitResponse(HttpServletRequest request, HttpServletResponse response) {
+            super(response);
+            this.request = request;
+        }
+
+        void writeHeaders() {
+            if (written || isCommitted()) {
+                return;
+            }
+            written = true;
+            if (request.getAttribute(SqlRequestCounters.REQUEST_ATTRIBUTE) instanceof SqlRequestCounters counters) {
+                setHeader(STATEMENTS_HEADER, String.valueOf(counters.getStatements()));
+                setHeader(ROWS_HEADER, String.valueOf(counters.getRows()));
+                setHeader(ENTITIES_HEADER, String.valueOf(counters.getEntities()));
+                setHeader(COLLECTIONS_HEADER, String.valueOf(counters.getCollections()));
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeaders();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            writeHeaders();
+            super.sendRedirect(location);
+        }
+    }
+}
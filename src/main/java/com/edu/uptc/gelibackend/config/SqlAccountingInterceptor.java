@@ -0,0 +1,88 @@
+package com.edu.uptc.gelibackend.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Abre los contadores de {@link SqlRequestCounters} al entrar a un método de controlador y al terminar la
+ * petición los publica como {@code geli.sql.statements}, {@code geli.sql.rows}, {@code geli.sql.entities}
+ * y {@code geli.sql.collections} con tags {@code controller} y {@code method}; las tres últimas sólo con
+ * {@code hibernate.generate_statistics=true} (perfil perf). Si la petición supera
+ * {@code sql-accounting.statement-budget} sentencias se registra un warning con las más repetidas.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SqlAccountingInterceptor implements AsyncHandlerInterceptor {
+
+    private final MeterRegistry registry;
+
+    @Value("${sql-accounting.statement-budget:50}")
+    private long statementBudget;
+
+    @Value("${spring.jpa.properties.hibernate.generate_statistics:false}")
+    private boolean generateStatistics;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            request.setAttribute(SqlRequestCounters.REQUEST_ATTRIBUTE, SqlRequestCounters.start());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // El hilo vuelve al pool; el despacho async que completa la respuesta vuelve a pasar por preHandle
+        SqlRequestCounters.stop();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        SqlRequestCounters counters = SqlRequestCounters.current();
+        if (counters == null || !(handler instanceof HandlerMethod handlerMethod)) {
+            return;
+        }
+        SqlRequestCounters.stop();
+
+        String controller = handlerMethod.getBeanType().getSimpleName();
+        String method = handlerMethod.getMethod().getName();
+        record("geli.sql.statements", controller, method, counters.getStatements());
+        if (generateStatistics) {
+            record("geli.sql.rows", controller, method, counters.getRows());
+            record("geli.sql.entities", controller, method, counters.getEntities());
+            record("geli.sql.collections", controller, method, counters.getCollections());
+        }
+
+        if (statementBudget > 0 && counters.getStatements() > statementBudget) {
+            log.warn("{} {} ({}.{}) ran {} SQL statements, budget is {}. Most repeated: {}",
+                    request.getMethod(), request.getRequestURI(), controller, method, counters.getStatements(),
+                    statementBudget, counters.mostRepeated(3).stream()
+                            .map(entry -> entry.getValue() + "x " + abbreviate(entry.getKey()))
+                            .collect(Collectors.joining(" | ")));
+        }
+    }
+
+    private void record(String name, String controller, String method, long value) {
+        DistributionSummary.builder(name)
+                .tag("controller", controller)
+                .tag("method", method)
+                .register(registry)
+                .record(value);
+    }
+
+    private static String abbreviate(String sql) {
+        return sql.length() <= 160 ? sql : sql.substring(0, 160) + "...";
+    }
+}
@@ -0,0 +1,124 @@
+package com.edu.uptc.gelibackend.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.internal.StatisticsImpl;
+import org.hibernate.stat.spi.StatisticsFactory;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Contadores de SQL de la petición HTTP en curso (por hilo): sentencias preparadas, filas devueltas por
+ * consultas, entidades cargadas y colecciones inicializadas.
+ *
+ * <p>Las sentencias las cuenta el {@link StatementInspector}, siempre. Filas, entidades y colecciones salen de
+ * una subclase de {@link StatisticsImpl}, clase interna de Hibernate que puede cambiar entre versiones, y
+ * sólo se cuentan con {@code hibernate.generate_statistics=true}: las estadísticas suman en contadores
+ * globales compartidos por cada consulta y carga, así que se activan sólo en el perfil perf. Fuera de una
+ * petición (jobs, arranque) no se cuenta nada.</p>
+ */
+public final class SqlRequestCounters {
+
+    // Atributo de la petición con sus contadores, para leerlos cuando ya se quitaron del hilo
+    static final String REQUEST_ATTRIBUTE = SqlRequestCounters.class.getName();
+
+    private static final ThreadLocal<SqlRequestCounters> CURRENT = new ThreadLocal<>();
+    // Límite de sentencias distintas que se guardan para el log de presupuesto
+    private static final int MAX_DISTINCT_STATEMENTS = 200;
+
+    private long statements;
+    private long rows;
+    private long entities;
+    private long collections;
+    private final Map<String, Integer> statementCounts = new HashMap<>();
+
+    private SqlRequestCounters() {
+    }
+
+    static SqlRequestCounters start() {
+        SqlRequestCounters counters = new SqlRequestCounters();
+        CURRENT.set(counters);
+        return counters;
+    }
+
+    static SqlRequestCounters current() {
+        return CURRENT.get();
+    }
+
+    static void stop() {
+        CURRENT.remove();
+    }
+
+    public long getStatements() {
+        return statements;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getEntities() {
+        return entities;
+    }
+
+    public long getCollections() {
+        return collections;
+    }
+
+    /**
+     * Las {@code limit} sentencias que más se repitieron, de mayor a menor: un N+1 aparece como la misma
+     * sentencia decenas de veces.
+     */
+    public List<Map.Entry<String, Integer>> mostRepeated(int limit) {
+        return statementCounts.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()))
+                .limit(limit)
+                .toList();
+    }
+
+    static StatementInspector statementInspector() {
+        return sql -> {
+            SqlRequestCounters counters = CURRENT.get();
+            if (counters != null) {
+                counters.statements++;
+                if (counters.statementCounts.size() < MAX_DISTINCT_STATEMENTS || counters.statementCounts.containsKey(sql)) {
+                    counters.statementCounts.merge(sql, 1, Integer::sum);
+                }
+            }
+            return sql;
+        };
+    }
+
+    static StatisticsFactory statisticsFactory() {
+        return sessionFactory -> new StatisticsImpl(sessionFactory) {
+            @Override
+            public void queryExecuted(String hql, int rows, long time) {
+                super.queryExecuted(hql, rows, time);
+                SqlRequestCounters counters = CURRENT.get();
+                if (counters != null) {
+                    counters.rows += rows;
+                }
+            }
+
+            @Override
+            public void loadEntity(String entityName) {
+                super.loadEntity(entityName);
+                SqlRequestCounters counters = CURRENT.get();
+                if (counters != null) {
+                    counters.entities++;
+                }
+            }
+
+            @Override
+            public void loadCollection(String role) {
+                super.loadCollection(role);
+                SqlRequestCounters counters = CURRENT.get();
+                if (counters != null) {
+                    counters.collections++;
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,78 @@
+package com.edu.uptc.gelibackend.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets por clave sin locks. Cada cubeta es un solo {@code long}, el instante teórico de la próxima
+ * llegada (GCRA, equivalente a un token bucket): una petición adelanta ese instante un intervalo de emisión
+ * y se rechaza si queda más de {@code capacity} intervalos en el futuro. Admitir o rechazar es una lectura
+ * y un compareAndSet.
+ *
+ * <p>Como mucho {@code maxKeys} claves tienen cubeta propia; con el mapa lleno las claves nuevas caen en
+ * una de {@value #OVERFLOW_BUCKETS} cubetas compartidas (más estrictas, nunca más permisivas). {@link #prune}
+ * quita las cubetas que ya se rellenaron del todo, que equivalen a no tener cubeta.</p>
+ */
+class TokenBucketLimiter {
+
+    private static final int OVERFLOW_BUCKETS = 64;
+
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+    private final int maxKeys;
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong[] overflow = new AtomicLong[OVERFLOW_BUCKETS];
+
+    TokenBucketLimiter(RateLimitProperties.Bucket bucket, int maxKeys) {
+        if (bucket.capacity() <= 0 || bucket.period() == null || bucket.period().isNegative() || bucket.period().isZero()) {
+            throw new IllegalArgumentException("Rate limit buckets need a positive capacity and period");
+        }
+        this.emissionIntervalNanos = Math.max(1, bucket.period().toNanos() / bucket.capacity());
+        this.burstNanos = emissionIntervalNanos * bucket.capacity();
+        this.maxKeys = maxKeys;
+        for (int i = 0; i < OVERFLOW_BUCKETS; i++) {
+            overflow[i] = new AtomicLong(Long.MIN_VALUE);
+        }
+    }
+
+    /**
+     * @return 0 si se admite la petición, o los nanosegundos que faltan para que haya un token
+     */
+    long tryAcquire(String key, long nowNanos) {
+        AtomicLong bucket = bucket(key);
+        while (true) {
+            long arrival = bucket.get();
+            long next = Math.max(arrival, nowNanos) + emissionIntervalNanos;
+            long wait = next - nowNanos - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    private AtomicLong bucket(String key) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxKeys) {
+            return overflow[Math.floorMod(key.hashCode(), OVERFLOW_BUCKETS)];
+        }
+        AtomicLong created = new AtomicLong(Long.MIN_VALUE);
+        bucket = buckets.putIfAbsent(key, created);
+        return bucket != null ? bucket : created;
+    }
+
+    // Una petición que justo use una cubeta que se está quitando recupera a lo sumo ese token
+    void prune(long nowNanos) {
+        buckets.values().removeIf(bucket -> bucket.get() <= nowNanos);
+    }
+
+    int size() {
+        return buckets.size();
+    }
+}
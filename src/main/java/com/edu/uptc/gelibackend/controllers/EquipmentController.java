@@ -1,5 +1,6 @@
 package com.edu.uptc.gelibackend.controllers;
 
+import com.edu.uptc.gelibackend.config.AuthenticatedUserResolver;
 import com.edu.uptc.gelibackend.dtos.EquipmentCreationDTO;
 import com.edu.uptc.gelibackend.dtos.EquipmentResponseDTO;
 import com.edu.uptc.gelibackend.dtos.EquipmentUpdateDTO;
@@ -17,7 +18,6 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -51,6 +51,7 @@ import java.util.List;
 public class EquipmentController {
 
     private final EquipmentService service;
+    private final AuthenticatedUserResolver authenticatedUserResolver;
 
     /**
      * Fetch all registered laboratory equipment with pagination.
@@ -255,6 +256,12 @@ public class EquipmentController {
                     - `availability` (Boolean): The availability status of the equipment.
                     - `functionId` (Long): The ID of the function.
                     The filter is optional, and you can provide any combination of the above attributes.
+
+                    Pagination:
+                    - By default `page`/`size` are used and the response includes `totalElements`/`totalPages`.
+                    - `withCount=false` skips the count query; totals are returned as -1 and `hasNext` tells if more rows exist.
+                    - Sending `cursor` (empty for the first page) switches to keyset pagination ordered by id;
+                      `page` is ignored and the next page is requested with the returned `nextCursor`.
                     Pagination parameters:
                     - `page` (int): The page number to retrieve (zero-based index).
                     - `size` (int): The number of items per page.
@@ -278,8 +285,10 @@ public class EquipmentController {
     @PreAuthorize("hasAuthority('EQUIPMENT_READ')")
     public ResponseEntity<PageResponse<EquipmentFilterResponseDTO>> filter(@RequestBody EquipmentFilterDTO filter,
                                                                                        @RequestParam(defaultValue = "0") int page,
-                                                                                       @RequestParam(defaultValue = "10") int size) {
-        PageResponse<EquipmentFilterResponseDTO> response = service.filter(filter,page, size);
+                                                                                       @RequestParam(defaultValue = "10") int size,
+                                                                                       @RequestParam(required = false) String cursor,
+                                                                                       @RequestParam(defaultValue = "true") boolean withCount) {
+        PageResponse<EquipmentFilterResponseDTO> response = service.filter(filter, page, size, cursor, withCount);
         if (response.getContent().isEmpty()) {
             return ResponseEntity.noContent().build();
         }
@@ -292,8 +301,7 @@ public class EquipmentController {
             Authentication authentication,
             @PathVariable Long labId
     ) {
-        Jwt jwt = (Jwt) authentication.getPrincipal();
-        String email = jwt.getClaim("email");
+        String email = authenticatedUserResolver.resolve(authentication).email();
         List<EquipmentByUserResponseDTO> list = service.getAuthorizedEquipmentsByUserAndLab(email, labId);
         return list.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(list);
     }
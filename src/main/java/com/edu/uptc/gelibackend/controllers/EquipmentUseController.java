@@ -1,9 +1,12 @@
 package com.edu.uptc.gelibackend.controllers;
 
+import com.edu.uptc.gelibackend.config.AuthenticatedUserResolver;
 import com.edu.uptc.gelibackend.dtos.*;
 import com.edu.uptc.gelibackend.dtos.equipment.EquipmentFilterResponseDTO;
+import com.edu.uptc.gelibackend.dtos.equipment.use.EquipmentAvailabilityEventDTO;
 import com.edu.uptc.gelibackend.dtos.equipment.use.EquipmentAvailabilityStatusDTO;
 import com.edu.uptc.gelibackend.filters.EquipmentUseFilterDTO;
+import com.edu.uptc.gelibackend.services.EquipmentAvailabilityStreamService;
 import com.edu.uptc.gelibackend.services.EquipmentUseService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -13,11 +16,12 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 
 import java.util.List;
@@ -52,6 +56,8 @@ import java.util.Optional;
 public class EquipmentUseController {
 
     private final EquipmentUseService service;
+    private final EquipmentAvailabilityStreamService availabilityStreamService;
+    private final AuthenticatedUserResolver authenticatedUserResolver;
 
     /**
      * Start the use of a specific equipment.
@@ -82,9 +88,8 @@ public class EquipmentUseController {
     @PostMapping("/start") //start
     @PreAuthorize("hasAuthority('EQUIPMENT_USE_WRITE')")
     public ResponseEntity<EquipmentUseResponseDTO> startEquipmentUse(@RequestBody EquipmentStartUseDTO equipmentStartUseDTO, Authentication authentication) {
-        // Extraer el username del token (preferred_username)
-        Jwt jwt = (Jwt) authentication.getPrincipal();
-        String username = jwt.getClaim("email");
+        // El uso se registra con el correo del token
+        String username = authenticatedUserResolver.resolve(authentication).email();
         Optional<EquipmentUseResponseDTO> response = service.startEquipmentUse(equipmentStartUseDTO, username);
         return response.map(useDTO -> ResponseEntity.status(201).body(useDTO)).orElseGet(() -> ResponseEntity.badRequest().build());
     }
@@ -218,6 +223,12 @@ public class EquipmentUseController {
                     - `endUseTimeTo` (LocalTime): The end time of the usage period (ISO format).
                     
                     The filter is optional, and you can provide any combination of the above attributes.
+
+                    Pagination:
+                    - By default `page`/`size` are used and the response includes `totalElements`/`totalPages`.
+                    - `withCount=false` skips the count query; totals are returned as -1 and `hasNext` tells if more rows exist.
+                    - Sending `cursor` (empty for the first page) switches to keyset pagination ordered by start time (newest first) and id;
+                      `page` is ignored and the next page is requested with the returned `nextCursor`.
                     
                     Requirements:
                     - The user must have the 'EQUIPMENT_USE_READ' authority.
@@ -241,8 +252,9 @@ public class EquipmentUseController {
     })
     @PostMapping("/filter")
     @PreAuthorize("hasAuthority('EQUIPMENT_USE_READ')")
-    public ResponseEntity<PageResponse<EquipmentUseResponseDTO>>filter(@RequestBody EquipmentUseFilterDTO filter, @RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "10") int size) {
-        PageResponse<EquipmentUseResponseDTO> response = service.filter(filter,page, size);
+    public ResponseEntity<PageResponse<EquipmentUseResponseDTO>>filter(@RequestBody EquipmentUseFilterDTO filter, @RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "10") int size,
+                                                                       @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "true") boolean withCount) {
+        PageResponse<EquipmentUseResponseDTO> response = service.filter(filter, page, size, cursor, withCount);
         if (response.getContent().isEmpty()) {
             return ResponseEntity.noContent().build();
         }
@@ -255,9 +267,40 @@ public class EquipmentUseController {
             @RequestParam Long equipmentId,
             Authentication authentication
     ) {
-        Jwt jwt = (Jwt) authentication.getPrincipal();
-        String email = jwt.getClaim("email");
+        String email = authenticatedUserResolver.resolve(authentication).email();
         return ResponseEntity.ok(service.getEquipmentAvailabilityStatus(equipmentId, email));
     }
 
-}
\ No newline at end of file
+    /**
+     * Stream the availability of every equipment in a laboratory.
+     *
+     * @param laboratoryId The ID of the laboratory.
+     * @return A Server-Sent Events stream of {@link EquipmentAvailabilityEventDTO}.
+     */
+    @Operation(
+            summary = "Stream equipment availability of a laboratory",
+            description = """
+                    Opens a Server-Sent Events stream with the availability of the laboratory's equipment.
+                    The current status of every equipment is sent first, then one event per change.
+                    Events are named `equipment-availability` and carry `equipmentId`, `laboratoryId`,
+                    `status` (`AVAILABLE`, `IN_USE` or `UNAVAILABLE`) and `changedAt`.
+                    The server closes the stream after a timeout; clients are expected to reconnect.
+
+                    Requirements:
+                    - The user must have the 'EQUIPMENT_READ' authority.
+                    """
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Stream opened.",
+            content = @Content(
+                    mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+                    schema = @Schema(implementation = EquipmentAvailabilityEventDTO.class)
+            )
+    )
+    @GetMapping(value = "/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAuthority('EQUIPMENT_READ')")
+    public SseEmitter streamAvailability(@RequestParam Long laboratoryId) {
+        return availabilityStreamService.subscribe(laboratoryId);
+    }
+}
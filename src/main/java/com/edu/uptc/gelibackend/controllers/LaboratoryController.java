@@ -1,5 +1,6 @@
 package com.edu.uptc.gelibackend.controllers;
 
+import com.edu.uptc.gelibackend.config.AuthenticatedUserResolver;
 import com.edu.uptc.gelibackend.dtos.LaboratoryDTO;
 import com.edu.uptc.gelibackend.dtos.PageResponse;
 import com.edu.uptc.gelibackend.filters.LaboratoryFilterDTO;
@@ -15,7 +16,6 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -49,6 +49,7 @@ import java.util.List;
 public class LaboratoryController {
 
     private final LaboratoryService service;
+    private final AuthenticatedUserResolver authenticatedUserResolver;
 
     /**
      * Retrieve all laboratories.
@@ -253,6 +254,12 @@ public class LaboratoryController {
                     - `equipmentCountTo` (Integer): The maximum number of equipment in the laboratory.
                     
                     The filter is optional, and you can provide any combination of the above attributes.
+
+                    Pagination:
+                    - By default `page`/`size` are used and the response includes `totalElements`/`totalPages`.
+                    - `withCount=false` skips the count query; totals are returned as -1 and `hasNext` tells if more rows exist.
+                    - Sending `cursor` (empty for the first page) switches to keyset pagination ordered by id;
+                      `page` is ignored and the next page is requested with the returned `nextCursor`.
                     ---
                     Requirements:
                     - The user must have the 'LABORATORY_READ' authority.
@@ -279,9 +286,11 @@ public class LaboratoryController {
     public ResponseEntity<PageResponse<LaboratoryDTO>> filterLaboratories(
             @RequestBody LaboratoryFilterDTO filters,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") boolean withCount
     ) {
-        PageResponse<LaboratoryDTO> response = service.filterLaboratories(filters, page, size);
+        PageResponse<LaboratoryDTO> response = service.filterLaboratories(filters, page, size, cursor, withCount);
         return response.getContent().isEmpty()
                 ? ResponseEntity.noContent().build()
                 : ResponseEntity.ok(response);
@@ -290,8 +299,7 @@ public class LaboratoryController {
     @GetMapping("/authorized/by-user")
     @PreAuthorize("hasAuthority('LABORATORY_READ')")
     public ResponseEntity<List<LaboratoryDTO>> getAuthorizedLaboratoriesByUser(Authentication authentication) {
-        Jwt jwt = (Jwt) authentication.getPrincipal();
-        String email = jwt.getClaim("email");
+        String email = authenticatedUserResolver.resolve(authentication).email();
         List<LaboratoryDTO> list = service.findAuthorizedByUserId(email);
         return list.isEmpty()
                 ? ResponseEntity.noContent().build()
@@ -8,11 +8,13 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.*;
+import org.springframework.security.core.Authentication;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import com.edu.uptc.gelibackend.config.AuthenticatedUserResolver;
 import com.edu.uptc.gelibackend.services.KeycloakAdminService;
 import com.edu.uptc.gelibackend.services.RecoveryCodeService;
 
@@ -40,11 +42,12 @@ public class PasswordController {
     private final RestTemplate restTemplate;
     private final KeycloakAdminService keycloakAdminService;
     private final RecoveryCodeService recoveryCodeService;
+    private final AuthenticatedUserResolver authenticatedUserResolver;
 
     /**
      * Validate the current password of the authenticated user.
      *
-     * @param authHeader The authorization header containing the user's JWT token.
+     * @param authentication The authenticated user's JWT.
      * @param body       A map containing the current password.
      * @return A response indicating whether the password is valid or not.
      */
@@ -74,7 +77,7 @@ public class PasswordController {
     })
     @PostMapping("/validate")
     public ResponseEntity<?> validateCurrentPassword(
-            @RequestHeader("Authorization") String authHeader,
+            Authentication authentication,
             @RequestBody Map<String, String> body) {
 
         String currentPassword = body.get("currentPassword");
@@ -82,25 +85,12 @@ public class PasswordController {
             return ResponseEntity.badRequest().body("La contraseña actual es requerida");
         }
 
-        // 1. Obtener username desde el token del usuario actual
-        HttpHeaders userHeaders = new HttpHeaders();
-        userHeaders.setBearerAuth(authHeader.replace("Bearer ", ""));
-
-        ResponseEntity<Map> userInfoResponse;
-        try {
-            userInfoResponse = restTemplate.exchange(
-                    keycloakAdminService.getKeycloakUrl() + "/realms/" + keycloakAdminService.getRealm()
-                            + "/protocol/openid-connect/userinfo",
-                    HttpMethod.GET,
-                    new HttpEntity<>(userHeaders),
-                    Map.class
-            );
-        } catch (HttpClientErrorException e) {
+        // 1. Obtener username desde el token ya validado del usuario actual
+        String username = authenticatedUserResolver.resolve(authentication).username();
+        if (username == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Token inválido");
         }
 
-        String username = (String) userInfoResponse.getBody().get("preferred_username");
-
         // 2. Intentar login con user + current password (sin importar si ya está autenticado)
         LinkedMultiValueMap<String, String> formParams = new LinkedMultiValueMap<>();
         formParams.add("client_id", "geli-backend"); // tu client_id configurado en Keycloak
@@ -132,7 +122,7 @@ public class PasswordController {
     /**
      * Change the password of the authenticated user.
      *
-     * @param authHeader The authorization header containing the user's JWT token.
+     * @param authentication The authenticated user's JWT.
      * @param body       A map containing the new password.
      * @return A response indicating whether the password was successfully changed.
      */
@@ -162,7 +152,7 @@ public class PasswordController {
     })
     @PostMapping("/change")
     public ResponseEntity<?> changePassword(
-            @RequestHeader("Authorization") String authHeader,
+            Authentication authentication,
             @RequestBody Map<String, String> body) {
 
         String newPassword = body.get("newPassword");
@@ -170,29 +160,10 @@ public class PasswordController {
             return ResponseEntity.badRequest().body("Nueva contraseña requerida");
         }
 
-        HttpHeaders userHeaders = new HttpHeaders();
-        userHeaders.setBearerAuth(authHeader.replace("Bearer ", ""));
-
-        ResponseEntity<Map> userInfoResponse;
-        try {
-            userInfoResponse = restTemplate.exchange(
-                    keycloakAdminService.getKeycloakUrl() + "/realms/" + keycloakAdminService.getRealm()
-                            + "/protocol/openid-connect/userinfo",
-                    HttpMethod.GET,
-                    new HttpEntity<>(userHeaders),
-                    Map.class
-            );
-        } catch (HttpClientErrorException e) {
-            return ResponseEntity.status(e.getStatusCode()).body("Token inválido");
+        String userId = authenticatedUserResolver.resolve(authentication).id();
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Token inválido");
         }
-
-        String userId = (String) userInfoResponse.getBody().get("sub");
-        String adminAccessToken = keycloakAdminService.getAdminToken();
-
-        HttpHeaders passwordHeaders = new HttpHeaders();
-        passwordHeaders.setBearerAuth(adminAccessToken);
-        passwordHeaders.setContentType(MediaType.APPLICATION_JSON);
-
         Map<String, Object> passwordPayload = Map.of(
                 "type", "password",
                 "value", newPassword,
@@ -200,20 +171,27 @@ public class PasswordController {
         );
 
         try {
-            restTemplate.exchange(
-                    keycloakAdminService.getKeycloakUrl() + "/admin/realms/" + keycloakAdminService.getRealm()
-                            + "/users/" + userId + "/reset-password",
-                    HttpMethod.PUT,
-                    new HttpEntity<>(passwordPayload, passwordHeaders),
-                    Void.class
-            );
-            // Invalida todas las sesiones del usuario (logout global)
-            restTemplate.postForEntity(
-                    keycloakAdminService.getKeycloakUrl() + "/admin/realms/" + keycloakAdminService.getRealm()
-                            + "/users/" + userId + "/logout",
-                    new HttpEntity<>(passwordHeaders),
-                    Void.class
-            );
+            // Fijar la misma contraseña dos veces es inocuo: si el logout da 401, se reintentan ambas llamadas
+            keycloakAdminService.withAdminToken(adminAccessToken -> {
+                HttpHeaders passwordHeaders = new HttpHeaders();
+                passwordHeaders.setBearerAuth(adminAccessToken);
+                passwordHeaders.setContentType(MediaType.APPLICATION_JSON);
+
+                restTemplate.exchange(
+                        keycloakAdminService.getKeycloakUrl() + "/admin/realms/" + keycloakAdminService.getRealm()
+                                + "/users/" + userId + "/reset-password",
+                        HttpMethod.PUT,
+                        new HttpEntity<>(passwordPayload, passwordHeaders),
+                        Void.class
+                );
+                // Invalida todas las sesiones del usuario (logout global)
+                return restTemplate.postForEntity(
+                        keycloakAdminService.getKeycloakUrl() + "/admin/realms/" + keycloakAdminService.getRealm()
+                                + "/users/" + userId + "/logout",
+                        new HttpEntity<>(passwordHeaders),
+                        Void.class
+                );
+            });
             return ResponseEntity.ok(Map.of(
                     "success", true,
                     "message", "Contraseña actualizada exitosamente."
@@ -267,26 +245,27 @@ public class PasswordController {
         return recoveryCodeService.findByTempToken(tempToken)
                 .map(recoveryCode -> {
                     try {
-                        String adminToken = keycloakAdminService.getAdminToken();
-                        String userId = keycloakAdminService.getUserIdByUsername(recoveryCode.getUsername(), adminToken);
-
-                        HttpHeaders headers = new HttpHeaders();
-                        headers.setBearerAuth(adminToken);
-                        headers.setContentType(MediaType.APPLICATION_JSON);
-
                         Map<String, Object> payload = Map.of(
                                 "type", "password",
                                 "value", newPassword,
                                 "temporary", false
                         );
 
-                        restTemplate.exchange(
-                                keycloakAdminService.getKeycloakUrl() + "/admin/realms/"
-                                        + keycloakAdminService.getRealm() + "/users/" + userId + "/reset-password",
-                                HttpMethod.PUT,
-                                new HttpEntity<>(payload, headers),
-                                Void.class
-                        );
+                        keycloakAdminService.withAdminToken(adminToken -> {
+                            String userId = keycloakAdminService.getUserIdByUsername(recoveryCode.getUsername(), adminToken);
+
+                            HttpHeaders headers = new HttpHeaders();
+                            headers.setBearerAuth(adminToken);
+                            headers.setContentType(MediaType.APPLICATION_JSON);
+
+                            return restTemplate.exchange(
+                                    keycloakAdminService.getKeycloakUrl() + "/admin/realms/"
+                                            + keycloakAdminService.getRealm() + "/users/" + userId + "/reset-password",
+                                    HttpMethod.PUT,
+                                    new HttpEntity<>(payload, headers),
+                                    Void.class
+                            );
+                        });
 
                         recoveryCodeService.invalidateCode(recoveryCode.getUsername());
 
@@ -1,5 +1,6 @@
 package com.edu.uptc.gelibackend.controllers;
 
+import com.edu.uptc.gelibackend.services.EmailOutboxService;
 import com.edu.uptc.gelibackend.services.KeycloakAdminService;
 import com.edu.uptc.gelibackend.services.RecoveryCodeService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -10,8 +11,6 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.*;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
@@ -45,7 +44,7 @@ import java.util.UUID;
 public class RecoveryController {
 
     private final RestTemplate restTemplate;
-    private final JavaMailSender mailSender;
+    private final EmailOutboxService emailOutboxService;
     private final RecoveryCodeService recoveryCodeService;
     private final KeycloakAdminService keycloakAdminService;
 
@@ -91,18 +90,18 @@ public class RecoveryController {
         }
 
         try {
-            String accessToken = keycloakAdminService.getAdminToken();
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setBearerAuth(accessToken);
-
-            ResponseEntity<List> userResponse = restTemplate.exchange(
-                    keycloakAdminService.getKeycloakUrl() + "/admin/realms/" + keycloakAdminService.getRealm()
-                            + "/users?username=" + username,
-                    HttpMethod.GET,
-                    new HttpEntity<>(headers),
-                    List.class
-            );
+            ResponseEntity<List> userResponse = keycloakAdminService.withAdminToken(accessToken -> {
+                HttpHeaders headers = new HttpHeaders();
+                headers.setBearerAuth(accessToken);
+
+                return restTemplate.exchange(
+                        keycloakAdminService.getKeycloakUrl() + "/admin/realms/" + keycloakAdminService.getRealm()
+                                + "/users?username=" + username,
+                        HttpMethod.GET,
+                        new HttpEntity<>(headers),
+                        List.class
+                );
+            });
 
             if (userResponse.getBody() == null || userResponse.getBody().isEmpty()) {
                 return ResponseEntity.ok(Map.of(
@@ -125,11 +124,10 @@ public class RecoveryController {
 
             String code = recoveryCodeService.generateCode(username);
 
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(email);
-            message.setSubject("Recuperación de contraseña - Código de verificación");
-            message.setText("Tu código de recuperación es: " + code + "\nEste código expira en 5 minutos.");
-            mailSender.send(message);
+            emailOutboxService.enqueue(email,
+                    "Recuperación de contraseña - Código de verificación",
+                    "Tu código de recuperación es: " + code + "\nEste código expira en 5 minutos.",
+                    RecoveryCodeService.CODE_VALIDITY);
 
             String tempToken = UUID.randomUUID().toString();
             recoveryCodeService.saveTempToken(username, tempToken);
@@ -257,18 +255,18 @@ public class RecoveryController {
         }
 
         try {
-            String accessToken = keycloakAdminService.getAdminToken();
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setBearerAuth(accessToken);
-
-            ResponseEntity<List> userResponse = restTemplate.exchange(
-                    keycloakAdminService.getKeycloakUrl() + "/admin/realms/" + keycloakAdminService.getRealm()
-                            + "/users?username=" + username,
-                    HttpMethod.GET,
-                    new HttpEntity<>(headers),
-                    List.class
-            );
+            ResponseEntity<List> userResponse = keycloakAdminService.withAdminToken(accessToken -> {
+                HttpHeaders headers = new HttpHeaders();
+                headers.setBearerAuth(accessToken);
+
+                return restTemplate.exchange(
+                        keycloakAdminService.getKeycloakUrl() + "/admin/realms/" + keycloakAdminService.getRealm()
+                                + "/users?username=" + username,
+                        HttpMethod.GET,
+                        new HttpEntity<>(headers),
+                        List.class
+                );
+            });
 
             if (userResponse.getBody() == null || userResponse.getBody().isEmpty()) {
                 return ResponseEntity.ok(Map.of(
@@ -294,12 +292,11 @@ public class RecoveryController {
             String newTempToken = UUID.randomUUID().toString();
             recoveryCodeService.saveTempToken(username, newTempToken);
 
-            // Enviar email
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(email);
-            message.setSubject("Reenvío del código de verificación");
-            message.setText("Tu nuevo código de recuperación es: " + code + "\nEste código expira en 5 minutos.");
-            mailSender.send(message);
+            // Encolar email (lo envía EmailOutboxDispatcher)
+            emailOutboxService.enqueue(email,
+                    "Reenvío del código de verificación",
+                    "Tu nuevo código de recuperación es: " + code + "\nEste código expira en 5 minutos.",
+                    RecoveryCodeService.CODE_VALIDITY);
 
             return ResponseEntity.ok(Map.of(
                     "usuarioEncontrado", true,
@@ -0,0 +1,175 @@
+package com.edu.uptc.gelibackend.controllers;
+
+import com.edu.uptc.gelibackend.dtos.statistics.FunctionUsageStatisticsDTO;
+import com.edu.uptc.gelibackend.dtos.statistics.UsageStatisticsDTO;
+import com.edu.uptc.gelibackend.services.UsageRollupService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controller for equipment usage statistics.
+ * Reads the pre-aggregated usage rollups (per equipment, laboratory, function, day and hour)
+ * instead of scanning the equipment usage records.
+ *
+ * <p>Requirements:</p>
+ * <ul>
+ *   <li>JWT authentication is mandatory.</li>
+ *   <li>'EQUIPMENT_USE_READ' authority for read operations.</li>
+ *   <li>Role 'QUALITY-ADMIN-USER' to rebuild the rollups.</li>
+ * </ul>
+ */
+@RestController
+@RequestMapping("/api/v1/statistics")
+@RequiredArgsConstructor
+@Tag(
+        name = "Usage Statistics",
+        description = """
+                Equipment usage statistics.
+                This API provides session counts, used minutes, processed samples and function usage
+                aggregated by day or hour, optionally restricted to a laboratory or an equipment.
+                """
+)
+@PreAuthorize("hasRole('QUALITY-ADMIN-USER') or hasRole('AUTHORIZED-USER')")
+public class StatisticsController {
+
+    private final UsageRollupService service;
+
+    /**
+     * Retrieve usage totals by day or by hour.
+     *
+     * @param from         First day of the range (inclusive).
+     * @param to           Last day of the range (inclusive).
+     * @param laboratoryId Optional laboratory ID.
+     * @param equipmentId  Optional equipment ID.
+     * @param granularity  DAY or HOUR.
+     * @return The list of {@link UsageStatisticsDTO} ordered by bucket.
+     */
+    @Operation(
+            summary = "Get usage statistics",
+            description = """
+                    Fetch the number of sessions, used minutes and processed samples of the finished equipment
+                    uses started between `from` and `to` (inclusive), grouped by day or by hour.
+                    Optionally restricted to a laboratory (`laboratoryId`) or an equipment (`equipmentId`).
+                    
+                    Requirements:
+                    - The user must have the 'EQUIPMENT_USE_READ' authority.
+                    """
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Successfully retrieved the usage statistics.",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = UsageStatisticsDTO.class)))
+            ),
+            @ApiResponse(
+                    responseCode = "204",
+                    description = "No usage recorded in the range."
+            )
+    })
+    @GetMapping("/usage")
+    @PreAuthorize("hasAuthority('EQUIPMENT_USE_READ')")
+    public ResponseEntity<List<UsageStatisticsDTO>> getUsage(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long laboratoryId,
+            @RequestParam(required = false) Long equipmentId,
+            @RequestParam(defaultValue = "DAY") UsageRollupService.Granularity granularity
+    ) {
+        List<UsageStatisticsDTO> usage = service.getUsage(from, to, laboratoryId, equipmentId, granularity);
+        return usage.isEmpty()
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.ok(usage);
+    }
+
+    /**
+     * Retrieve how many times each function was used.
+     *
+     * @param from         First day of the range (inclusive).
+     * @param to           Last day of the range (inclusive).
+     * @param laboratoryId Optional laboratory ID.
+     * @param equipmentId  Optional equipment ID.
+     * @return The list of {@link FunctionUsageStatisticsDTO}, most used first.
+     */
+    @Operation(
+            summary = "Get function usage statistics",
+            description = """
+                    Fetch how many finished equipment uses started between `from` and `to` (inclusive) used each function,
+                    most used first. Optionally restricted to a laboratory (`laboratoryId`) or an equipment (`equipmentId`).
+                    
+                    Requirements:
+                    - The user must have the 'EQUIPMENT_USE_READ' authority.
+                    """
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Successfully retrieved the function usage statistics.",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = FunctionUsageStatisticsDTO.class)))
+            ),
+            @ApiResponse(
+                    responseCode = "204",
+                    description = "No function usage recorded in the range."
+            )
+    })
+    @GetMapping("/functions")
+    @PreAuthorize("hasAuthority('EQUIPMENT_USE_READ')")
+    public ResponseEntity<List<FunctionUsageStatisticsDTO>> getFunctionUsage(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long laboratoryId,
+            @RequestParam(required = false) Long equipmentId
+    ) {
+        List<FunctionUsageStatisticsDTO> usage = service.getFunctionUsage(from, to, laboratoryId, equipmentId);
+        return usage.isEmpty()
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.ok(usage);
+    }
+
+    /**
+     * Rebuild the usage rollups of a date range from the equipment usage records.
+     *
+     * @param from First day of the range (inclusive).
+     * @param to   Last day of the range (inclusive).
+     * @return The number of usage buckets generated.
+     */
+    @Operation(
+            summary = "Rebuild usage statistics",
+            description = """
+                    Recalculate the usage rollups of the days between `from` and `to` (inclusive) from the equipment
+                    usage records. Used for the initial load and to correct a range; the last days are also rebuilt nightly.
+                    The range is limited to `usage-rollup.rebuild-max-days` (93 by default); longer loads are split into
+                    several calls. Equipment uses that end while a month is being rebuilt wait until it is done.
+                    
+                    Requirements:
+                    - The user must have the role 'QUALITY-ADMIN-USER'.
+                    """
+    )
+    @ApiResponse(responseCode = "200", description = "Rollups rebuilt.")
+    @ApiResponse(responseCode = "400", description = "Invalid range, or longer than usage-rollup.rebuild-max-days.")
+    @PostMapping("/rollups/rebuild")
+    @PreAuthorize("hasRole('QUALITY-ADMIN-USER')")
+    public ResponseEntity<Map<String, Object>> rebuild(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        try {
+            return ResponseEntity.ok(Map.of("buckets", service.rebuildRequested(from, to)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+}
@@ -11,11 +11,17 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 /**
@@ -47,6 +53,10 @@ import java.util.List;
 public class UsersController {
 
     private final UserService userService;
+    private final ObjectMapper objectMapper;
+
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final byte[] NEW_LINE = "\n".getBytes();
 
     /**
      * Retrieve all users.
@@ -84,6 +94,48 @@ public class UsersController {
         return users.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(users);
     }
 
+    /**
+     * Export all users as NDJSON.
+     *
+     * @return A streamed response with one {@link UserResponseDTO} per line.
+     */
+    @Operation(
+            summary = "Export all users",
+            description = """
+                    Stream every registered user as newline-delimited JSON (one user per line).
+                    Users are read with a forward-only cursor and written as they are mapped,
+                    so the response size does not affect server memory.
+                    Requirements:
+                    - The user must have the 'USER_READ' authority.
+                    - The user must have the role 'QUALITY-ADMIN-USER'.
+                    """
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Users streamed successfully.",
+            content = @Content(
+                    mediaType = "application/x-ndjson",
+                    schema = @Schema(implementation = UserResponseDTO.class)
+            )
+    )
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    @PreAuthorize("hasAuthority('USER_READ')")
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        StreamingResponseBody body = outputStream -> userService.exportAll(user -> writeLine(outputStream, user));
+        return ResponseEntity.ok()
+                .contentType(APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    private void writeLine(OutputStream outputStream, UserResponseDTO user) {
+        try {
+            outputStream.write(objectMapper.writeValueAsBytes(user));
+            outputStream.write(NEW_LINE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     /**
      * Retrieve a specific user by their ID.
      *
@@ -210,6 +262,12 @@ public class UsersController {
                     - `positionId` (Long): The ID of the user's position.
                     ---
                     The filter is optional, and you can provide any combination of the above attributes.
+
+                    Pagination:
+                    - By default `page`/`size` are used and the response includes `totalElements`/`totalPages`.
+                    - `withCount=false` skips the count query; totals are returned as -1 and `hasNext` tells if more rows exist.
+                    - Sending `cursor` (empty for the first page) switches to keyset pagination ordered by id;
+                      `page` is ignored and the next page is requested with the returned `nextCursor`.
                                     
                     Requirements:
                     - The user must have the 'USER_READ' authority.
@@ -236,9 +294,11 @@ public class UsersController {
     public ResponseEntity<PageResponse<UserFilterResponseDTO>> filterUsers(
             @RequestBody UserFilterDTO filter,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") boolean withCount
     ) {
-        PageResponse<UserFilterResponseDTO> response = userService.filter(filter, page, size);
+        PageResponse<UserFilterResponseDTO> response = userService.filter(filter, page, size, cursor, withCount);
         return response.getContent().isEmpty()
                 ? ResponseEntity.noContent().build()
                 : ResponseEntity.ok(response);
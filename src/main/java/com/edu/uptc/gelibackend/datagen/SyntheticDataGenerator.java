@@ -0,0 +1,506 @@
+package com.edu.uptc.gelibackend.datagen;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Genera un conjunto de datos sintético sobre todas las tablas del esquema para pruebas de escala.
+ *
+ * <p>Escribe con JDBC por lotes y tipos explícitos (sin pasar por JPA) y con ids propios desde 1, por lo que
+ * espera un esquema vacío; al terminar reajusta las columnas identity para que los inserts de la aplicación
+ * continúen después de los ids generados. Los usos se insertan en paralelo por bloques de ids.</p>
+ *
+ * <p>El sesgo imita producción: pocos equipos concentran la mayoría de los usos ({@link Volumes#skew()}),
+ * los laboratorios tienen tamaños desiguales, los usos caen en días hábiles y horario laboral con picos a
+ * media mañana y media tarde, y cada uso lo hace un usuario autorizado en el equipo cuando lo hay.</p>
+ *
+ * <p>El usuario {@code i} tiene keycloakId {@link #keycloakId(long)} y correo {@link #email(long)}, para
+ * poder generar los usuarios equivalentes en un Keycloak de pruebas.</p>
+ */
+@Slf4j
+public class SyntheticDataGenerator {
+
+    public static final String ADMIN_ROLE = "QUALITY-ADMIN-USER";
+    public static final String AUTHORIZED_ROLE = "AUTHORIZED-USER";
+    public static final String KEYCLOAK_ID_PREFIX = "synthetic-kc-";
+
+    // Peso relativo de cada hora de inicio (0-23): jornada de 7 a 19 con picos a las 9 y a las 15
+    private static final int[] HOUR_WEIGHTS = {0, 0, 0, 0, 0, 0, 1, 6, 12, 16, 14, 10, 5, 6, 11, 14, 12, 8, 4, 2, 1, 0, 0, 0};
+
+    private static final String[] LOCATION_NAMES = {"EDIFICIO CENTRAL", "EDIFICIO DE LABORATORIOS", "FACULTAD DE CIENCIAS",
+            "FACULTAD DE INGENIERÍA", "SEDE DUITAMA", "SEDE SOGAMOSO", "SEDE CHIQUINQUIRÁ", "GRANJA TUNGUAVITA"};
+    private static final String[] EQUIPMENT_KINDS = {"ESPECTROFOTÓMETRO", "CROMATÓGRAFO", "BALANZA ANALÍTICA", "CENTRÍFUGA",
+            "MICROSCOPIO", "AUTOCLAVE", "INCUBADORA", "PH-METRO", "TERMOCICLADOR", "MUFLA", "ROTAVAPOR", "VISCOSÍMETRO"};
+
+    private final JdbcTemplate jdbc;
+    private final Volumes volumes;
+    private final boolean oracle;
+
+    // Estructura en memoria necesaria para que las relaciones sean coherentes (ids, 0 = sin valor)
+    private long[] laboratoryOfEquipment;
+    private long[][] equipmentsOfLaboratory;
+    private long[][] functionsOfEquipment;
+    private long[][] usersOfEquipment;
+
+    /**
+     * @param laboratories          laboratorios (y ~laboratories / 5 ubicaciones)
+     * @param equipments            equipos, repartidos de forma desigual entre laboratorios
+     * @param users                 usuarios
+     * @param uses                  filas de equipment_usage
+     * @param functions             funciones del catálogo
+     * @param brands                marcas
+     * @param positions             cargos
+     * @param functionsPerEquipment promedio de funciones por equipo
+     * @param authorizationsPerUser promedio de equipos autorizados por usuario
+     * @param openUses              usos abiertos (is_in_use) al final, en equipos distintos
+     * @param recoveryCodes         códigos de recuperación de contraseña (uno por usuario como mucho)
+     * @param years                 años hacia atrás desde hoy sobre los que se reparten los usos
+     * @param skew                  exponente del sesgo de popularidad de equipos y usuarios (1 = uniforme)
+     * @param batchSize             filas por lote JDBC
+     * @param threads               hilos para insertar los usos
+     * @param seed                  semilla; la misma semilla y volúmenes generan los mismos datos
+     */
+    public record Volumes(int laboratories, int equipments, int users, long uses, int functions, int brands,
+                          int positions, int functionsPerEquipment, int authorizationsPerUser, int openUses,
+                          int recoveryCodes, int years, double skew, int batchSize, int threads, long seed) {
+    }
+
+    public SyntheticDataGenerator(JdbcTemplate jdbc, Volumes volumes) {
+        this.jdbc = jdbc;
+        this.volumes = volumes;
+        this.oracle = Boolean.TRUE.equals(jdbc.execute((ConnectionCallback<Boolean>) connection ->
+                connection.getMetaData().getDatabaseProductName().toLowerCase().contains("oracle")));
+    }
+
+    public static String keycloakId(long userIndex) {
+        return KEYCLOAK_ID_PREFIX + userIndex;
+    }
+
+    public static String email(long userIndex) {
+        return "user" + userIndex + "@uptc.edu.co";
+    }
+
+    public static String realmRole(long userIndex) {
+        return userIndex % 50 == 1 ? ADMIN_ROLE : AUTHORIZED_ROLE;
+    }
+
+    public static boolean enabled(long userIndex) {
+        return userIndex % 25 != 0;
+    }
+
+    public void generate() {
+        Long existing = jdbc.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+        if (existing != null && existing > 0) {
+            throw new IllegalStateException("Synthetic data must be generated on an empty schema, users has " + existing + " rows");
+        }
+
+        long startedAt = System.nanoTime();
+        Random random = new Random(volumes.seed());
+        insertCatalogs();
+        insertLaboratories(random);
+        insertEquipments(random);
+        insertUsers(random);
+        insertAuthorizations(random);
+        insertUses();
+        insertRecoveryCodes(random);
+        resetIdentities();
+        log.info("Synthetic dataset generated in {} s", (System.nanoTime() - startedAt) / 1_000_000_000L);
+    }
+
+    private void insertCatalogs() {
+        List<Object[]> rows = new ArrayList<>();
+        int locations = Math.max(1, volumes.laboratories() / 5);
+        for (long i = 1; i <= locations; i++) {
+            rows.add(new Object[]{i, LOCATION_NAMES[(int) (i % LOCATION_NAMES.length)] + " - BLOQUE " + i});
+        }
+        insert("INSERT INTO locations (location_id, location_name) VALUES (?, ?)",
+                new int[]{Types.BIGINT, Types.VARCHAR}, rows);
+
+        for (long i = 1; i <= volumes.brands(); i++) {
+            rows.add(new Object[]{i, "MARCA " + i});
+        }
+        insert("INSERT INTO brands (brand_id, brand_name) VALUES (?, ?)", new int[]{Types.BIGINT, Types.VARCHAR}, rows);
+
+        for (long i = 1; i <= volumes.functions(); i++) {
+            rows.add(new Object[]{i, "FUNCIÓN " + i});
+        }
+        insert("INSERT INTO functions (function_id, function_name) VALUES (?, ?)", new int[]{Types.BIGINT, Types.VARCHAR}, rows);
+
+        for (long i = 1; i <= volumes.positions(); i++) {
+            rows.add(new Object[]{i, "CARGO " + i});
+        }
+        insert("INSERT INTO positions (position_id, position_name) VALUES (?, ?)", new int[]{Types.BIGINT, Types.VARCHAR}, rows);
+    }
+
+    private void insertLaboratories(Random random) {
+        List<Object[]> rows = new ArrayList<>();
+        int locations = Math.max(1, volumes.laboratories() / 5);
+        for (long i = 1; i <= volumes.laboratories(); i++) {
+            rows.add(new Object[]{i, "LABORATORIO " + i, "Laboratorio sintético " + i, 1 + random.nextInt(locations),
+                    random.nextInt(20) != 0, null});
+        }
+        insert("INSERT INTO laboratories (laboratory_id, laboratory_name, laboratory_description, location_id, "
+                        + "laboratory_status, laboratory_observations) VALUES (?, ?, ?, ?, ?, ?)",
+                new int[]{Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.BIGINT, Types.BOOLEAN, Types.VARCHAR}, rows);
+    }
+
+    private void insertEquipments(Random random) {
+        laboratoryOfEquipment = new long[volumes.equipments() + 1];
+        functionsOfEquipment = new long[volumes.equipments() + 1][];
+        List<List<Long>> byLaboratory = new ArrayList<>();
+        for (int i = 0; i <= volumes.laboratories(); i++) {
+            byLaboratory.add(new ArrayList<>());
+        }
+
+        List<Object[]> rows = new ArrayList<>();
+        List<Object[]> equipmentFunctions = new ArrayList<>();
+        for (long i = 1; i <= volumes.equipments(); i++) {
+            // Los primeros equipos llenan cada laboratorio; el resto se reparte con sesgo
+            long laboratory = i <= volumes.laboratories() ? i : skewed(random, volumes.laboratories(), 2);
+            laboratoryOfEquipment[(int) i] = laboratory;
+            byLaboratory.get((int) laboratory).add(i);
+            rows.add(new Object[]{i, EQUIPMENT_KINDS[(int) (i % EQUIPMENT_KINDS.length)] + " " + i,
+                    skewed(random, volumes.brands(), 2), "INV-" + (1_000_000 + i), laboratory,
+                    random.nextInt(15) != 0, random.nextInt(3) == 0 ? "Calibrado " + (2020 + random.nextInt(5)) : null});
+
+            int count = Math.min(volumes.functions(), 1 + random.nextInt(Math.max(1, volumes.functionsPerEquipment() * 2 - 1)));
+            long first = random.nextInt(volumes.functions());
+            functionsOfEquipment[(int) i] = new long[count];
+            for (int f = 0; f < count; f++) {
+                long function = 1 + (first + f) % volumes.functions();
+                functionsOfEquipment[(int) i][f] = function;
+                equipmentFunctions.add(new Object[]{i, function});
+            }
+            flushIfFull(rows, equipmentFunctions);
+        }
+        flushEquipments(rows, equipmentFunctions);
+
+        equipmentsOfLaboratory = new long[volumes.laboratories() + 1][];
+        for (int lab = 1; lab <= volumes.laboratories(); lab++) {
+            equipmentsOfLaboratory[lab] = byLaboratory.get(lab).stream().mapToLong(Long::longValue).toArray();
+        }
+    }
+
+    private void flushIfFull(List<Object[]> equipments, List<Object[]> equipmentFunctions) {
+        if (equipments.size() >= volumes.batchSize()) {
+            flushEquipments(equipments, equipmentFunctions);
+        }
+    }
+
+    private void flushEquipments(List<Object[]> equipments, List<Object[]> equipmentFunctions) {
+        insert("INSERT INTO equipments (equipment_id, equipment_name, equipment_brand_id, equipment_inventory_number, "
+                        + "equipment_laboratory_id, equipment_availability, equipment_observations) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                new int[]{Types.BIGINT, Types.VARCHAR, Types.BIGINT, Types.VARCHAR, Types.BIGINT, Types.BOOLEAN, Types.VARCHAR},
+                equipments);
+        insert("INSERT INTO equipment_functions (ef_equipment_id, ef_function_id) VALUES (?, ?)",
+                new int[]{Types.BIGINT, Types.BIGINT}, equipmentFunctions);
+    }
+
+    private void insertUsers(Random random) {
+        LocalDate today = LocalDate.now();
+        List<Object[]> users = new ArrayList<>();
+        List<Object[]> statusHistory = new ArrayList<>();
+        List<Object[]> positionHistory = new ArrayList<>();
+        long statusId = 0;
+        long positionHistoryId = 0;
+
+        for (long i = 1; i <= volumes.users(); i++) {
+            LocalDate createdAt = today.minusDays(1 + random.nextInt(365 * Math.max(1, volumes.years())));
+            long position = skewed(random, volumes.positions(), 2);
+
+            // Historial de cargos: 0 a 3 cambios que terminan en el cargo actual
+            int positionChanges = random.nextInt(4);
+            long previous = skewed(random, volumes.positions(), 2);
+            LocalDate changeDate = createdAt;
+            for (int c = 0; c < positionChanges; c++) {
+                long next = c == positionChanges - 1 ? position : skewed(random, volumes.positions(), 2);
+                changeDate = changeDate.plusDays(1 + random.nextInt(120));
+                positionHistory.add(new Object[]{++positionHistoryId, i, previous, next, Date.valueOf(min(changeDate, today))});
+                previous = next;
+            }
+
+            // Historial de estado: activación inicial y, a veces, desactivaciones/reactivaciones
+            boolean enabled = enabled(i);
+            int statusChanges = 1 + (enabled ? random.nextInt(2) * 2 : 1 + random.nextInt(2) * 2);
+            LocalDate statusDate = createdAt;
+            for (int s = 0; s < statusChanges; s++) {
+                statusHistory.add(new Object[]{++statusId, i, s % 2 == 0, Date.valueOf(min(statusDate, today))});
+                statusDate = statusDate.plusDays(1 + random.nextInt(200));
+            }
+
+            users.add(new Object[]{i, keycloakId(i), "USUARIO" + i, "APELLIDO" + (i % 997), email(i).toUpperCase(),
+                    String.valueOf(1_000_000_000L + i), enabled, realmRole(i), Date.valueOf(createdAt), position});
+
+            if (users.size() >= volumes.batchSize()) {
+                flushUsers(users, statusHistory, positionHistory);
+            }
+        }
+        flushUsers(users, statusHistory, positionHistory);
+    }
+
+    private void flushUsers(List<Object[]> users, List<Object[]> statusHistory, List<Object[]> positionHistory) {
+        insert("INSERT INTO users (user_id, keycloak_id, first_name, last_name, user_email, user_identification, "
+                        + "user_status, user_role, create_date_user, user_position_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                new int[]{Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+                        Types.BOOLEAN, Types.VARCHAR, Types.DATE, Types.BIGINT}, users);
+        insert("INSERT INTO user_status_history (user_status_history_id, ush_user_id, ush_status_to_date, ush_modified_at) "
+                        + "VALUES (?, ?, ?, ?)",
+                new int[]{Types.BIGINT, Types.BIGINT, Types.BOOLEAN, Types.DATE}, statusHistory);
+        insert("INSERT INTO user_position_history (user_position_history_id, uph_user_id, uph_position_to_date, "
+                        + "uph_new_position, uph_modified_at) VALUES (?, ?, ?, ?, ?)",
+                new int[]{Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.DATE}, positionHistory);
+    }
+
+    private void insertAuthorizations(Random random) {
+        List<List<Long>> byEquipment = new ArrayList<>();
+        for (int i = 0; i <= volumes.equipments(); i++) {
+            byEquipment.add(new ArrayList<>());
+        }
+
+        LocalDate today = LocalDate.now();
+        List<Object[]> authorizations = new ArrayList<>();
+        List<Object[]> history = new ArrayList<>();
+        long historyId = 0;
+        for (long user = 1; user <= volumes.users(); user++) {
+            // Laboratorio principal del usuario; los laboratorios grandes atraen más usuarios
+            long[] equipments = equipmentsOfLaboratory[(int) laboratoryOfEquipment[(int) skewed(random, volumes.equipments(), 1)]];
+            int count = Math.min(equipments.length, random.nextInt(Math.max(1, volumes.authorizationsPerUser() * 2 + 1)));
+            int first = random.nextInt(equipments.length);
+            for (int a = 0; a < count; a++) {
+                long equipment = equipments[(first + a) % equipments.length];
+                boolean active = random.nextInt(10) != 0;
+                authorizations.add(new Object[]{user, equipment, active});
+                if (active) {
+                    byEquipment.get((int) equipment).add(user);
+                }
+
+                // Historial que termina en el estado actual
+                int changes = active ? 1 + random.nextInt(2) * 2 : 2;
+                LocalDate date = today.minusDays(30 + random.nextInt(365 * Math.max(1, volumes.years())));
+                for (int c = 0; c < changes; c++) {
+                    history.add(new Object[]{++historyId, user, equipment, Date.valueOf(min(date, today)), c % 2 == 0});
+                    date = date.plusDays(1 + random.nextInt(180));
+                }
+            }
+            if (authorizations.size() >= volumes.batchSize()) {
+                flushAuthorizations(authorizations, history);
+            }
+        }
+        flushAuthorizations(authorizations, history);
+
+        usersOfEquipment = new long[volumes.equipments() + 1][];
+        for (int i = 1; i <= volumes.equipments(); i++) {
+            usersOfEquipment[i] = byEquipment.get(i).stream().mapToLong(Long::longValue).toArray();
+        }
+    }
+
+    private void flushAuthorizations(List<Object[]> authorizations, List<Object[]> history) {
+        insert("INSERT INTO authorized_user_equipments (aue_user_id, aue_equipment_id, aue_actual_status) VALUES (?, ?, ?)",
+                new int[]{Types.BIGINT, Types.BIGINT, Types.BOOLEAN}, authorizations);
+        insert("INSERT INTO equipment_authorization_history (equipment_authorization_history_id, eah_user_id, "
+                        + "eah_equipment_id, eah_modified_at, eah_status_to_date) VALUES (?, ?, ?, ?, ?)",
+                new int[]{Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.DATE, Types.BOOLEAN}, history);
+    }
+
+    /**
+     * Usos en bloques de ids repartidos entre {@link Volumes#threads()} hilos. Cada bloque tiene su propio
+     * generador aleatorio derivado de la semilla, así que el resultado no depende del orden de los hilos.
+     */
+    private void insertUses() {
+        long closedUses = Math.max(0, volumes.uses() - Math.min(volumes.openUses(), volumes.equipments()));
+        long blockSize = (long) volumes.batchSize() * 10;
+        long blocks = (closedUses + blockSize - 1) / blockSize;
+        AtomicLong inserted = new AtomicLong();
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, volumes.threads()));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (long block = 0; block < blocks; block++) {
+                long firstId = block * blockSize + 1;
+                long lastId = Math.min(closedUses, firstId + blockSize - 1);
+                long blockIndex = block;
+                futures.add(pool.submit(() -> {
+                    insertUseBlock(new SplittableRandom(volumes.seed() * 31 + blockIndex), firstId, lastId);
+                    long done = inserted.addAndGet(lastId - firstId + 1);
+                    if (blockIndex % 20 == 0) {
+                        log.info("Synthetic equipment uses: {} / {}", done, closedUses);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not insert the synthetic equipment uses", e);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        insertOpenUses(closedUses + 1);
+    }
+
+    private void insertUseBlock(SplittableRandom random, long firstId, long lastId) {
+        LocalDate firstDay = LocalDate.now().minusYears(Math.max(1, volumes.years()));
+        int days = (int) (LocalDate.now().toEpochDay() - firstDay.toEpochDay());
+        List<Object[]> uses = new ArrayList<>();
+        List<Object[]> usedFunctions = new ArrayList<>();
+
+        for (long id = firstId; id <= lastId; id++) {
+            long equipment = skewed(random, volumes.equipments(), volumes.skew());
+            long user = userFor(random, equipment);
+            LocalDate day = firstDay.plusDays(random.nextInt(days));
+            if (day.getDayOfWeek() == DayOfWeek.SUNDAY || (day.getDayOfWeek() == DayOfWeek.SATURDAY && random.nextBoolean())) {
+                day = day.minusDays(2);
+            }
+            LocalDateTime start = day.atTime(weightedHour(random), random.nextInt(60));
+            LocalDateTime end = start.plusMinutes(10 + (long) (random.nextDouble() * random.nextDouble() * 300));
+
+            uses.add(new Object[]{id, equipment, user, Timestamp.valueOf(start), start.getHour() * 60 + start.getMinute(),
+                    Timestamp.valueOf(end), false, random.nextInt(20) != 0, random.nextInt(50) != 0,
+                    1 + (int) (random.nextDouble() * random.nextDouble() * 60), random.nextInt(5) == 0 ? "Sin novedad" : null});
+
+            long[] functions = functionsOfEquipment[(int) equipment];
+            int used = Math.min(functions.length, 1 + random.nextInt(3));
+            int first = random.nextInt(functions.length);
+            for (int f = 0; f < used; f++) {
+                usedFunctions.add(new Object[]{id, functions[(first + f) % functions.length]});
+            }
+
+            if (uses.size() >= volumes.batchSize()) {
+                flushUses(uses, usedFunctions);
+            }
+        }
+        flushUses(uses, usedFunctions);
+    }
+
+    private void insertOpenUses(long firstId) {
+        SplittableRandom random = new SplittableRandom(volumes.seed());
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        List<Object[]> uses = new ArrayList<>();
+        List<Object[]> usedFunctions = new ArrayList<>();
+        int open = Math.min(volumes.openUses(), volumes.equipments());
+        for (int i = 0; i < open; i++) {
+            long id = firstId + i;
+            long equipment = i + 1L;
+            LocalDateTime start = now.minusMinutes(5 + random.nextInt(120));
+            uses.add(new Object[]{id, equipment, userFor(random, equipment), Timestamp.valueOf(start),
+                    start.getHour() * 60 + start.getMinute(), null, true, false, true, 0, null});
+            usedFunctions.add(new Object[]{id, functionsOfEquipment[(int) equipment][0]});
+        }
+        flushUses(uses, usedFunctions);
+    }
+
+    private void flushUses(List<Object[]> uses, List<Object[]> usedFunctions) {
+        insert("INSERT INTO equipment_usage (equipment_usage_id, eu_equipment_id, eu_user_id, eu_start_date, "
+                        + "eu_start_minute_of_day, eu_end_date, eu_is_in_use, eu_is_verified, eu_is_available, "
+                        + "eu_samples_number, equipment_use_observations) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                new int[]{Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.TIMESTAMP, Types.INTEGER, Types.TIMESTAMP,
+                        Types.BOOLEAN, Types.BOOLEAN, Types.BOOLEAN, Types.INTEGER, Types.VARCHAR}, uses);
+        insert("INSERT INTO equipment_function_usage (efu_equipment_usage_id, efu_function_id) VALUES (?, ?)",
+                new int[]{Types.BIGINT, Types.BIGINT}, usedFunctions);
+    }
+
+    private void insertRecoveryCodes(Random random) {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        List<Object[]> rows = new ArrayList<>();
+        // Como mucho un código por usuario (prc_username es único)
+        Set<Long> withCode = new HashSet<>();
+        int codes = Math.min(volumes.recoveryCodes(), volumes.users());
+        for (long i = 1; i <= codes; i++) {
+            long user;
+            do {
+                user = 1 + random.nextInt(volumes.users());
+            } while (!withCode.add(user));
+            LocalDateTime createdAt = now.minusMinutes(random.nextInt(60 * 24 * 30));
+            rows.add(new Object[]{i, "user" + user, String.format("%06d", random.nextInt(1_000_000)), null,
+                    Timestamp.valueOf(createdAt), Timestamp.valueOf(createdAt.plusMinutes(15))});
+        }
+        insert("INSERT INTO password_recovery_codes (password_recovery_code_id, prc_username, prc_email, prc_temp_token, "
+                        + "prc_created_at, prc_expires_at) VALUES (?, ?, ?, ?, ?, ?)",
+                new int[]{Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP, Types.TIMESTAMP}, rows);
+    }
+
+    /**
+     * Lleva el siguiente valor de cada columna identity más allá del mayor id insertado.
+     */
+    private void resetIdentities() {
+        String[][] identities = {
+                {"locations", "location_id"}, {"brands", "brand_id"}, {"functions", "function_id"},
+                {"positions", "position_id"}, {"laboratories", "laboratory_id"}, {"equipments", "equipment_id"},
+                {"users", "user_id"}, {"user_status_history", "user_status_history_id"},
+                {"user_position_history", "user_position_history_id"},
+                {"equipment_authorization_history", "equipment_authorization_history_id"},
+                {"equipment_usage", "equipment_usage_id"}, {"password_recovery_codes", "password_recovery_code_id"}
+        };
+        for (String[] identity : identities) {
+            if (oracle) {
+                jdbc.execute("ALTER TABLE " + identity[0] + " MODIFY " + identity[1]
+                        + " GENERATED BY DEFAULT ON NULL AS IDENTITY (START WITH LIMIT VALUE)");
+            } else {
+                Long max = jdbc.queryForObject("SELECT COALESCE(MAX(" + identity[1] + "), 0) FROM " + identity[0], Long.class);
+                jdbc.execute("ALTER TABLE " + identity[0] + " ALTER COLUMN " + identity[1] + " RESTART WITH " + (max + 1));
+            }
+        }
+    }
+
+    private void insert(String sql, int[] types, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += volumes.batchSize()) {
+            jdbc.batchUpdate(sql, rows.subList(from, Math.min(rows.size(), from + volumes.batchSize())), types);
+        }
+        rows.clear();
+    }
+
+    private long userFor(SplittableRandom random, long equipment) {
+        long[] authorized = usersOfEquipment[(int) equipment];
+        if (authorized.length > 0 && random.nextInt(10) != 0) {
+            return authorized[(int) skewed(random, authorized.length, volumes.skew()) - 1];
+        }
+        return 1 + random.nextInt(volumes.users());
+    }
+
+    private static int weightedHour(SplittableRandom random) {
+        int total = 0;
+        for (int weight : HOUR_WEIGHTS) {
+            total += weight;
+        }
+        int pick = random.nextInt(total);
+        for (int hour = 0; hour < HOUR_WEIGHTS.length; hour++) {
+            pick -= HOUR_WEIGHTS[hour];
+            if (pick < 0) {
+                return hour;
+            }
+        }
+        return 12;
+    }
+
+    // Valor en 1..n con más peso en los primeros: r^skew concentra los valores cerca de 0
+    private static long skewed(Random random, int n, double skew) {
+        return 1 + Math.min(n - 1, (long) (n * Math.pow(random.nextDouble(), skew)));
+    }
+
+    private static long skewed(SplittableRandom random, int n, double skew) {
+        return 1 + Math.min(n - 1, (long) (n * Math.pow(random.nextDouble(), skew)));
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
@@ -0,0 +1,88 @@
+package com.edu.uptc.gelibackend.datagen;
+
+import com.edu.uptc.gelibackend.services.UsageRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Perfil "datagen": llena un esquema vacío con {@link SyntheticDataGenerator}, recalcula los agregados de uso
+ * y termina la aplicación. Los volúmenes se configuran en application-datagen.properties o por línea de comandos:
+ * <pre>
+ * java -jar geli-backend.jar --spring.profiles.active=datagen --datagen.uses=10000000 --datagen.threads=8
+ * </pre>
+ */
+@Component
+@Profile("datagen")
+@Slf4j
+@RequiredArgsConstructor
+public class SyntheticDataRunner implements ApplicationRunner {
+
+    private final JdbcTemplate jdbc;
+    private final UsageRollupService usageRollupService;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${datagen.laboratories:200}")
+    private int laboratories;
+    @Value("${datagen.equipments:5000}")
+    private int equipments;
+    @Value("${datagen.users:50000}")
+    private int users;
+    @Value("${datagen.uses:10000000}")
+    private long uses;
+    @Value("${datagen.functions:300}")
+    private int functions;
+    @Value("${datagen.brands:150}")
+    private int brands;
+    @Value("${datagen.positions:40}")
+    private int positions;
+    @Value("${datagen.functions-per-equipment:4}")
+    private int functionsPerEquipment;
+    @Value("${datagen.authorizations-per-user:5}")
+    private int authorizationsPerUser;
+    @Value("${datagen.open-uses:25}")
+    private int openUses;
+    @Value("${datagen.recovery-codes:2000}")
+    private int recoveryCodes;
+    @Value("${datagen.years:5}")
+    private int years;
+    @Value("${datagen.skew:3.0}")
+    private double skew;
+    @Value("${datagen.batch-size:5000}")
+    private int batchSize;
+    @Value("${datagen.threads:4}")
+    private int threads;
+    @Value("${datagen.seed:42}")
+    private long seed;
+    @Value("${datagen.rebuild-rollups:true}")
+    private boolean rebuildRollups;
+    @Value("${datagen.exit:true}")
+    private boolean exitWhenDone;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        SyntheticDataGenerator.Volumes volumes = new SyntheticDataGenerator.Volumes(
+                laboratories, equipments, users, uses, functions, brands, positions, functionsPerEquipment,
+                authorizationsPerUser, openUses, recoveryCodes, years, skew, batchSize, threads, seed);
+        log.info("Generating synthetic dataset: {}", volumes);
+        new SyntheticDataGenerator(jdbc, volumes).generate();
+
+        if (rebuildRollups) {
+            LocalDate today = LocalDate.now();
+            usageRollupService.rebuild(today.minusYears(years).withDayOfMonth(1), today);
+        }
+
+        if (exitWhenDone) {
+            System.exit(SpringApplication.exit(context, () -> 0));
+        }
+    }
+}
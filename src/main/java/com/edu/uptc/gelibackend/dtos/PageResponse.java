@@ -6,13 +6,36 @@ import lombok.NoArgsConstructor;
 
 import java.util.List;
 
+/**
+ * Página de resultados de los endpoints /filter.
+ *
+ * <p>Cuando la página se lee sin conteo (modo keyset o {@code withCount=false}) {@code totalElements} y
+ * {@code totalPages} valen {@link #UNKNOWN}; {@code hasNext} indica si quedan más resultados y, en modo
+ * keyset, {@code nextCursor} es el token que se envía para pedir la página siguiente.</p>
+ */
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class PageResponse<T> {
+
+    public static final int UNKNOWN = -1;
+
     private int page;
     private int size;
     private long totalElements;
     private int totalPages;
     private List<T> content;
+    private boolean hasNext;
+    private String nextCursor;
+
+    public PageResponse(int page, int size, long totalElements, int totalPages, List<T> content) {
+        this(page, size, totalElements, totalPages, content, page + 1 < totalPages, null);
+    }
+
+    /**
+     * La misma página (posición, totales y cursor) con otro contenido, p. ej. las entidades ya mapeadas a DTO.
+     */
+    public <R> PageResponse<R> withContent(List<R> newContent) {
+        return new PageResponse<>(page, size, totalElements, totalPages, newContent, hasNext, nextCursor);
+    }
 }
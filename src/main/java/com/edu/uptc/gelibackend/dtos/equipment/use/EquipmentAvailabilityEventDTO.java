@@ -0,0 +1,25 @@
+package com.edu.uptc.gelibackend.dtos.equipment.use;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cambio de disponibilidad de un equipo. Se publica como evento de aplicación y se envía tal cual por el
+ * stream SSE del laboratorio del equipo.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EquipmentAvailabilityEventDTO {
+    public static final String AVAILABLE = "AVAILABLE";
+    public static final String IN_USE = "IN_USE";
+    public static final String UNAVAILABLE = "UNAVAILABLE";
+
+    private Long equipmentId;
+    private Long laboratoryId;
+    private String status; // "AVAILABLE", "IN_USE", "UNAVAILABLE"
+    private LocalDateTime changedAt;
+}
@@ -0,0 +1,14 @@
+package com.edu.uptc.gelibackend.dtos.statistics;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FunctionUsageStatisticsDTO {
+    private Long functionId;
+    private String functionName;
+    private Long useCount;
+}
@@ -0,0 +1,23 @@
+package com.edu.uptc.gelibackend.dtos.statistics;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UsageStatisticsDTO {
+    private LocalDate bucketDate;
+    private Integer bucketHour; // null cuando la granularidad es por día
+    private Long sessionCount;
+    private Long totalMinutes;
+    private Long totalSamples;
+
+    // Granularidad por día
+    public UsageStatisticsDTO(LocalDate bucketDate, Long sessionCount, Long totalMinutes, Long totalSamples) {
+        this(bucketDate, null, sessionCount, totalMinutes, totalSamples);
+    }
+}
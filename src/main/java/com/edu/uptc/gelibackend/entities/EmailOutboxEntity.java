@@ -0,0 +1,67 @@
+package com.edu.uptc.gelibackend.entities;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Correo pendiente de envío. Se escribe en la misma transacción que lo origina y lo envía
+ * {@code EmailOutboxDispatcher}; al enviarse se borra, así que sólo quedan pendientes y fallidos.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(
+        name = "email_outbox",
+        indexes = @Index(name = "eo_status_next_attempt_idx", columnList = "eo_status, eo_next_attempt_at")
+)
+public class EmailOutboxEntity {
+
+    public enum Status { PENDING, FAILED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "email_outbox_id")
+    private Long id;
+
+    @NotNull
+    @Column(name = "eo_recipient", nullable = false, length = 320)
+    private String recipient;
+
+    @NotNull
+    @Column(name = "eo_subject", nullable = false, length = 255)
+    private String subject;
+
+    // Null en los FAILED: el cuerpo puede llevar una contraseña temporal o un código y no se guarda tras fallar
+    @Column(name = "eo_body", length = 4000)
+    private String body;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "eo_status", nullable = false, length = 20)
+    private Status status;
+
+    @NotNull
+    @Column(name = "eo_attempts", nullable = false)
+    private Integer attempts;
+
+    @NotNull
+    @Column(name = "eo_next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @NotNull
+    @Column(name = "eo_created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Después de esta fecha ya no se envía (p. ej. códigos de recuperación vencidos); null = sin vencimiento
+    @Column(name = "eo_expires_at")
+    private LocalDateTime expiresAt;
+
+    @Column(name = "eo_last_error", length = 1000)
+    private String lastError;
+}
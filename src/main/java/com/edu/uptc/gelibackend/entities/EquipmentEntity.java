@@ -14,9 +14,42 @@ import java.util.List;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "equipments")
+@Table(
+        name = "equipments",
+        indexes = @Index(name = "equipments_laboratory_idx", columnList = "equipment_laboratory_id")
+)
+@NamedEntityGraph(
+        name = EquipmentEntity.SUMMARY_GRAPH,
+        attributeNodes = {
+                @NamedAttributeNode("brand"),
+                @NamedAttributeNode(value = "laboratory", subgraph = "laboratory")
+        },
+        subgraphs = @NamedSubgraph(name = "laboratory", attributeNodes = @NamedAttributeNode("laboratoryLocation"))
+)
+@NamedEntityGraph(
+        name = EquipmentEntity.DETAIL_GRAPH,
+        attributeNodes = {
+                @NamedAttributeNode("brand"),
+                @NamedAttributeNode(value = "laboratory", subgraph = "laboratory"),
+                @NamedAttributeNode(value = "equipmentFunctions", subgraph = "equipmentFunctions")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "laboratory", attributeNodes = @NamedAttributeNode("laboratoryLocation")),
+                @NamedSubgraph(name = "equipmentFunctions", attributeNodes = @NamedAttributeNode("function"))
+        }
+)
 public class EquipmentEntity {
 
+    /**
+     * Marca y laboratorio (con su ubicación) en la misma consulta: listados, filtros y equipos por usuario.
+     */
+    public static final String SUMMARY_GRAPH = "Equipment.summary";
+
+    /**
+     * Resumen más las funciones del equipo: detalle de un equipo.
+     */
+    public static final String DETAIL_GRAPH = "Equipment.detail";
+
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,60 @@
+package com.edu.uptc.gelibackend.entities;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Usos finalizados agregados por equipo y hora de inicio (día + hora). Lo mantiene {@code UsageRollupService}.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(
+        name = "equipment_usage_rollup",
+        uniqueConstraints = @UniqueConstraint(
+                name = "eur_equipment_bucket_uk",
+                columnNames = {"eur_equipment_id", "eur_bucket_date", "eur_bucket_hour"}
+        ),
+        indexes = @Index(name = "eur_laboratory_bucket_idx", columnList = "eur_laboratory_id, eur_bucket_date")
+)
+public class EquipmentUsageRollupEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "equipment_usage_rollup_id")
+    private Long id;
+
+    @NotNull
+    @Column(name = "eur_equipment_id", nullable = false)
+    private Long equipmentId;
+
+    @NotNull
+    @Column(name = "eur_laboratory_id", nullable = false)
+    private Long laboratoryId;
+
+    @NotNull
+    @Column(name = "eur_bucket_date", nullable = false)
+    private LocalDate bucketDate;
+
+    @NotNull // 0 - 23
+    @Column(name = "eur_bucket_hour", nullable = false)
+    private Integer bucketHour;
+
+    @NotNull
+    @Column(name = "eur_session_count", nullable = false)
+    private Long sessionCount;
+
+    @NotNull
+    @Column(name = "eur_total_minutes", nullable = false)
+    private Long totalMinutes;
+
+    @NotNull
+    @Column(name = "eur_total_samples", nullable = false)
+    private Long totalSamples;
+}
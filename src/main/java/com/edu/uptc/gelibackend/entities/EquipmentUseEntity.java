@@ -5,13 +5,20 @@ import jakarta.validation.constraints.NotNull;
 import lombok.*;
 
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.List;
 
 @Entity
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "equipment_usage")
+@Table(
+        name = "equipment_usage",
+        indexes = {
+                @Index(name = "eu_start_date_id_idx", columnList = "eu_start_date DESC, equipment_usage_id DESC"),
+                @Index(name = "eu_start_minute_idx", columnList = "eu_start_minute_of_day")
+        }
+)
 @Builder
 public class EquipmentUseEntity {
     @Id
@@ -33,6 +40,12 @@ public class EquipmentUseEntity {
     @Column(name = "eu_start_date", nullable = false)
     private LocalDateTime startUseTime;
 
+    // Minuto del día de startUseTime (hora * 60 + minuto), derivado en syncStartMinuteOfDay.
+    // Permite filtrar por hora de inicio con un rango sobre un índice en lugar de TO_CHAR(eu_start_date).
+    @Column(name = "eu_start_minute_of_day", nullable = false)
+    @Setter(AccessLevel.NONE)
+    private Integer startMinuteOfDay;
+
     @Column(name = "eu_end_date")
     private LocalDateTime endUseTime;
 
@@ -58,4 +71,14 @@ public class EquipmentUseEntity {
 
     @Column(name = "equipment_use_observations", length = 500)
     private String observations;
-}
\ No newline at end of file
+
+    public static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    @PrePersist
+    @PreUpdate
+    void syncStartMinuteOfDay() {
+        startMinuteOfDay = startUseTime == null ? null : minuteOfDay(startUseTime.toLocalTime());
+    }
+}
@@ -0,0 +1,57 @@
+package com.edu.uptc.gelibackend.entities;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Veces que se usó cada función en los usos finalizados, por equipo y hora de inicio. Lo mantiene
+ * {@code UsageRollupService}.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(
+        name = "function_usage_rollup",
+        uniqueConstraints = @UniqueConstraint(
+                name = "fur_equipment_function_bucket_uk",
+                columnNames = {"fur_equipment_id", "fur_function_id", "fur_bucket_date", "fur_bucket_hour"}
+        ),
+        indexes = @Index(name = "fur_laboratory_bucket_idx", columnList = "fur_laboratory_id, fur_bucket_date")
+)
+public class FunctionUsageRollupEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "function_usage_rollup_id")
+    private Long id;
+
+    @NotNull
+    @Column(name = "fur_equipment_id", nullable = false)
+    private Long equipmentId;
+
+    @NotNull
+    @Column(name = "fur_laboratory_id", nullable = false)
+    private Long laboratoryId;
+
+    @NotNull
+    @Column(name = "fur_function_id", nullable = false)
+    private Long functionId;
+
+    @NotNull
+    @Column(name = "fur_bucket_date", nullable = false)
+    private LocalDate bucketDate;
+
+    @NotNull // 0 - 23
+    @Column(name = "fur_bucket_hour", nullable = false)
+    private Integer bucketHour;
+
+    @NotNull
+    @Column(name = "fur_use_count", nullable = false)
+    private Long useCount;
+}
@@ -11,7 +11,14 @@ import java.time.LocalDateTime;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "password_recovery_codes")
+@Table(
+        name = "password_recovery_codes",
+        indexes = {
+                @Index(name = "prc_username_uk", columnList = "prc_username", unique = true),
+                @Index(name = "prc_temp_token_uk", columnList = "prc_temp_token", unique = true),
+                @Index(name = "prc_expires_at_idx", columnList = "prc_expires_at")
+        }
+)
 public class PasswordRecoveryCode {
 
     @Id
@@ -12,7 +12,10 @@ import java.time.LocalDate;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "user_status_history")
+@Table(
+        name = "user_status_history",
+        indexes = @Index(name = "ush_user_modified_idx", columnList = "ush_user_id, ush_modified_at")
+)
 public class UserStatusHistoryEntity {
 
     @Id
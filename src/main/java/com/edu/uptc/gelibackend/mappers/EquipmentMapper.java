@@ -7,6 +7,7 @@ import com.edu.uptc.gelibackend.dtos.equipment.EquipmentFilterResponseDTO;
 import com.edu.uptc.gelibackend.dtos.equipment.EquipmentForFilterResponseDTO;
 import com.edu.uptc.gelibackend.dtos.equipment.EquipmentFunctionsResponseDTO;
 import com.edu.uptc.gelibackend.entities.EquipmentEntity;
+import com.edu.uptc.gelibackend.repositories.projections.EquipmentIdentification;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
@@ -54,6 +55,10 @@ public class EquipmentMapper {
         return equipmentResponseDTO;
     }
 
+    public EquipmentForFilterResponseDTO toForFilterResponseDTO(EquipmentIdentification equipment) {
+        return new EquipmentForFilterResponseDTO(equipment.getId(), equipment.getEquipmentName(), equipment.getInventoryNumber());
+    }
+
     public EquipmentFunctionsResponseDTO toFunctionsResponseDTO(EquipmentEntity equipmentEntity) {
         EquipmentFunctionsResponseDTO equipmentResponseDTO = new EquipmentFunctionsResponseDTO();
         equipmentResponseDTO.setId(equipmentEntity.getId());
@@ -75,12 +80,8 @@ public class EquipmentMapper {
         return equipmentResponseDTO;
     }
 
-    public EquipmentByUserResponseDTO toByUserResponseDTO(EquipmentEntity equipmentEntity) {
-        EquipmentByUserResponseDTO equipmentResponseDTO = new EquipmentByUserResponseDTO();
-        equipmentResponseDTO.setId(equipmentEntity.getId());
-        equipmentResponseDTO.setEquipmentName(equipmentEntity.getEquipmentName());
-        equipmentResponseDTO.setInventoryNumber(equipmentEntity.getInventoryNumber());
-        return equipmentResponseDTO;
+    public EquipmentByUserResponseDTO toByUserResponseDTO(EquipmentIdentification equipment) {
+        return new EquipmentByUserResponseDTO(equipment.getId(), equipment.getEquipmentName(), equipment.getInventoryNumber());
     }
 
     public EquipmentEntity toEntity(EquipmentCreationDTO dto) {
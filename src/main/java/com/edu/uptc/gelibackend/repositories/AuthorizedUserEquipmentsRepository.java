@@ -1,9 +1,9 @@
 package com.edu.uptc.gelibackend.repositories;
 
-import com.edu.uptc.gelibackend.entities.EquipmentEntity;
 import com.edu.uptc.gelibackend.entities.LaboratoryEntity;
 import com.edu.uptc.gelibackend.entities.AuthorizedUserEquipmentsEntity;
 import com.edu.uptc.gelibackend.entities.ids.AuthorizedUserEquipmentsId;
+import com.edu.uptc.gelibackend.repositories.projections.EquipmentIdentification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -22,12 +22,13 @@ public interface AuthorizedUserEquipmentsRepository extends JpaRepository<Author
     List<LaboratoryEntity> findAuthorizedLaboratoriesByUserId(@Param("userId") Long userId);
 
     @Query("""
-    SELECT aue.equipment
+    SELECT new com.edu.uptc.gelibackend.repositories.projections.EquipmentIdentification(e.id, e.equipmentName, e.inventoryNumber)
     FROM AuthorizedUserEquipmentsEntity aue
+    JOIN aue.equipment e
     WHERE aue.user.id = :userId
-      AND aue.equipment.laboratory.id = :laboratoryId
+      AND e.laboratory.id = :laboratoryId
 """)
-    List<EquipmentEntity> findAuthorizedEquipmentsByUserIdAndLaboratoryId(
+    List<EquipmentIdentification> findAuthorizedEquipmentIdentificationsByUserIdAndLaboratoryId(
             @Param("userId") Long userId,
             @Param("laboratoryId") Long laboratoryId
     );
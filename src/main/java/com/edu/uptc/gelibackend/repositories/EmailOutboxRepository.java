@@ -0,0 +1,86 @@
+package com.edu.uptc.gelibackend.repositories;
+
+import com.edu.uptc.gelibackend.entities.EmailOutboxEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxEntity, Long> {
+
+    @Query("""
+        SELECT e FROM EmailOutboxEntity e
+        WHERE e.status = com.edu.uptc.gelibackend.entities.EmailOutboxEntity.Status.PENDING
+          AND e.nextAttemptAt <= :now
+        ORDER BY e.nextAttemptAt, e.id
+    """)
+    List<EmailOutboxEntity> findDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Toma un correo para enviarlo: sólo gana quien lo vea todavía con el mismo próximo intento
+    @Modifying
+    @Query("""
+        UPDATE EmailOutboxEntity e
+        SET e.nextAttemptAt = :leaseUntil, e.attempts = e.attempts + 1
+        WHERE e.id = :id
+          AND e.status = com.edu.uptc.gelibackend.entities.EmailOutboxEntity.Status.PENDING
+          AND e.nextAttemptAt = :seenNextAttemptAt
+    """)
+    int claim(@Param("id") Long id,
+              @Param("seenNextAttemptAt") LocalDateTime seenNextAttemptAt,
+              @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Modifying
+    @Query("""
+        UPDATE EmailOutboxEntity e
+        SET e.nextAttemptAt = :nextAttemptAt, e.lastError = :error
+        WHERE e.id = :id
+    """)
+    int scheduleRetry(@Param("id") Long id,
+                      @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                      @Param("error") String error);
+
+    // El cuerpo se borra: un correo fallido puede llevar una contraseña temporal y se conserva varios días
+    @Modifying
+    @Query("""
+        UPDATE EmailOutboxEntity e
+        SET e.status = com.edu.uptc.gelibackend.entities.EmailOutboxEntity.Status.FAILED, e.lastError = :error,
+            e.body = NULL
+        WHERE e.id = :id
+    """)
+    int markFailed(@Param("id") Long id, @Param("error") String error);
+
+    @Modifying
+    @Query("DELETE FROM EmailOutboxEntity e WHERE e.id IN :ids")
+    int deleteByIds(@Param("ids") List<Long> ids);
+
+    @Modifying
+    @Query("""
+        DELETE FROM EmailOutboxEntity e
+        WHERE e.status = com.edu.uptc.gelibackend.entities.EmailOutboxEntity.Status.FAILED
+          AND e.createdAt < :before
+    """)
+    int deleteFailedBefore(@Param("before") LocalDateTime before);
+
+    // Los pendientes vencidos (códigos, contraseñas temporales) se borran aunque su próximo intento no haya llegado
+    @Modifying
+    @Query("""
+        DELETE FROM EmailOutboxEntity e
+        WHERE e.status = com.edu.uptc.gelibackend.entities.EmailOutboxEntity.Status.PENDING
+          AND e.expiresAt < :now
+    """)
+    int deleteExpired(@Param("now") LocalDateTime now);
+
+    long countByStatus(EmailOutboxEntity.Status status);
+
+    @Query("""
+        SELECT MIN(e.createdAt) FROM EmailOutboxEntity e
+        WHERE e.status = com.edu.uptc.gelibackend.entities.EmailOutboxEntity.Status.PENDING
+    """)
+    LocalDateTime findOldestPendingCreatedAt();
+}
@@ -1,10 +1,22 @@
 package com.edu.uptc.gelibackend.repositories;
 
 import com.edu.uptc.gelibackend.entities.EquipmentEntity;
+import com.edu.uptc.gelibackend.repositories.projections.EquipmentAvailabilitySnapshot;
+import com.edu.uptc.gelibackend.repositories.projections.EquipmentIdentification;
+import io.micrometer.common.lang.NonNull;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface EquipmentRepository extends JpaRepository<EquipmentEntity, Long>, JpaSpecificationExecutor<EquipmentEntity> {
     Boolean existsByInventoryNumberIgnoreCase(String inventoryNumber);
@@ -14,5 +26,30 @@ public interface EquipmentRepository extends JpaRepository<EquipmentEntity, Long
 
     Boolean existsByEquipmentNameIgnoreCase(String equipmentName);
 
+    @EntityGraph(EquipmentEntity.SUMMARY_GRAPH)
+    Page<EquipmentEntity> findAllBy(Pageable pageable);
+
+    @EntityGraph(EquipmentEntity.SUMMARY_GRAPH)
+    @NonNull
+    Page<EquipmentEntity> findAll(Specification<EquipmentEntity> spec, @NonNull Pageable pageable);
+
+    @EntityGraph(EquipmentEntity.DETAIL_GRAPH)
+    Optional<EquipmentEntity> findDetailedById(Long id);
+
+    @Query(
+            value = """
+                SELECT new com.edu.uptc.gelibackend.repositories.projections.EquipmentIdentification(e.id, e.equipmentName, e.inventoryNumber)
+                FROM EquipmentEntity e
+                ORDER BY e.id
+            """,
+            countQuery = "SELECT COUNT(e) FROM EquipmentEntity e"
+    )
+    Page<EquipmentIdentification> findAllIdentifications(Pageable pageable);
 
+    @Query("""
+        SELECT new com.edu.uptc.gelibackend.repositories.projections.EquipmentAvailabilitySnapshot(e.id, e.availability)
+        FROM EquipmentEntity e
+        WHERE e.laboratory.id = :laboratoryId
+    """)
+    List<EquipmentAvailabilitySnapshot> findAvailabilityByLaboratoryId(@Param("laboratoryId") Long laboratoryId);
 }
@@ -0,0 +1,101 @@
+package com.edu.uptc.gelibackend.repositories;
+
+import com.edu.uptc.gelibackend.dtos.statistics.UsageStatisticsDTO;
+import com.edu.uptc.gelibackend.entities.EquipmentUsageRollupEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EquipmentUsageRollupRepository extends JpaRepository<EquipmentUsageRollupEntity, Long> {
+
+    // Suma un uso finalizado a su franja (equipo, día, hora), creándola si no existe
+    @Modifying
+    @Query(value = """
+        MERGE INTO equipment_usage_rollup r
+        USING (SELECT :equipmentId AS equipment_id, :bucketDate AS bucket_date, :bucketHour AS bucket_hour FROM dual) s
+        ON (r.eur_equipment_id = s.equipment_id AND r.eur_bucket_date = s.bucket_date AND r.eur_bucket_hour = s.bucket_hour)
+        WHEN MATCHED THEN UPDATE SET
+            r.eur_laboratory_id = :laboratoryId,
+            r.eur_session_count = r.eur_session_count + 1,
+            r.eur_total_minutes = r.eur_total_minutes + :minutes,
+            r.eur_total_samples = r.eur_total_samples + :samples
+        WHEN NOT MATCHED THEN INSERT
+            (eur_equipment_id, eur_laboratory_id, eur_bucket_date, eur_bucket_hour, eur_session_count, eur_total_minutes, eur_total_samples)
+            VALUES (:equipmentId, :laboratoryId, :bucketDate, :bucketHour, 1, :minutes, :samples)
+    """, nativeQuery = true)
+    int addSession(@Param("equipmentId") Long equipmentId,
+                   @Param("laboratoryId") Long laboratoryId,
+                   @Param("bucketDate") LocalDate bucketDate,
+                   @Param("bucketHour") int bucketHour,
+                   @Param("minutes") long minutes,
+                   @Param("samples") long samples);
+
+    @Modifying
+    @Query("DELETE FROM EquipmentUsageRollupEntity r WHERE r.bucketDate >= :from AND r.bucketDate < :to")
+    int deleteBuckets(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Recalcula las franjas de [from, to) desde equipment_usage (usos finalizados). Los minutos salen del
+    // intervalo exacto, como ChronoUnit.MINUTES en la suma incremental: la resta de DATE da fracciones de día
+    // que no terminan y FLOOR(... * 1440) perdía un minuto
+    @Modifying
+    @Query(value = """
+        INSERT INTO equipment_usage_rollup
+            (eur_equipment_id, eur_laboratory_id, eur_bucket_date, eur_bucket_hour, eur_session_count, eur_total_minutes, eur_total_samples)
+        SELECT u.eu_equipment_id,
+               e.equipment_laboratory_id,
+               TRUNC(u.eu_start_date),
+               EXTRACT(HOUR FROM u.eu_start_date),
+               COUNT(*),
+               SUM(FLOOR((EXTRACT(DAY FROM u.elapsed) * 86400
+                        + EXTRACT(HOUR FROM u.elapsed) * 3600
+                        + EXTRACT(MINUTE FROM u.elapsed) * 60
+                        + EXTRACT(SECOND FROM u.elapsed)) / 60)),
+               SUM(u.eu_samples_number)
+        FROM (SELECT eu_equipment_id, eu_start_date, eu_samples_number,
+                     CAST(eu_end_date AS TIMESTAMP) - CAST(eu_start_date AS TIMESTAMP) AS elapsed
+              FROM equipment_usage
+              WHERE eu_end_date IS NOT NULL
+                AND eu_start_date >= :from
+                AND eu_start_date < :to) u
+        JOIN equipments e ON e.equipment_id = u.eu_equipment_id
+        GROUP BY u.eu_equipment_id, e.equipment_laboratory_id, TRUNC(u.eu_start_date), EXTRACT(HOUR FROM u.eu_start_date)
+    """, nativeQuery = true)
+    int rebuildBuckets(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("""
+        SELECT new com.edu.uptc.gelibackend.dtos.statistics.UsageStatisticsDTO(
+            r.bucketDate, SUM(r.sessionCount), SUM(r.totalMinutes), SUM(r.totalSamples))
+        FROM EquipmentUsageRollupEntity r
+        WHERE r.bucketDate >= :from AND r.bucketDate <= :to
+          AND (:laboratoryId IS NULL OR r.laboratoryId = :laboratoryId)
+          AND (:equipmentId IS NULL OR r.equipmentId = :equipmentId)
+        GROUP BY r.bucketDate
+        ORDER BY r.bucketDate
+    """)
+    List<UsageStatisticsDTO> sumByDay(@Param("from") LocalDate from,
+                                      @Param("to") LocalDate to,
+                                      @Param("laboratoryId") Long laboratoryId,
+                                      @Param("equipmentId") Long equipmentId);
+
+    @Query("""
+        SELECT new com.edu.uptc.gelibackend.dtos.statistics.UsageStatisticsDTO(
+            r.bucketDate, r.bucketHour, SUM(r.sessionCount), SUM(r.totalMinutes), SUM(r.totalSamples))
+        FROM EquipmentUsageRollupEntity r
+        WHERE r.bucketDate >= :from AND r.bucketDate <= :to
+          AND (:laboratoryId IS NULL OR r.laboratoryId = :laboratoryId)
+          AND (:equipmentId IS NULL OR r.equipmentId = :equipmentId)
+        GROUP BY r.bucketDate, r.bucketHour
+        ORDER BY r.bucketDate, r.bucketHour
+    """)
+    List<UsageStatisticsDTO> sumByHour(@Param("from") LocalDate from,
+                                       @Param("to") LocalDate to,
+                                       @Param("laboratoryId") Long laboratoryId,
+                                       @Param("equipmentId") Long equipmentId);
+}
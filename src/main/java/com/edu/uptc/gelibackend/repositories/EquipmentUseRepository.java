@@ -1,14 +1,41 @@
 package com.edu.uptc.gelibackend.repositories;
 
 import com.edu.uptc.gelibackend.entities.EquipmentUseEntity;
+import io.micrometer.common.lang.NonNull;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface EquipmentUseRepository extends JpaRepository<EquipmentUseEntity, Long>, JpaSpecificationExecutor<EquipmentUseEntity> {
     List<EquipmentUseEntity> findByEquipmentIdAndIsInUseTrue(Long equipmentId);
+
+    // Reconstrucción de EquipmentOccupancyRegistry: usos abiertos con su equipo y usuario
+    @EntityGraph(attributePaths = {"equipment", "user"})
+    List<EquipmentUseEntity> findByIsInUseTrue();
+
+    // Finaliza el uso sólo si sigue abierto: de dos finalizaciones simultáneas sólo una afecta la fila
+    @Modifying
+    @Query("""
+        UPDATE EquipmentUseEntity u
+        SET u.isInUse = false, u.endUseTime = :endUseTime
+        WHERE u.id = :id AND u.isInUse = true
+        """)
+    int markEnded(@Param("id") Long id, @Param("endUseTime") LocalDateTime endUseTime);
+
+    // Equipo (marca, laboratorio y ubicación) y usuario (cargo) en la misma consulta que la página
+    @EntityGraph(attributePaths = {"equipment.brand", "equipment.laboratory.laboratoryLocation", "user.position"})
+    @NonNull
+    Page<EquipmentUseEntity> findAll(Specification<EquipmentUseEntity> spec, @NonNull Pageable pageable);
 }
@@ -0,0 +1,79 @@
+package com.edu.uptc.gelibackend.repositories;
+
+import com.edu.uptc.gelibackend.dtos.statistics.FunctionUsageStatisticsDTO;
+import com.edu.uptc.gelibackend.entities.FunctionUsageRollupEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface FunctionUsageRollupRepository extends JpaRepository<FunctionUsageRollupEntity, Long> {
+
+    // Suma un uso de la función a su franja (equipo, función, día, hora), creándola si no existe
+    @Modifying
+    @Query(value = """
+        MERGE INTO function_usage_rollup r
+        USING (SELECT :equipmentId AS equipment_id, :functionId AS function_id,
+                      :bucketDate AS bucket_date, :bucketHour AS bucket_hour FROM dual) s
+        ON (r.fur_equipment_id = s.equipment_id AND r.fur_function_id = s.function_id
+            AND r.fur_bucket_date = s.bucket_date AND r.fur_bucket_hour = s.bucket_hour)
+        WHEN MATCHED THEN UPDATE SET
+            r.fur_laboratory_id = :laboratoryId,
+            r.fur_use_count = r.fur_use_count + 1
+        WHEN NOT MATCHED THEN INSERT
+            (fur_equipment_id, fur_laboratory_id, fur_function_id, fur_bucket_date, fur_bucket_hour, fur_use_count)
+            VALUES (:equipmentId, :laboratoryId, :functionId, :bucketDate, :bucketHour, 1)
+    """, nativeQuery = true)
+    int addUse(@Param("equipmentId") Long equipmentId,
+               @Param("laboratoryId") Long laboratoryId,
+               @Param("functionId") Long functionId,
+               @Param("bucketDate") LocalDate bucketDate,
+               @Param("bucketHour") int bucketHour);
+
+    @Modifying
+    @Query("DELETE FROM FunctionUsageRollupEntity r WHERE r.bucketDate >= :from AND r.bucketDate < :to")
+    int deleteBuckets(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Recalcula las franjas de [from, to) desde equipment_function_usage (usos finalizados)
+    @Modifying
+    @Query(value = """
+        INSERT INTO function_usage_rollup
+            (fur_equipment_id, fur_laboratory_id, fur_function_id, fur_bucket_date, fur_bucket_hour, fur_use_count)
+        SELECT u.eu_equipment_id,
+               e.equipment_laboratory_id,
+               f.efu_function_id,
+               TRUNC(u.eu_start_date),
+               EXTRACT(HOUR FROM u.eu_start_date),
+               COUNT(*)
+        FROM equipment_function_usage f
+        JOIN equipment_usage u ON u.equipment_usage_id = f.efu_equipment_usage_id
+        JOIN equipments e ON e.equipment_id = u.eu_equipment_id
+        WHERE u.eu_end_date IS NOT NULL
+          AND u.eu_start_date >= :from
+          AND u.eu_start_date < :to
+        GROUP BY u.eu_equipment_id, e.equipment_laboratory_id, f.efu_function_id,
+                 TRUNC(u.eu_start_date), EXTRACT(HOUR FROM u.eu_start_date)
+    """, nativeQuery = true)
+    int rebuildBuckets(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("""
+        SELECT new com.edu.uptc.gelibackend.dtos.statistics.FunctionUsageStatisticsDTO(f.id, f.functionName, SUM(r.useCount))
+        FROM FunctionUsageRollupEntity r, FunctionEntity f
+        WHERE f.id = r.functionId
+          AND r.bucketDate >= :from AND r.bucketDate <= :to
+          AND (:laboratoryId IS NULL OR r.laboratoryId = :laboratoryId)
+          AND (:equipmentId IS NULL OR r.equipmentId = :equipmentId)
+        GROUP BY f.id, f.functionName
+        ORDER BY SUM(r.useCount) DESC
+    """)
+    List<FunctionUsageStatisticsDTO> sumByFunction(@Param("from") LocalDate from,
+                                                   @Param("to") LocalDate to,
+                                                   @Param("laboratoryId") Long laboratoryId,
+                                                   @Param("equipmentId") Long equipmentId);
+}
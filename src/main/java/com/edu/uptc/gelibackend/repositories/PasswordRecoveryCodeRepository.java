@@ -8,6 +8,7 @@ import org.springframework.stereotype.Repository;
 
 import com.edu.uptc.gelibackend.entities.PasswordRecoveryCode;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
@@ -21,5 +22,17 @@ public interface PasswordRecoveryCodeRepository extends JpaRepository<PasswordRe
 
     Optional<PasswordRecoveryCode> findByTempToken(String tempToken);
 
-    void deleteByUsername(String username);
+    // Un solo DELETE en lugar de cargar la fila y borrarla por id
+    @Modifying
+    @Query("DELETE FROM PasswordRecoveryCode p WHERE p.username = :username")
+    void deleteByUsername(@Param("username") String username);
+
+    // Un lote de filas vencidas por sentencia, para no bloquear la tabla con un borrado grande
+    @Modifying
+    @Query(value = """
+        DELETE FROM password_recovery_codes
+        WHERE prc_expires_at < :now
+          AND ROWNUM <= :batchSize
+    """, nativeQuery = true)
+    int deleteExpired(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
 }
@@ -2,11 +2,23 @@ package com.edu.uptc.gelibackend.repositories;
 
 import com.edu.uptc.gelibackend.entities.UserEntity;
 import io.micrometer.common.lang.NonNull;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import jakarta.persistence.QueryHint;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface UserRepository extends JpaRepository<UserEntity, Long>, JpaSpecificationExecutor<UserEntity> {
 
@@ -17,4 +29,26 @@ public interface UserRepository extends JpaRepository<UserEntity, Long>, JpaSpec
     @EntityGraph(attributePaths = {"position"})
     @NonNull
     Optional<UserEntity> findById(@NonNull Long id);
+
+    @EntityGraph(attributePaths = {"position"})
+    @NonNull
+    List<UserEntity> findAll();
+
+    @EntityGraph(attributePaths = {"position"})
+    @NonNull
+    Page<UserEntity> findAll(Specification<UserEntity> spec, @NonNull Pageable pageable);
+
+    int STREAM_FETCH_SIZE = 250;
+
+    /**
+     * Cursor de solo avance sobre todos los usuarios, leído por bloques de {@link #STREAM_FETCH_SIZE} filas.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT u FROM UserEntity u JOIN FETCH u.position ORDER BY u.id")
+    Stream<UserEntity> streamAll();
 }
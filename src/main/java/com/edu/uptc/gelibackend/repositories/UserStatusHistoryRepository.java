@@ -1,9 +1,30 @@
 package com.edu.uptc.gelibackend.repositories;
 
 import com.edu.uptc.gelibackend.entities.UserStatusHistoryEntity;
+import com.edu.uptc.gelibackend.repositories.projections.UserLatestStatusChange;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface UserStatusHistoryRepository extends JpaRepository<UserStatusHistoryEntity, Long> {
 
     UserStatusHistoryEntity findFirstByUserIdOrderByModificationStatusDateDesc(Long userId);
+
+    @Query("""
+        SELECT new com.edu.uptc.gelibackend.repositories.projections.UserLatestStatusChange(h.user.id, MAX(h.modificationStatusDate))
+        FROM UserStatusHistoryEntity h
+        GROUP BY h.user.id
+    """)
+    List<UserLatestStatusChange> findLatestStatusChangePerUser();
+
+    @Query("""
+        SELECT new com.edu.uptc.gelibackend.repositories.projections.UserLatestStatusChange(h.user.id, MAX(h.modificationStatusDate))
+        FROM UserStatusHistoryEntity h
+        WHERE h.user.id IN :userIds
+        GROUP BY h.user.id
+    """)
+    List<UserLatestStatusChange> findLatestStatusChangeByUserIds(@Param("userIds") Collection<Long> userIds);
 }
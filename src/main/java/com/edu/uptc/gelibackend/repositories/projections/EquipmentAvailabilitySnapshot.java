@@ -0,0 +1,16 @@
+package com.edu.uptc.gelibackend.repositories.projections;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Id y disponibilidad de un equipo, para el estado inicial del stream de disponibilidad de un laboratorio.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EquipmentAvailabilitySnapshot {
+    private Long id;
+    private Boolean availability;
+}
@@ -0,0 +1,18 @@
+package com.edu.uptc.gelibackend.repositories.projections;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Sólo las columnas que identifican a un equipo (id, nombre e inventario), sin cargar la entidad
+ * ni sus relaciones con marca, laboratorio y ubicación.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EquipmentIdentification {
+    private Long id;
+    private String equipmentName;
+    private String inventoryNumber;
+}
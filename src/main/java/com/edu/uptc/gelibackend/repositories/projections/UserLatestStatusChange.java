@@ -0,0 +1,19 @@
+package com.edu.uptc.gelibackend.repositories.projections;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Fecha del último cambio de estado de un usuario, calculada con una consulta agrupada
+ * sobre user_status_history.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserLatestStatusChange {
+    private Long userId;
+    private LocalDate modificationStatusDate;
+}
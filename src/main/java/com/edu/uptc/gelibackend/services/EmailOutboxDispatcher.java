@@ -0,0 +1,306 @@
+package com.edu.uptc.gelibackend.services;
+
+import com.edu.uptc.gelibackend.entities.EmailOutboxEntity;
+import com.edu.uptc.gelibackend.repositories.EmailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.MailSender;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Envía los correos de email_outbox desde un hilo propio, en lotes de {@code email-outbox.batch-size} por
+ * una sola sesión SMTP ({@code JavaMailSenderImpl} abre una conexión por llamada a {@code send}).
+ *
+ * <p>Se despierta al confirmarse cada {@link EmailQueuedEvent} y cada {@code email-outbox.poll-interval-ms}
+ * para los reintentos. Antes de enviar, cada correo se toma con un update condicional que corre su próximo
+ * intento {@code email-outbox.lease-ms} hacia adelante: si el proceso cae a mitad de un lote, esos correos
+ * vuelven a estar pendientes al vencer el plazo (un correo puede llegar dos veces, nunca perderse). Los
+ * fallidos se reintentan con espera exponencial hasta {@code email-outbox.max-attempts} y luego quedan como
+ * FAILED, sin el cuerpo (puede llevar una contraseña temporal); los enviados se borran. Los que tienen
+ * validez ({@code expiresAt}) se borran al vencer aunque estén esperando un reintento.</p>
+ *
+ * <p>Métricas: {@code geli.mail.outbox.pending}, {@code geli.mail.outbox.failed} y
+ * {@code geli.mail.outbox.oldest.age} (segundos del pendiente más antiguo) como gauges, y
+ * {@code geli.mail.outbox.dispatched} con tag {@code result} (sent, retry, failed, expired).</p>
+ */
+@Service
+@Slf4j
+public class EmailOutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final EmailOutboxRepository outboxRepo;
+    private final MailSender mailSender;
+    private final TransactionTemplate newTransaction;
+
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "email-outbox");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean drainRequested = new AtomicBoolean();
+
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong oldestPendingAgeSeconds = new AtomicLong();
+    private final Counter sentCounter;
+    private final Counter retryCounter;
+    private final Counter failedCounter;
+    private final Counter expiredCounter;
+
+    @Value("${email-outbox.batch-size:20}")
+    private int batchSize;
+
+    @Value("${email-outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${email-outbox.retry-base-ms:30000}")
+    private long retryBaseMs;
+
+    @Value("${email-outbox.retry-max-ms:3600000}")
+    private long retryMaxMs;
+
+    @Value("${email-outbox.lease-ms:300000}")
+    private long leaseMs;
+
+    @Value("${email-outbox.failed-retention-days:7}")
+    private int failedRetentionDays;
+
+    public EmailOutboxDispatcher(EmailOutboxRepository outboxRepo,
+                                 MailSender mailSender,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry registry) {
+        this.outboxRepo = outboxRepo;
+        this.mailSender = mailSender;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        Gauge.builder("geli.mail.outbox.pending", pending, AtomicLong::get).register(registry);
+        Gauge.builder("geli.mail.outbox.failed", failed, AtomicLong::get).register(registry);
+        Gauge.builder("geli.mail.outbox.oldest.age", oldestPendingAgeSeconds, AtomicLong::get)
+                .baseUnit("seconds")
+                .register(registry);
+        this.sentCounter = dispatchedCounter(registry, "sent");
+        this.retryCounter = dispatchedCounter(registry, "retry");
+        this.failedCounter = dispatchedCounter(registry, "failed");
+        this.expiredCounter = dispatchedCounter(registry, "expired");
+    }
+
+    private record ClaimedEmail(Long id, String recipient, String subject, String body, int attempts) {
+    }
+
+    private static Counter dispatchedCounter(MeterRegistry registry, String result) {
+        return Counter.builder("geli.mail.outbox.dispatched").tag("result", result).register(registry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmailQueued(EmailQueuedEvent event) {
+        requestDrain();
+    }
+
+    @Scheduled(fixedDelayString = "${email-outbox.poll-interval-ms:5000}")
+    public void poll() {
+        requestDrain();
+    }
+
+    // Los fallidos se guardan unos días para revisarlos, ya sin cuerpo: sólo destinatario, asunto y error
+    @Scheduled(cron = "${email-outbox.purge-cron:0 0 3 * * *}", zone = "America/Bogota")
+    public void purgeFailed() {
+        LocalDateTime before = EmailOutboxService.now().minusDays(failedRetentionDays);
+        Integer purged = newTransaction.execute(status -> outboxRepo.deleteFailedBefore(before));
+        if (purged != null && purged > 0) {
+            log.info("Purged {} failed emails older than {} days from the outbox", purged, failedRetentionDays);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Lo que quede a medias vuelve a estar pendiente al vencer su plazo
+        dispatcher.shutdownNow();
+    }
+
+    // Varias señales mientras hay un vaciado en cola se juntan en uno solo
+    private void requestDrain() {
+        if (drainRequested.compareAndSet(false, true)) {
+            dispatcher.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        drainRequested.set(false);
+        try {
+            purgeExpired();
+            while (dispatchBatch()) {
+                // Lote completo: puede haber más correos vencidos
+            }
+        } catch (RuntimeException e) {
+            log.warn("Email outbox dispatch failed, will retry on the next poll: {}", e.getMessage());
+        }
+        try {
+            refreshGauges();
+        } catch (RuntimeException e) {
+            log.debug("Could not refresh email outbox gauges: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Borra los pendientes cuya validez pasó, estén o no esperando un reintento: su cuerpo (un código o una
+     * contraseña temporal) no queda en la tabla más allá de {@code expiresAt}.
+     */
+    void purgeExpired() {
+        LocalDateTime now = EmailOutboxService.now();
+        Integer expired = newTransaction.execute(status -> outboxRepo.deleteExpired(now));
+        if (expired != null && expired > 0) {
+            expiredCounter.increment(expired);
+            log.info("Discarded {} expired emails from the outbox", expired);
+        }
+    }
+
+    /**
+     * Envía un lote de correos vencidos.
+     *
+     * @return true si el lote vino completo y conviene pedir otro
+     */
+    boolean dispatchBatch() {
+        LocalDateTime now = EmailOutboxService.now();
+        List<ClaimedEmail> due = new ArrayList<>();
+        Integer found = newTransaction.execute(status -> claimDue(now, due));
+        if (due.isEmpty()) {
+            return found != null && found == batchSize;
+        }
+
+        SimpleMailMessage[] batch = new SimpleMailMessage[due.size()];
+        for (int i = 0; i < batch.length; i++) {
+            ClaimedEmail email = due.get(i);
+            batch[i] = new SimpleMailMessage();
+            batch[i].setTo(email.recipient());
+            batch[i].setSubject(email.subject());
+            batch[i].setText(email.body());
+        }
+
+        Map<Object, Exception> failures = send(batch);
+
+        List<Long> sent = new ArrayList<>();
+        Map<ClaimedEmail, Exception> toRetry = new LinkedHashMap<>();
+        for (int i = 0; i < batch.length; i++) {
+            Exception failure = failures.get(batch[i]);
+            if (failure == null) {
+                sent.add(due.get(i).id());
+            } else {
+                toRetry.put(due.get(i), failure);
+            }
+        }
+        newTransaction.executeWithoutResult(status -> recordResults(sent, toRetry));
+        return found != null && found == batchSize;
+    }
+
+    private int claimDue(LocalDateTime now, List<ClaimedEmail> claimed) {
+        List<EmailOutboxEntity> due = outboxRepo.findDue(now, PageRequest.of(0, batchSize));
+        List<Long> expired = new ArrayList<>();
+        LocalDateTime leaseUntil = now.plus(Duration.ofMillis(leaseMs));
+        for (EmailOutboxEntity email : due) {
+            if (email.getExpiresAt() != null && email.getExpiresAt().isBefore(now)) {
+                expired.add(email.getId());
+            } else if (outboxRepo.claim(email.getId(), email.getNextAttemptAt(), leaseUntil) == 1) {
+                // La entidad queda tal cual la leímos: modificarla pisaría el plazo al confirmar
+                claimed.add(new ClaimedEmail(email.getId(), email.getRecipient(), email.getSubject(),
+                        email.getBody(), email.getAttempts() + 1));
+            }
+        }
+        if (!expired.isEmpty()) {
+            outboxRepo.deleteByIds(expired);
+            expiredCounter.increment(expired.size());
+            log.info("Discarded {} expired emails from the outbox", expired.size());
+        }
+        return due.size();
+    }
+
+    // Un solo send por lote: JavaMailSenderImpl usa una conexión y reporta los fallos por mensaje
+    private Map<Object, Exception> send(SimpleMailMessage[] batch) {
+        try {
+            mailSender.send(batch);
+            return Map.of();
+        } catch (MailSendException e) {
+            if (!e.getFailedMessages().isEmpty()) {
+                return e.getFailedMessages();
+            }
+            return allFailed(batch, e);
+        } catch (MailException e) {
+            return allFailed(batch, e);
+        }
+    }
+
+    private static Map<Object, Exception> allFailed(SimpleMailMessage[] batch, Exception e) {
+        Map<Object, Exception> failures = new LinkedHashMap<>();
+        for (SimpleMailMessage message : batch) {
+            failures.put(message, e);
+        }
+        return failures;
+    }
+
+    private void recordResults(List<Long> sent, Map<ClaimedEmail, Exception> toRetry) {
+        if (!sent.isEmpty()) {
+            outboxRepo.deleteByIds(sent);
+            sentCounter.increment(sent.size());
+        }
+
+        LocalDateTime now = EmailOutboxService.now();
+        toRetry.forEach((email, failure) -> {
+            String error = truncate(failure.getClass().getSimpleName() + ": " + failure.getMessage());
+            if (email.attempts() >= maxAttempts) {
+                outboxRepo.markFailed(email.id(), error);
+                failedCounter.increment();
+                log.error("Email {} to {} failed after {} attempts: {}",
+                        email.id(), email.recipient(), email.attempts(), error);
+            } else {
+                outboxRepo.scheduleRetry(email.id(), now.plus(backoff(email.attempts())), error);
+                retryCounter.increment();
+                log.warn("Email {} to {} failed (attempt {}), retrying: {}",
+                        email.id(), email.recipient(), email.attempts(), error);
+            }
+        });
+    }
+
+    // retry-base-ms, el doble en cada intento, hasta retry-max-ms
+    Duration backoff(int attempts) {
+        int doublings = Math.min(Math.max(attempts - 1, 0), 30);
+        return Duration.ofMillis(Math.min(retryBaseMs << doublings, retryMaxMs));
+    }
+
+    private void refreshGauges() {
+        pending.set(outboxRepo.countByStatus(EmailOutboxEntity.Status.PENDING));
+        failed.set(outboxRepo.countByStatus(EmailOutboxEntity.Status.FAILED));
+        LocalDateTime oldest = outboxRepo.findOldestPendingCreatedAt();
+        oldestPendingAgeSeconds.set(oldest == null
+                ? 0
+                : Math.max(0, Duration.between(oldest, EmailOutboxService.now()).toSeconds()));
+    }
+
+    private static String truncate(String error) {
+        return error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
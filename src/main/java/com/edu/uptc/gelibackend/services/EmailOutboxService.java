@@ -0,0 +1,65 @@
+package com.edu.uptc.gelibackend.services;
+
+import com.edu.uptc.gelibackend.entities.EmailOutboxEntity;
+import com.edu.uptc.gelibackend.repositories.EmailOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+/**
+ * Bandeja de salida de correo. {@link #enqueue} sólo escribe en email_outbox, dentro de la transacción de
+ * quien llama si la hay: el correo sale únicamente si esa transacción se confirma, y la petición no espera
+ * al servidor SMTP. El envío lo hace {@link EmailOutboxDispatcher} en segundo plano.
+ */
+@Service
+@RequiredArgsConstructor
+public class EmailOutboxService {
+
+    private static final int MAX_BODY_LENGTH = 4000;
+
+    private final EmailOutboxRepository outboxRepo;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public void enqueue(String to, String subject, String text) {
+        enqueue(to, subject, text, null);
+    }
+
+    /**
+     * @param validFor tiempo tras el cual el correo ya no tiene sentido y se descarta sin enviarse
+     *                 (p. ej. un código que vence); null si no vence
+     */
+    @Transactional
+    public void enqueue(String to, String subject, String text, Duration validFor) {
+        if (to == null || to.isBlank()) {
+            throw new IllegalArgumentException("Email recipient is required");
+        }
+        if (text.length() > MAX_BODY_LENGTH) {
+            throw new IllegalArgumentException("Email body exceeds " + MAX_BODY_LENGTH + " characters");
+        }
+
+        LocalDateTime now = now();
+        EmailOutboxEntity email = new EmailOutboxEntity();
+        email.setRecipient(to);
+        email.setSubject(subject);
+        email.setBody(text);
+        email.setStatus(EmailOutboxEntity.Status.PENDING);
+        email.setAttempts(0);
+        email.setNextAttemptAt(now);
+        email.setCreatedAt(now);
+        email.setExpiresAt(validFor != null ? now.plus(validFor) : null);
+
+        EmailOutboxEntity saved = outboxRepo.save(email);
+        eventPublisher.publishEvent(new EmailQueuedEvent(saved.getId()));
+    }
+
+    static LocalDateTime now() {
+        return ZonedDateTime.now(ZoneId.of("America/Bogota")).toLocalDateTime();
+    }
+}
@@ -0,0 +1,8 @@
+package com.edu.uptc.gelibackend.services;
+
+/**
+ * Un correo agregado a la bandeja de salida por {@link EmailOutboxService}; al confirmarse la transacción
+ * despierta a {@link EmailOutboxDispatcher} sin esperar al siguiente sondeo.
+ */
+public record EmailQueuedEvent(Long outboxId) {
+}
@@ -0,0 +1,316 @@
+package com.edu.uptc.gelibackend.services;
+
+import com.edu.uptc.gelibackend.dtos.equipment.use.EquipmentAvailabilityEventDTO;
+import com.edu.uptc.gelibackend.repositories.EquipmentRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streams SSE de disponibilidad por laboratorio.
+ *
+ * <p>Al suscribirse se envía el estado actual de cada equipo del laboratorio (una consulta de id y
+ * disponibilidad más {@link EquipmentOccupancyRegistry}); después sólo se envían los cambios que publican
+ * {@link EquipmentUseService} al iniciar/finalizar usos y {@link EquipmentService} al cambiar la
+ * disponibilidad o el laboratorio de un equipo. Los eventos se reenvían una vez confirmada la transacción,
+ * para que un cliente lento no retrase la petición que originó el cambio.</p>
+ *
+ * <p>Cada suscriptor tiene su propia cola, de a lo sumo {@code equipment.availability-stream.queue-capacity}
+ * mensajes, que vacía un hilo de un pool compartido ({@code sender-threads}) de uno en uno y en orden: un
+ * cliente que no lee sólo retiene su propio envío, y si su cola se llena se le cierra el stream (al
+ * reconectarse recibe de nuevo el estado completo). Los cambios que llegan mientras se lee el estado inicial
+ * se encolan detrás de él, así que un cliente nunca recibe un estado más viejo que uno ya recibido.</p>
+ */
+@Service
+@Slf4j
+public class EquipmentAvailabilityStreamService {
+
+    static final String EVENT_NAME = "equipment-availability";
+
+    // Marca de keep-alive en la cola de un suscriptor
+    private static final Object HEARTBEAT = new Object();
+
+    private final EquipmentRepository equipmentRepo;
+    private final EquipmentOccupancyRegistry occupancyRegistry;
+
+    private final Map<Long, List<Subscriber>> subscribersByLaboratory = new ConcurrentHashMap<>();
+    private final ExecutorService senders;
+
+    @Value("${equipment.availability-stream.timeout-ms:1800000}")
+    private long streamTimeoutMs;
+
+    @Value("${equipment.availability-stream.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${equipment.availability-stream.max-subscribers-per-laboratory:200}")
+    private int maxSubscribersPerLaboratory;
+
+    public EquipmentAvailabilityStreamService(EquipmentRepository equipmentRepo,
+                                              EquipmentOccupancyRegistry occupancyRegistry,
+                                              @Value("${equipment.availability-stream.sender-threads:4}") int senderThreads) {
+        this.equipmentRepo = equipmentRepo;
+        this.occupancyRegistry = occupancyRegistry;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "equipment-availability-sse-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public SseEmitter subscribe(Long laboratoryId) {
+        SseEmitter emitter = newEmitter(streamTimeoutMs);
+        Subscriber subscriber = new Subscriber(laboratoryId, emitter);
+        register(subscriber);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+
+        // Ya registrado: lo que cambie mientras se lee el estado queda en su cola, detrás del estado inicial
+        List<EquipmentAvailabilityEventDTO> snapshot = new ArrayList<>();
+        try {
+            LocalDateTime now = now();
+            for (var equipment : equipmentRepo.findAvailabilityByLaboratoryId(laboratoryId)) {
+                snapshot.add(new EquipmentAvailabilityEventDTO(equipment.getId(), laboratoryId,
+                        statusOf(equipment.getId(), equipment.getAvailability()), now));
+            }
+        } catch (RuntimeException e) {
+            subscriber.close();
+            throw e;
+        }
+        subscriber.start(snapshot);
+        return emitter;
+    }
+
+    // Punto de extensión para las pruebas
+    SseEmitter newEmitter(long timeoutMs) {
+        return new SseEmitter(timeoutMs);
+    }
+
+    /**
+     * Estado de un equipo: fuera de servicio, en uso según el registro de ocupación, o disponible.
+     */
+    public String statusOf(Long equipmentId, Boolean availability) {
+        if (!Boolean.TRUE.equals(availability)) {
+            return EquipmentAvailabilityEventDTO.UNAVAILABLE;
+        }
+        return occupancyRegistry.isInUse(equipmentId)
+                ? EquipmentAvailabilityEventDTO.IN_USE
+                : EquipmentAvailabilityEventDTO.AVAILABLE;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAvailabilityChanged(EquipmentAvailabilityEventDTO event) {
+        List<Subscriber> subscribers = subscribersByLaboratory.get(event.getLaboratoryId());
+        if (subscribers != null) {
+            subscribers.forEach(subscriber -> subscriber.offer(event));
+        }
+    }
+
+    // Comentario SSE periódico: mantiene abiertas las conexiones a través de proxies y descarta las cerradas
+    @Scheduled(fixedDelayString = "${equipment.availability-stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        subscribersByLaboratory.values().forEach(subscribers -> subscribers.forEach(Subscriber::offerHeartbeat));
+    }
+
+    int subscriberCount(Long laboratoryId) {
+        List<Subscriber> subscribers = subscribersByLaboratory.get(laboratoryId);
+        return subscribers == null ? 0 : subscribers.size();
+    }
+
+    boolean hasLaboratory(Long laboratoryId) {
+        return subscribersByLaboratory.containsKey(laboratoryId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+        subscribersByLaboratory.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        subscribersByLaboratory.clear();
+    }
+
+    private void register(Subscriber subscriber) {
+        subscribersByLaboratory.compute(subscriber.laboratoryId, (id, subscribers) -> {
+            List<Subscriber> current = subscribers != null ? subscribers : new CopyOnWriteArrayList<>();
+            if (current.size() >= maxSubscribersPerLaboratory) {
+                throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                        "Demasiadas conexiones abiertas para el laboratorio " + id);
+            }
+            current.add(subscriber);
+            return current;
+        });
+    }
+
+    // Quita el suscriptor y, si era el último de su laboratorio, la lista
+    private void unregister(Subscriber subscriber) {
+        subscribersByLaboratory.computeIfPresent(subscriber.laboratoryId, (id, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    /**
+     * Un cliente del stream con su cola de envío. Como mucho una tarea suya corre en el pool a la vez, así
+     * que sus mensajes salen en orden.
+     */
+    private final class Subscriber {
+
+        private final Long laboratoryId;
+        private final SseEmitter emitter;
+        private final Deque<Object> pending = new ArrayDeque<>();
+        private List<EquipmentAvailabilityEventDTO> snapshot;
+        private boolean started;
+        private boolean draining;
+        private boolean closed;
+
+        Subscriber(Long laboratoryId, SseEmitter emitter) {
+            this.laboratoryId = laboratoryId;
+            this.emitter = emitter;
+        }
+
+        // El estado inicial sale antes que los cambios encolados mientras se leía y no cuenta para el límite
+        synchronized void start(List<EquipmentAvailabilityEventDTO> snapshot) {
+            this.snapshot = snapshot;
+            started = true;
+            scheduleDrain();
+        }
+
+        void offer(EquipmentAvailabilityEventDTO event) {
+            enqueue(event);
+        }
+
+        synchronized void offerHeartbeat() {
+            // Con mensajes pendientes el keep-alive sobra
+            if (pending.isEmpty()) {
+                enqueue(HEARTBEAT);
+            }
+        }
+
+        private synchronized void enqueue(Object message) {
+            if (closed) {
+                return;
+            }
+            if (pending.size() >= queueCapacity) {
+                log.debug("Availability stream subscriber of laboratory {} is not reading, closing it", laboratoryId);
+                close();
+                return;
+            }
+            pending.addLast(message);
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (started && !draining && !closed && (snapshot != null || !pending.isEmpty())) {
+                draining = true;
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            List<EquipmentAvailabilityEventDTO> initial;
+            synchronized (this) {
+                initial = snapshot;
+                snapshot = null;
+            }
+            if (initial != null) {
+                for (EquipmentAvailabilityEventDTO event : initial) {
+                    if (!deliver(event)) {
+                        close();
+                        completeIfClosed();
+                        return;
+                    }
+                }
+            }
+            while (true) {
+                Object next;
+                synchronized (this) {
+                    next = closed ? null : pending.pollFirst();
+                    if (next == null) {
+                        draining = false;
+                        break;
+                    }
+                }
+                if (!deliver(next)) {
+                    close();
+                    break;
+                }
+            }
+            completeIfClosed();
+        }
+
+        private boolean deliver(Object message) {
+            try {
+                if (message == HEARTBEAT) {
+                    emitter.send(SseEmitter.event().comment("keep-alive"));
+                } else {
+                    emitter.send(SseEmitter.event().name(EVENT_NAME).data(message));
+                }
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Dropping availability stream subscriber: {}", e.getMessage());
+                return false;
+            }
+        }
+
+        /**
+         * Lo deja de alimentar y lo quita de su laboratorio. El emitter se completa desde el hilo que lo
+         * vacía (o aquí si no hay ninguno), nunca desde quien publica el evento: completar espera a que
+         * termine un envío bloqueado.
+         */
+        void close() {
+            boolean completeNow;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                pending.clear();
+                completeNow = !draining;
+            }
+            unregister(this);
+            if (completeNow && !senders.isShutdown()) {
+                senders.execute(this::completeIfClosed);
+            }
+        }
+
+        private void completeIfClosed() {
+            boolean complete;
+            synchronized (this) {
+                complete = closed;
+                draining = false;
+            }
+            if (complete) {
+                try {
+                    emitter.complete();
+                } catch (RuntimeException e) {
+                    log.debug("Could not complete availability stream: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static LocalDateTime now() {
+        return ZonedDateTime.now(ZoneId.of("America/Bogota")).toLocalDateTime();
+    }
+}
@@ -0,0 +1,155 @@
+package com.edu.uptc.gelibackend.services;
+
+import com.edu.uptc.gelibackend.entities.EquipmentUseEntity;
+import com.edu.uptc.gelibackend.repositories.EquipmentUseRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Ocupación en vivo de los equipos: para cada equipmentId, las sesiones de uso abiertas (isInUse = true).
+ *
+ * <p>Se reconstruye desde equipment_usage al arrancar, antes de que el servidor web acepte peticiones
+ * ({@link SmartInitializingSingleton} corre antes de que Tomcat abra el conector), y después la mantienen {@link EquipmentUseService}
+ * al iniciar y finalizar usos, así que las consultas de disponibilidad se responden sin ir a la base de datos.
+ * Cada equipo tiene un {@link AtomicReference} con una lista inmutable de sesiones: iniciar un uso es un
+ * compare-and-set de "sin sesiones" a "una sesión", por lo que de dos inicios simultáneos sólo uno gana.</p>
+ *
+ * <p>El registro es local a la instancia; con varias réplicas cada una sólo ve los usos que pasan por ella.</p>
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class EquipmentOccupancyRegistry implements SmartInitializingSingleton {
+
+    private final EquipmentUseRepository equipmentUseRepo;
+
+    private final Map<Long, AtomicReference<List<ActiveSession>>> occupancy = new ConcurrentHashMap<>();
+
+    /**
+     * Una sesión abierta. {@code useId} es null mientras el inicio no se ha guardado (reserva).
+     */
+    public record ActiveSession(Long useId, Long userId, String userEmail, LocalDateTime startedAt) {
+
+        public boolean belongsTo(String email) {
+            return userEmail != null && userEmail.equalsIgnoreCase(email);
+        }
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    // Con el registro vacío se admitirían inicios sobre equipos ocupados: si la base no responde, no arranca
+    void rebuild() {
+        List<EquipmentUseEntity> openUses = equipmentUseRepo.findByIsInUseTrue();
+        for (EquipmentUseEntity use : openUses) {
+            ActiveSession session = new ActiveSession(
+                    use.getId(), use.getUser().getId(), use.getUser().getEmail(), use.getStartUseTime());
+            slot(use.getEquipment().getId()).updateAndGet(sessions -> append(sessions, session));
+        }
+        log.info("Equipment occupancy registry rebuilt with {} open uses", openUses.size());
+    }
+
+    public List<ActiveSession> getSessions(Long equipmentId) {
+        AtomicReference<List<ActiveSession>> slot = occupancy.get(equipmentId);
+        return slot == null ? List.of() : slot.get();
+    }
+
+    public boolean isInUse(Long equipmentId) {
+        return !getSessions(equipmentId).isEmpty();
+    }
+
+    /**
+     * Reserva el equipo si está libre.
+     *
+     * @return la reserva, que luego se confirma con {@link #confirm} o se libera con {@link #release}
+     * @throws IllegalArgumentException si el equipo ya tiene un uso abierto
+     */
+    public ActiveSession tryAcquire(Long equipmentId, Long userId, String userEmail, LocalDateTime startedAt) {
+        ActiveSession reservation = new ActiveSession(null, userId, userEmail, startedAt);
+        AtomicReference<List<ActiveSession>> slot = slot(equipmentId);
+        while (true) {
+            List<ActiveSession> current = slot.get();
+            if (!current.isEmpty()) {
+                throw new IllegalArgumentException("Equipment with ID " + equipmentId + " is already in use");
+            }
+            if (slot.compareAndSet(current, List.of(reservation))) {
+                return reservation;
+            }
+        }
+    }
+
+    /**
+     * Reemplaza la reserva por la sesión ya guardada, con su id de uso.
+     */
+    public void confirm(Long equipmentId, ActiveSession reservation, Long useId) {
+        ActiveSession confirmed = new ActiveSession(useId, reservation.userId(), reservation.userEmail(), reservation.startedAt());
+        slot(equipmentId).updateAndGet(sessions -> sessions.stream()
+                .map(s -> s == reservation ? confirmed : s)
+                .toList());
+    }
+
+    /**
+     * Quita una reserva que no llegó a guardarse.
+     */
+    public void release(Long equipmentId, ActiveSession reservation) {
+        slot(equipmentId).updateAndGet(sessions -> without(sessions, reservation, null));
+    }
+
+    /**
+     * Quita la sesión del uso finalizado.
+     *
+     * @return la sesión quitada, o null si el uso ya no estaba registrado
+     */
+    public ActiveSession end(Long equipmentId, Long useId) {
+        AtomicReference<List<ActiveSession>> slot = slot(equipmentId);
+        while (true) {
+            List<ActiveSession> current = slot.get();
+            ActiveSession ended = current.stream()
+                    .filter(s -> Objects.equals(s.useId(), useId))
+                    .findFirst()
+                    .orElse(null);
+            if (ended == null) {
+                return null;
+            }
+            if (slot.compareAndSet(current, without(current, null, useId))) {
+                return ended;
+            }
+        }
+    }
+
+    /**
+     * Vuelve a registrar una sesión quitada con {@link #end} cuyo fin no llegó a guardarse.
+     */
+    public void restore(Long equipmentId, ActiveSession session) {
+        slot(equipmentId).updateAndGet(sessions -> sessions.stream()
+                .anyMatch(s -> Objects.equals(s.useId(), session.useId())) ? sessions : append(sessions, session));
+    }
+
+    private AtomicReference<List<ActiveSession>> slot(Long equipmentId) {
+        return occupancy.computeIfAbsent(equipmentId, id -> new AtomicReference<>(List.of()));
+    }
+
+    private static List<ActiveSession> without(List<ActiveSession> sessions, ActiveSession reservation, Long useId) {
+        return sessions.stream()
+                .filter(s -> s != reservation && (useId == null || !useId.equals(s.useId())))
+                .toList();
+    }
+
+    private static List<ActiveSession> append(List<ActiveSession> sessions, ActiveSession session) {
+        List<ActiveSession> updated = new ArrayList<>(sessions);
+        updated.add(session);
+        return List.copyOf(updated);
+    }
+}
@@ -2,6 +2,7 @@ package com.edu.uptc.gelibackend.services;
 
 import com.edu.uptc.gelibackend.dtos.*;
 import com.edu.uptc.gelibackend.dtos.equipment.*;
+import com.edu.uptc.gelibackend.dtos.equipment.use.EquipmentAvailabilityEventDTO;
 import com.edu.uptc.gelibackend.entities.*;
 import com.edu.uptc.gelibackend.entities.ids.AuthorizedUserEquipmentsId;
 import com.edu.uptc.gelibackend.entities.ids.EquipmentFunctionsId;
@@ -9,15 +10,22 @@ import com.edu.uptc.gelibackend.filters.EquipmentFilterDTO;
 import com.edu.uptc.gelibackend.mappers.EquipmentMapper;
 import com.edu.uptc.gelibackend.mappers.FunctionMapper;
 import com.edu.uptc.gelibackend.repositories.*;
+import com.edu.uptc.gelibackend.repositories.projections.EquipmentIdentification;
 import com.edu.uptc.gelibackend.specifications.EquipmentSpecification;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.ws.rs.BadRequestException;
 import jakarta.ws.rs.NotFoundException;
+import com.edu.uptc.gelibackend.utils.FilterPages;
+import com.edu.uptc.gelibackend.utils.UniqueKeyGuard;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -26,12 +34,21 @@ import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Timed("geli.service")
 public class EquipmentService {
 
+    // Orden keyset de /filter: el id es único, así que basta como clave del cursor
+    private static final Sort KEYSET_SORT = Sort.by("id");
+    private static final Map<String, Class<?>> KEYSET_KEYS = Map.of("id", Long.class);
+
+    private static final String INVENTORY_NUMBER_UNIQUE_KEY = "equipments_inventory_number_uk";
+    private static final String INVENTORY_NUMBER_NOT_UNIQUE = "Inventory number must be unique";
+
     private final EquipmentRepository equipmentRepo;
     private final FunctionRepository functionRepo;
     private final EquipmentFunctionsRepository functionHistoryRepo;
@@ -44,6 +61,8 @@ public class EquipmentService {
     private final BrandService brandService;
     private final AuthorizedUserEquipmentsRepository authorizedUserEquipmentsRepository;
     private final UserService userService;
+    private final EquipmentAvailabilityStreamService availabilityStreamService;
+    private final ApplicationEventPublisher eventPublisher;
 
 
     public PageResponse<EquipmentResponseDTO> findAll(int page, int size) {
@@ -52,7 +71,7 @@ public class EquipmentService {
         }
         // Aplicar paginación
         Pageable pageable = PageRequest.of(page, size);
-        Page<EquipmentEntity> pageResult = equipmentRepo.findAll(pageable);
+        Page<EquipmentEntity> pageResult = equipmentRepo.findAllBy(pageable);
 
         List<EquipmentResponseDTO> content = pageResult.getContent().stream()
                 .map(mapper::toResponseDTO)
@@ -73,7 +92,7 @@ public class EquipmentService {
         }
         // Aplicar paginación
         Pageable pageable = PageRequest.of(page, size);
-        Page<EquipmentEntity> pageResult = equipmentRepo.findAll(pageable);
+        Page<EquipmentIdentification> pageResult = equipmentRepo.findAllIdentifications(pageable);
 
         List<EquipmentForFilterResponseDTO> content = pageResult.getContent().stream()
                 .map(mapper::toForFilterResponseDTO)
@@ -89,13 +108,13 @@ public class EquipmentService {
     }
 
     public EquipmentResponseDTO findById(Long id) {
-        return equipmentRepo.findById(id)
+        return equipmentRepo.findDetailedById(id)
                 .map(mapper::toResponseDTO)
                 .orElse(null);
     }
 
     public EquipmentFunctionsResponseDTO findFunctionsById(Long id) {
-        return equipmentRepo.findById(id).map(equipmentEntity -> {
+        return equipmentRepo.findDetailedById(id).map(equipmentEntity -> {
             EquipmentFunctionsResponseDTO dto = mapper.toFunctionsResponseDTO(equipmentEntity);
 
             List<FunctionDTO> mutableFunctions = new ArrayList<>(dto.getFunctions());
@@ -125,7 +144,8 @@ public class EquipmentService {
         this.setFunctionsToEquipment(equipment, this.findFunctionsByIds(dto.getFunctions()));
         this.setUsersToEquipment(equipment, this.findUsersByIds(dto.getAuthorizedUsersIds()));
 
-        EquipmentEntity save = equipmentRepo.save(equipment);
+        EquipmentEntity save = saveWithUniqueInventoryNumber(equipment);
+        publishAvailability(save);
         return mapper.toResponseDTO(save);
     }
 
@@ -182,8 +202,7 @@ public class EquipmentService {
     }
 
     private void validateUniqueName(String equipmentName) {
-        if (equipmentRepo.findAll().stream()
-                .anyMatch(equipment -> equipment.getEquipmentName().equalsIgnoreCase(equipmentName))) {
+        if (equipmentRepo.existsByEquipmentNameIgnoreCase(equipmentName)) {
             throw new IllegalArgumentException("Equipment's name must be unique");
         }
     }
@@ -192,10 +211,12 @@ public class EquipmentService {
     public EquipmentResponseDTO update(Long id, EquipmentUpdateDTO dto) {
         EquipmentEntity existing = equipmentRepo.findById(id)
                 .orElseThrow(() -> new NotFoundException("Equipo no encontrado con ID: " + id));
+        Boolean previousAvailability = existing.getAvailability();
+        Long previousLaboratoryId = existing.getLaboratory().getId();
 
         // Validar inventario solo si cambia
         if (!existing.getInventoryNumber().equalsIgnoreCase(dto.getInventoryNumber())) {
-            this.validateInventoryNumber(dto.getInventoryNumber());
+            this.validateInventoryNumber(dto.getInventoryNumber(), id);
         }
 
         // Validaciones básicas
@@ -220,7 +241,15 @@ public class EquipmentService {
         // ✅ (Opcional) también puedes actualizar usuarios autorizados si es parte del update
         // this.setUsersToEquipment(existing, findUsersByIds(dto.getAuthorizedUsersIds()));
 
-        EquipmentEntity saved = equipmentRepo.save(existing);
+        EquipmentEntity saved = saveWithUniqueInventoryNumber(existing);
+
+        if (!saved.getLaboratory().getId().equals(previousLaboratoryId)) {
+            // Para las pantallas del laboratorio anterior el equipo deja de estar disponible
+            publishAvailability(saved.getId(), previousLaboratoryId, EquipmentAvailabilityEventDTO.UNAVAILABLE);
+            publishAvailability(saved);
+        } else if (!saved.getAvailability().equals(previousAvailability)) {
+            publishAvailability(saved);
+        }
         return mapper.toResponseDTO(saved);
     }
 
@@ -248,40 +277,73 @@ public class EquipmentService {
 
 
     private void validateInventoryNumber(String inventoryNumber) {
-        if (equipmentRepo.findAll().stream()
-                .anyMatch(equipment -> equipment.getInventoryNumber().equalsIgnoreCase(inventoryNumber))) {
-            throw new IllegalArgumentException("Inventory number must be unique");
+        if (equipmentRepo.existsByInventoryNumberIgnoreCase(inventoryNumber)) {
+            throw new IllegalArgumentException(INVENTORY_NUMBER_NOT_UNIQUE);
+        }
+    }
+
+    private void validateInventoryNumber(String inventoryNumber, Long excludeId) {
+        if (equipmentRepo.existsByInventoryNumberIgnoreCaseAndIdNot(inventoryNumber, excludeId)) {
+            throw new IllegalArgumentException(INVENTORY_NUMBER_NOT_UNIQUE);
+        }
+    }
+
+    // El índice único respalda la validación cuando dos peticiones concurrentes usan el mismo inventario
+    private EquipmentEntity saveWithUniqueInventoryNumber(EquipmentEntity equipment) {
+        try {
+            return equipmentRepo.saveAndFlush(equipment);
+        } catch (DataIntegrityViolationException e) {
+            if (UniqueKeyGuard.isViolationOf(e, INVENTORY_NUMBER_UNIQUE_KEY)) {
+                throw new IllegalArgumentException(INVENTORY_NUMBER_NOT_UNIQUE);
+            }
+            throw e;
         }
     }
 
     public boolean delete(Long id) {
-        if (equipmentRepo.existsById(id)) {
-            equipmentRepo.deleteById(id);
+        return equipmentRepo.findById(id).map(equipment -> {
+            equipmentRepo.delete(equipment);
+            publishAvailability(id, equipment.getLaboratory().getId(), EquipmentAvailabilityEventDTO.UNAVAILABLE);
             return true;
-        }
-        return false;
+        }).orElse(false);
+    }
+
+    private void publishAvailability(EquipmentEntity equipment) {
+        publishAvailability(equipment.getId(), equipment.getLaboratory().getId(),
+                availabilityStreamService.statusOf(equipment.getId(), equipment.getAvailability()));
+    }
+
+    private void publishAvailability(Long equipmentId, Long laboratoryId, String status) {
+        eventPublisher.publishEvent(new EquipmentAvailabilityEventDTO(
+                equipmentId, laboratoryId, status, ZonedDateTime.now(ZoneId.of("America/Bogota")).toLocalDateTime()));
     }
 
     @Transactional(readOnly = true)
     public PageResponse<EquipmentFilterResponseDTO> filter(EquipmentFilterDTO filter, int page, int size) {
+        return filter(filter, page, size, null, true);
+    }
+
+    /**
+     * @param cursor    si no es null se pagina por keyset sobre el id desde ese cursor; "" es la primera página
+     * @param withCount en modo offset, false omite el COUNT(*) y los totales se devuelven como desconocidos
+     */
+    @Transactional(readOnly = true)
+    public PageResponse<EquipmentFilterResponseDTO> filter(EquipmentFilterDTO filter, int page, int size, String cursor, boolean withCount) {
         if (size <= 0) {
             throw new IllegalArgumentException("Page size must not be less than or equal to zero");
         }
-        Pageable pageable = PageRequest.of(page, size);
         Specification<EquipmentEntity> spec = equipmentSpecification.build(filter);
-        Page<EquipmentEntity> pageResult = equipmentRepo.findAll(spec, pageable);
+        PageResponse<EquipmentEntity> pageResult = FilterPages.read(
+                equipmentRepo, spec, page, size,
+                Sort.unsorted(), KEYSET_SORT, KEYSET_KEYS,
+                cursor, withCount
+        );
 
         List<EquipmentFilterResponseDTO> content = pageResult.getContent().stream()
                 .map(mapper::toFilterResponseDTO)
                 .toList();
 
-        return new PageResponse<>(
-                pageResult.getNumber(),
-                pageResult.getSize(),
-                pageResult.getTotalElements(),
-                pageResult.getTotalPages(),
-                content
-        );
+        return pageResult.withContent(content);
     }
 
     public boolean existsByInventoryNumber(String inventoryNumber) {
@@ -300,7 +362,7 @@ public class EquipmentService {
     public List<EquipmentByUserResponseDTO> getAuthorizedEquipmentsByUserAndLab(String email, Long labId) {
         Long userId = userService.findUserByEmail(email).get().getId();
         return authorizedUserEquipmentsRepository
-                .findAuthorizedEquipmentsByUserIdAndLaboratoryId(userId, labId)
+                .findAuthorizedEquipmentIdentificationsByUserIdAndLaboratoryId(userId, labId)
                 .stream()
                 .map(mapper::toByUserResponseDTO)
                 .collect(Collectors.toList());
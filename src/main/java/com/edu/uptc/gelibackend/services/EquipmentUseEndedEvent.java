@@ -0,0 +1,19 @@
+package com.edu.uptc.gelibackend.services;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Un uso de equipo finalizado, publicado por {@link EquipmentUseService#endEquipmentUse} para actualizar
+ * los agregados de {@link UsageRollupService}.
+ */
+public record EquipmentUseEndedEvent(
+        Long useId,
+        Long equipmentId,
+        Long laboratoryId,
+        LocalDateTime startUseTime,
+        LocalDateTime endUseTime,
+        int samplesNumber,
+        List<Long> functionIds
+) {
+}
@@ -5,6 +5,7 @@ import com.edu.uptc.gelibackend.dtos.EquipmentStartUseDTO;
 import com.edu.uptc.gelibackend.dtos.EquipmentUseResponseDTO;
 import com.edu.uptc.gelibackend.dtos.PageResponse;
 import com.edu.uptc.gelibackend.dtos.equipment.EquipmentFilterResponseDTO;
+import com.edu.uptc.gelibackend.dtos.equipment.use.EquipmentAvailabilityEventDTO;
 import com.edu.uptc.gelibackend.dtos.equipment.use.EquipmentAvailabilityStatusDTO;
 import com.edu.uptc.gelibackend.entities.*;
 import com.edu.uptc.gelibackend.entities.ids.EquipmentFunctionsUsedId;
@@ -15,22 +16,32 @@ import com.edu.uptc.gelibackend.repositories.EquipmentUseRepository;
 import com.edu.uptc.gelibackend.repositories.FunctionRepository;
 import com.edu.uptc.gelibackend.repositories.UserRepository;
 import com.edu.uptc.gelibackend.specifications.EquipmentUseSpecification;
+import com.edu.uptc.gelibackend.utils.FilterPages;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 
 @Service
 @RequiredArgsConstructor
+@Timed("geli.service")
 public class EquipmentUseService {
+
+    // Orden keyset del historial de usos: más recientes primero, el id desempata usos con la misma hora
+    private static final Sort KEYSET_SORT = Sort.by(Sort.Direction.DESC, "startUseTime", "id");
+    private static final Map<String, Class<?>> KEYSET_KEYS = Map.of("startUseTime", LocalDateTime.class, "id", Long.class);
+
     private final EquipmentUseRepository equipmentUseRepo;
 
     private final UserRepository userRepo;
@@ -38,7 +49,9 @@ public class EquipmentUseService {
     private final FunctionRepository functionRepo;
     private final EquipmentUseMapper mapper;
     private final EquipmentUseSpecification specification;
-    private final UserService userService;
+    private final EquipmentOccupancyRegistry occupancyRegistry;
+    private final EquipmentAvailabilityStreamService availabilityStreamService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public Optional<EquipmentUseResponseDTO> startEquipmentUse(EquipmentStartUseDTO equipmentStartUseDTO, String username) {
@@ -46,11 +59,40 @@ public class EquipmentUseService {
 
         EquipmentUseEntity entity = buildEquipmentUseEntity(equipmentStartUseDTO, username);
 
-        EquipmentUseEntity savedEntity = equipmentUseRepo.save(entity);
+        // Sólo un inicio por equipo gana la reserva; el resto se rechaza sin llegar a la base de datos
+        Long equipmentId = entity.getEquipment().getId();
+        EquipmentOccupancyRegistry.ActiveSession reservation = occupancyRegistry.tryAcquire(
+                equipmentId, entity.getUser().getId(), entity.getUser().getEmail(), entity.getStartUseTime());
+
+        EquipmentUseEntity savedEntity;
+        try {
+            savedEntity = equipmentUseRepo.save(entity);
+        } catch (RuntimeException e) {
+            occupancyRegistry.release(equipmentId, reservation);
+            throw e;
+        }
+        occupancyRegistry.confirm(equipmentId, reservation, savedEntity.getId());
+        releaseOnRollback(equipmentId, savedEntity.getId());
+        eventPublisher.publishEvent(new EquipmentAvailabilityEventDTO(equipmentId,
+                entity.getEquipment().getLaboratory().getId(), EquipmentAvailabilityEventDTO.IN_USE, entity.getStartUseTime()));
 
         return Optional.of(mapper.toResponseDTO(savedEntity));
     }
 
+    private void releaseOnRollback(Long equipmentId, Long useId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    occupancyRegistry.end(equipmentId, useId);
+                }
+            }
+        });
+    }
+
     private void validateEquipmentUseCreationData(EquipmentStartUseDTO equipmentStartUseDTO) {
         if (equipmentStartUseDTO.getUserId() == null) {
             throw new IllegalArgumentException("User ID cannot be null");
@@ -71,18 +113,27 @@ public class EquipmentUseService {
         entity.setUser(findUserByEmail(username));
         EquipmentEntity equipmentEntity = findEquipmentById(equipmentStartUseDTO.getEquipmentId());
         entity.setEquipment(equipmentEntity);
-        entity.setStartUseTime(ZonedDateTime.now(ZoneId.of("America/Bogota")).toLocalDateTime());
+        entity.setStartUseTime(now());
         entity.setIsInUse(true);
 
         return entity;
     }
 
+    // Al segundo: los minutos de la suma incremental y de la reconstrucción de rollups salen de los mismos valores
+    private static LocalDateTime now() {
+        return ZonedDateTime.now(ZoneId.of("America/Bogota")).toLocalDateTime().truncatedTo(ChronoUnit.SECONDS);
+    }
+
     private UserEntity findUserById(Long userId) {
         return userRepo.findById(userId).orElseThrow(() -> new IllegalArgumentException("User with ID " + userId + " not found"));
     }
 
     private UserEntity findUserByEmail(String username) {
-        return userRepo.findByEmail(username.toUpperCase());
+        UserEntity user = userRepo.findByEmail(username.toUpperCase());
+        if (user == null) {
+            throw new IllegalArgumentException("User with email " + username + " not found");
+        }
+        return user;
     }
 
     private EquipmentEntity findEquipmentById(Long equipmentId) {
@@ -125,20 +176,55 @@ public class EquipmentUseService {
         entity.setEquipmentFunctionsUsedList(new ArrayList<>(equipmentFunctionsUsedList));
     }
 
+    @Transactional
     public Optional<EquipmentUseResponseDTO> endEquipmentUse(Long id, EquipmentEndUseDTO equipmentEndUseDTO) {
         EquipmentUseEntity equipmentUseEntity = validateEquipmentUseIsAlreadyStarted(id);
+        LocalDateTime endUseTime = now();
+        // La lectura anterior no basta: otra finalización pudo entrar después; el update condicional decide
+        if (equipmentUseRepo.markEnded(id, endUseTime) == 0) {
+            throw new IllegalArgumentException("Equipment use with ID " + id + " is already ended");
+        }
         mapper.completeEntityWithEndDTO(equipmentUseEntity, equipmentEndUseDTO);
 
         List<FunctionEntity> functionEntityList = validateEquipmentUsedFunctions(equipmentEndUseDTO, equipmentUseEntity.getEquipment());
         assignFunctionsToEntity(equipmentUseEntity, functionEntityList);
-        equipmentUseEntity.setEndUseTime(ZonedDateTime.now(ZoneId.of("America/Bogota")).toLocalDateTime());
+        equipmentUseEntity.setEndUseTime(endUseTime);
         equipmentUseEntity.setIsInUse(false);
 
         equipmentUseRepo.save(equipmentUseEntity);
+        EquipmentEntity equipment = equipmentUseEntity.getEquipment();
+        EquipmentOccupancyRegistry.ActiveSession ended = occupancyRegistry.end(equipment.getId(), equipmentUseEntity.getId());
+        restoreOnRollback(equipment.getId(), ended);
+        // Ambos eventos se entregan al confirmar, una sola vez por uso
+        eventPublisher.publishEvent(new EquipmentAvailabilityEventDTO(equipment.getId(), equipment.getLaboratory().getId(),
+                availabilityStreamService.statusOf(equipment.getId(), equipment.getAvailability()), equipmentUseEntity.getEndUseTime()));
+        eventPublisher.publishEvent(new EquipmentUseEndedEvent(
+                equipmentUseEntity.getId(),
+                equipment.getId(),
+                equipment.getLaboratory().getId(),
+                equipmentUseEntity.getStartUseTime(),
+                equipmentUseEntity.getEndUseTime(),
+                equipmentUseEntity.getSamplesNumber(),
+                functionEntityList.stream().map(FunctionEntity::getId).toList()
+        ));
 
         return Optional.of(mapper.toResponseDTO(equipmentUseEntity));
     }
 
+    private void restoreOnRollback(Long equipmentId, EquipmentOccupancyRegistry.ActiveSession ended) {
+        if (ended == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    occupancyRegistry.restore(equipmentId, ended);
+                }
+            }
+        });
+    }
+
     private EquipmentUseEntity validateEquipmentUseIsAlreadyStarted(Long id) {
         EquipmentUseEntity equipmentUseEntity = equipmentUseRepo.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Equipment use with ID " + id + " not found"));
@@ -159,37 +245,41 @@ public class EquipmentUseService {
     }
 
     public PageResponse<EquipmentUseResponseDTO> filter(EquipmentUseFilterDTO filter, int page, int size) {
+        return filter(filter, page, size, null, true);
+    }
+
+    /**
+     * @param cursor    si no es null se pagina por keyset (startUseTime, id) desde ese cursor; "" es la primera página
+     * @param withCount en modo offset, false omite el COUNT(*) y los totales se devuelven como desconocidos
+     */
+    public PageResponse<EquipmentUseResponseDTO> filter(EquipmentUseFilterDTO filter, int page, int size, String cursor, boolean withCount) {
         if (size <= 0) {
             throw new IllegalArgumentException("Page size must not be less than or equal to zero");
         }
-        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "startUseTime"));
         Specification<EquipmentUseEntity> spec = specification.build(filter);
-        Page<EquipmentUseEntity> pageResult = equipmentUseRepo.findAll(spec, pageable);
+        PageResponse<EquipmentUseEntity> pageResult = FilterPages.read(
+                equipmentUseRepo, spec, page, size,
+                Sort.by(Sort.Direction.DESC, "startUseTime"), KEYSET_SORT, KEYSET_KEYS,
+                cursor, withCount
+        );
 
         List<EquipmentUseResponseDTO> content = pageResult.getContent().stream()
                 .map(mapper::toResponseDTO)
                 .toList();
 
-        return new PageResponse<>(
-                pageResult.getNumber(),
-                pageResult.getSize(),
-                pageResult.getTotalElements(),
-                pageResult.getTotalPages(),
-                content
-        );
+        return pageResult.withContent(content);
     }
 
+    // Se responde desde EquipmentOccupancyRegistry; la sesión guarda el email, así que no hace falta buscar al usuario
     public EquipmentAvailabilityStatusDTO getEquipmentAvailabilityStatus(Long equipmentId, String email) {
-        Long userId = userService.findUserByEmail(email).get().getId();
-        List<EquipmentUseEntity> usages = equipmentUseRepo.findByEquipmentIdAndIsInUseTrue(equipmentId);
-
+        List<EquipmentOccupancyRegistry.ActiveSession> usages = occupancyRegistry.getSessions(equipmentId);
 
         if (usages.isEmpty()) {
             return new EquipmentAvailabilityStatusDTO("AVAILABLE", "✅ El equipo está disponible.");
         }
 
-        for (EquipmentUseEntity usage : usages) {
-            if (usage.getUser().getId().equals(userId)) {
+        for (EquipmentOccupancyRegistry.ActiveSession usage : usages) {
+            if (usage.belongsTo(email)) {
                 return new EquipmentAvailabilityStatusDTO("IN_USE_BY_YOU", "⚠️ Este equipo ya está siendo usado por usted.");
             }
         }
@@ -0,0 +1,153 @@
+package com.edu.uptc.gelibackend.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Proyección local de los usuarios del realm de Keycloak (id, estado habilitado y roles de realm) por keycloakId.
+ *
+ * <p>Se carga una vez cuando la aplicación está lista y se resincroniza periódicamente. Una sincronización
+ * lista los usuarios página a página y resuelve los roles de realm por el endpoint de miembros de cada rol:
+ * una petición por página más una por rol, en lugar de una petición de roles por usuario.</p>
+ *
+ * <p>Cada sincronización es completa, no incremental: la API de administración de Keycloak no permite consultar
+ * usuarios ni membresías de roles "cambiados desde" una fecha (los eventos de administración son opcionales
+ * por realm y expiran), así que no hay un delta fiable que aplicar. Una pasada completa es además la que detecta
+ * usuarios borrados o con roles cambiados directamente en la consola de Keycloak. Los cambios hechos desde esta
+ * aplicación no la esperan; ver el desalojo más abajo.</p>
+ *
+ * <p>Las rutas de escritura de {@link KeyCloakUserService} desalojan sus entradas; un id desalojado mientras
+ * corre una sincronización no se vuelve a llenar con los datos que esa sincronización trajo. Al terminar, la
+ * sincronización sólo quita los ids que ya estaban en caché cuando empezó y que Keycloak ya no devuelve: lo que
+ * se agregó durante ella (por ejemplo, tras un fallo de caché) se conserva.</p>
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class KeyCloakUserCache {
+
+    private final Keycloak keyCloakProvider;
+
+    private final Map<String, UserRepresentation> users = new ConcurrentHashMap<>();
+    private final Map<String, Long> evictedAt = new ConcurrentHashMap<>();
+
+    @Value("${keycloak.realm}")
+    private String REALM;
+
+    @Value("${keycloak.user-cache.page-size:200}")
+    private int pageSize;
+
+    public Optional<UserRepresentation> get(String keycloakId) {
+        return Optional.ofNullable(users.get(keycloakId));
+    }
+
+    /**
+     * Devuelve las representaciones en caché de los ids dados. Los ids que no están en caché no aparecen en el resultado.
+     */
+    public Map<String, UserRepresentation> getAll(Collection<String> keycloakIds) {
+        Map<String, UserRepresentation> found = new HashMap<>();
+        for (String id : keycloakIds) {
+            UserRepresentation user = users.get(id);
+            if (user != null) {
+                found.put(id, user);
+            }
+        }
+        return found;
+    }
+
+    public void put(UserRepresentation user) {
+        if (user != null && user.getId() != null) {
+            users.put(user.getId(), user);
+        }
+    }
+
+    public void evict(String keycloakId) {
+        if (keycloakId == null) {
+            return;
+        }
+        evictedAt.put(keycloakId, System.nanoTime());
+        users.remove(keycloakId);
+    }
+
+    public int size() {
+        return users.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        refresh();
+    }
+
+    @Scheduled(
+            initialDelayString = "${keycloak.user-cache.refresh-interval-ms:300000}",
+            fixedDelayString = "${keycloak.user-cache.refresh-interval-ms:300000}"
+    )
+    public void refresh() {
+        long startedAt = System.nanoTime();
+        Set<String> cachedBefore = new HashSet<>(users.keySet());
+        Map<String, UserRepresentation> snapshot;
+        try {
+            snapshot = loadSnapshot();
+        } catch (Exception e) {
+            log.warn("Could not refresh the Keycloak user cache, keeping {} cached users: {}", users.size(), e.getMessage());
+            return;
+        }
+
+        snapshot.forEach((id, user) -> {
+            Long evicted = evictedAt.get(id);
+            if (evicted == null || evicted - startedAt < 0) {
+                users.put(id, user);
+            }
+        });
+        cachedBefore.removeAll(snapshot.keySet());
+        users.keySet().removeAll(cachedBefore);
+        evictedAt.values().removeIf(evicted -> evicted - startedAt < 0);
+
+        log.debug("Keycloak user cache refreshed with {} users", users.size());
+    }
+
+    private Map<String, UserRepresentation> loadSnapshot() {
+        RealmResource realm = keyCloakProvider.realm(REALM);
+        Map<String, UserRepresentation> snapshot = new HashMap<>();
+
+        int first = 0;
+        List<UserRepresentation> page;
+        do {
+            page = realm.users().list(first, pageSize);
+            for (UserRepresentation user : page) {
+                user.setRealmRoles(new ArrayList<>());
+                snapshot.put(user.getId(), user);
+            }
+            first += pageSize;
+        } while (page.size() == pageSize);
+
+        for (RoleRepresentation role : realm.roles().list()) {
+            int firstMember = 0;
+            List<UserRepresentation> members;
+            do {
+                members = realm.roles().get(role.getName()).getUserMembers(true, firstMember, pageSize);
+                for (UserRepresentation member : members) {
+                    UserRepresentation user = snapshot.get(member.getId());
+                    if (user != null) {
+                        user.getRealmRoles().add(role.getName());
+                    }
+                }
+                firstMember += pageSize;
+            } while (members.size() == pageSize);
+        }
+
+        return snapshot;
+    }
+}
@@ -1,5 +1,6 @@
 package com.edu.uptc.gelibackend.services;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.keycloak.admin.client.Keycloak;
 import org.keycloak.admin.client.resource.RealmResource;
@@ -12,20 +13,58 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.ws.rs.NotFoundException;
 import jakarta.ws.rs.core.Response;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 @RequiredArgsConstructor
+@Timed("geli.service")
 public class KeyCloakUserService {
 
     private final Keycloak keyCloakProvider;
+    private final KeyCloakUserCache userCache;
 
     @Value("${keycloak.realm}")
     private String REALM;
 
+    @Value("${keycloak.http.max-connections-per-route:20}")
+    private int CONNECTION_POOL_SIZE;
+
+    @Value("${keycloak.batch-lookup.concurrency:8}")
+    private int LOOKUP_CONCURRENCY;
+
+    // Hilos para consultas por lotes; su tamaño limita las peticiones simultáneas a Keycloak
+    private ExecutorService lookupExecutor;
+
+    @PostConstruct
+    void initLookupExecutor() {
+        int threads = Math.max(1, Math.min(LOOKUP_CONCURRENCY, CONNECTION_POOL_SIZE));
+        AtomicInteger counter = new AtomicInteger();
+        lookupExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "keycloak-lookup-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdownLookupExecutor() {
+        lookupExecutor.shutdownNow();
+    }
+
     public List<UserRepresentation> getAllUsers() {
         List<UserRepresentation> users = keyCloakProvider.realm(REALM).users().list();
         getRolesForAllUsers(users);
@@ -44,10 +83,72 @@ public class KeyCloakUserService {
         }
     }
 
+    /**
+     * Returns the representations (with realm roles) of the given users, served from {@link KeyCloakUserCache}.
+     * Users missing from the cache are fetched with {@link #getByIds(Collection)} and cached.
+     */
+    public Map<String, UserRepresentation> getUsersByIds(Collection<String> ids) {
+        Map<String, UserRepresentation> users = new HashMap<>(userCache.getAll(ids));
+        List<String> missing = ids.stream()
+                .filter(id -> id != null && !users.containsKey(id))
+                .toList();
+        if (!missing.isEmpty()) {
+            Map<String, UserRepresentation> fetched = getByIds(missing);
+            fetched.values().forEach(userCache::put);
+            users.putAll(fetched);
+        }
+        return users;
+    }
+
+    /**
+     * Fetches the representation and realm roles of each given user directly from Keycloak.
+     * Lookups run in parallel on a fixed pool no larger than the admin-client connection pool,
+     * so a batch never has more requests in flight than there are pooled connections.
+     * Users that no longer exist in Keycloak are left out of the result; any other failure is
+     * rethrown as thrown by the lookup, not wrapped in a {@link CompletionException}.
+     */
+    public Map<String, UserRepresentation> getByIds(Collection<String> ids) {
+        List<CompletableFuture<UserRepresentation>> lookups = ids.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .map(id -> CompletableFuture.supplyAsync(() -> findById(id), lookupExecutor))
+                .toList();
+
+        Map<String, UserRepresentation> users = new HashMap<>();
+        for (CompletableFuture<UserRepresentation> lookup : lookups) {
+            UserRepresentation user;
+            try {
+                user = lookup.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+            if (user != null) {
+                users.put(user.getId(), user);
+            }
+        }
+        return users;
+    }
+
+    private UserRepresentation findById(String id) {
+        try {
+            return getById(id);
+        } catch (NotFoundException e) {
+            return null;
+        }
+    }
+
     public Response createUser(UserRepresentation userRepresentation) {
         userRepresentation.setEnabled(true);
         userRepresentation.setEmailVerified(true);
-        return keyCloakProvider.realm(REALM).users().create(userRepresentation);
+        Response response = keyCloakProvider.realm(REALM).users().create(userRepresentation);
+        if (response.getLocation() != null) {
+            String path = response.getLocation().getPath();
+            userCache.evict(path.substring(path.lastIndexOf("/") + 1));
+        }
+        return response;
     }
 
     public void assignRealmRoleToUser(String userId, String roleName) {
@@ -62,6 +163,7 @@ public class KeyCloakUserService {
                 .roles()
                 .realmLevel()
                 .add(Collections.singletonList(role));
+        userCache.evict(userId);
     }
 
     public UserRepresentation getById(String id) {
@@ -74,6 +176,7 @@ public class KeyCloakUserService {
         try {
             UserResource userResource = keyCloakProvider.realm(REALM).users().get(userId);
             userResource.remove();
+            userCache.evict(userId);
         } catch (NotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Usuario no encontrado con ID: " + userId);
         } catch (Exception e) {
@@ -87,6 +190,7 @@ public class KeyCloakUserService {
 
         // 1. Actualizar atributos básicos del usuario
         usersResource.get(userId).update(keycloakUser);
+        userCache.evict(userId);
     }
 
     public void updateUserRoles(String userId, List<String> newRoles) {
@@ -108,6 +212,7 @@ public class KeyCloakUserService {
         // Actualizar roles del usuario
         usersResource.get(userId).roles().realmLevel().remove(usersResource.get(userId).roles().realmLevel().listAll());
         usersResource.get(userId).roles().realmLevel().add(roles);
+        userCache.evict(userId);
     }
 
     public List<RoleRepresentation> getAllRoles() {
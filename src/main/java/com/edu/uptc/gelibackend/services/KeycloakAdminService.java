@@ -1,20 +1,45 @@
 package com.edu.uptc.gelibackend.services;
 
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
 
 @Service
+@Slf4j
 public class KeycloakAdminService {
 
     private final RestTemplate restTemplate;
 
+    // Token client_credentials en caché: se renueva en segundo plano poco antes de expirar y las peticiones
+    // concurrentes que lo necesitan mientras tanto esperan la misma llamada a Keycloak
+    private volatile AdminToken adminToken;
+    private CompletableFuture<AdminToken> tokenRequest;
+    private final Object tokenLock = new Object();
+    private final ExecutorService tokenExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "keycloak-admin-token");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${keycloak.admin-token.refresh-before-expiry-ms:30000}")
+    private long refreshBeforeExpiryMs;
+
     @Value("${keycloak.auth-server-url}")
     private String keycloakUrl;
 
@@ -30,7 +55,93 @@ public class KeycloakAdminService {
         this.restTemplate = restTemplate;
     }
 
+    private record AdminToken(String value, Instant refreshAt, Instant expiresAt) {
+    }
+
+    @PreDestroy
+    void shutdownTokenExecutor() {
+        tokenExecutor.shutdownNow();
+    }
+
+    /**
+     * Devuelve el token de administración en caché. Pasado su momento de renovación se sigue usando
+     * mientras se pide uno nuevo en segundo plano; sólo se espera a Keycloak si no hay token o ya expiró.
+     */
     public String getAdminToken() {
+        AdminToken current = adminToken;
+        Instant now = Instant.now();
+        if (current != null && now.isBefore(current.expiresAt())) {
+            if (!now.isBefore(current.refreshAt())) {
+                requestAdminToken();
+            }
+            return current.value();
+        }
+        try {
+            return requestAdminToken().join().value();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Hace una llamada a la API de administración con el token en caché. Si Keycloak responde 401 (Keycloak
+     * reiniciado, claves rotadas, sesión del cliente revocada) el token se descarta y se reintenta una vez con
+     * uno nuevo; un segundo 401 llega al llamador.
+     */
+    public <T> T withAdminToken(Function<String, T> call) {
+        String token = getAdminToken();
+        try {
+            return call.apply(token);
+        } catch (HttpClientErrorException.Unauthorized e) {
+            log.warn("Keycloak rejected the cached admin token, requesting a new one");
+            invalidate(token);
+            return call.apply(getAdminToken());
+        }
+    }
+
+    /**
+     * Descarta el token en caché si sigue siendo {@code rejectedToken}; si otra petición ya lo reemplazó se
+     * conserva el nuevo.
+     */
+    public void invalidate(String rejectedToken) {
+        synchronized (tokenLock) {
+            AdminToken current = adminToken;
+            if (current != null && current.value().equals(rejectedToken)) {
+                adminToken = null;
+            }
+        }
+    }
+
+    /**
+     * Lanza la petición del token, o devuelve la que ya está en curso.
+     */
+    private CompletableFuture<AdminToken> requestAdminToken() {
+        synchronized (tokenLock) {
+            if (tokenRequest != null && !tokenRequest.isDone()) {
+                return tokenRequest;
+            }
+            CompletableFuture<AdminToken> request = new CompletableFuture<>();
+            tokenRequest = request;
+            tokenExecutor.execute(() -> {
+                try {
+                    AdminToken token = fetchAdminToken();
+                    adminToken = token;
+                    request.complete(token);
+                } catch (RuntimeException e) {
+                    // Una renovación en segundo plano no tiene quien espere el resultado: sin este log se perdería
+                    log.warn("Could not get a Keycloak admin token: {}", e.getMessage());
+                    request.completeExceptionally(e);
+                }
+            });
+            return request;
+        }
+    }
+
+    private AdminToken fetchAdminToken() {
+        Instant requestedAt = Instant.now();
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
 
@@ -48,7 +159,16 @@ public class KeycloakAdminService {
                 Map.class
         );
 
-        return (String) response.getBody().get("access_token");
+        Map<?, ?> body = response.getBody();
+        if (body == null || body.get("access_token") == null) {
+            throw new RuntimeException("Keycloak no devolvió un token de administración");
+        }
+        // El tiempo se cuenta desde que se pidió el token; si Keycloak no envía expires_in se asume 60 s
+        long expiresInMs = body.get("expires_in") instanceof Number expiresIn ? expiresIn.longValue() * 1000 : 60_000;
+        long refreshInMs = expiresInMs > 2 * refreshBeforeExpiryMs ? expiresInMs - refreshBeforeExpiryMs : expiresInMs / 2;
+        return new AdminToken((String) body.get("access_token"),
+                requestedAt.plus(Duration.ofMillis(refreshInMs)),
+                requestedAt.plus(Duration.ofMillis(expiresInMs)));
     }
 
     public String getUserIdByUsername(String username, String adminToken) {
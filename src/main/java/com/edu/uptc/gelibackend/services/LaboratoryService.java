@@ -11,22 +11,33 @@ import com.edu.uptc.gelibackend.repositories.AuthorizedUserEquipmentsRepository;
 import com.edu.uptc.gelibackend.repositories.LaboratoryRepository;
 import com.edu.uptc.gelibackend.repositories.LocationRepository;
 import com.edu.uptc.gelibackend.specifications.LaboratorySpecification;
+import com.edu.uptc.gelibackend.utils.FilterPages;
+import com.edu.uptc.gelibackend.utils.UniqueKeyGuard;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import jakarta.ws.rs.NotFoundException;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Timed("geli.service")
 public class LaboratoryService {
 
+    // Orden keyset de /filter: el id es único, así que basta como clave del cursor
+    private static final Sort KEYSET_SORT = Sort.by("id");
+    private static final Map<String, Class<?>> KEYSET_KEYS = Map.of("id", Long.class);
+
+    private static final String LABORATORY_NAME_UNIQUE_KEY = "laboratories_name_uk";
+    private static final String LABORATORY_NAME_NOT_UNIQUE = "Laboratory's name must be unique";
+
     private final LaboratoryRepository labRepo;
     private final LocationRepository locRepo;
     private final LaboratoryMapper mapper;
@@ -54,13 +65,30 @@ public class LaboratoryService {
         LaboratoryEntity entity = mapper.mapDTOToEntity(dto);
         entity.setLaboratoryLocation(location);
 
-        return mapper.mapEntityToDTO(labRepo.save(entity));
+        return mapper.mapEntityToDTO(saveWithUniqueName(entity));
     }
 
     private void validateUniqueName(String laboratoryName) {
-        if (labRepo.findAll().stream()
-                .anyMatch(lab -> lab.getLaboratoryName().equalsIgnoreCase(laboratoryName))) {
-            throw new IllegalArgumentException("Laboratory's name must be unique");
+        if (labRepo.existsByLaboratoryNameIgnoreCase(laboratoryName)) {
+            throw new IllegalArgumentException(LABORATORY_NAME_NOT_UNIQUE);
+        }
+    }
+
+    private void validateUniqueName(String laboratoryName, Long excludeId) {
+        if (labRepo.existsByLaboratoryNameIgnoreCaseAndIdNot(laboratoryName, excludeId)) {
+            throw new IllegalArgumentException(LABORATORY_NAME_NOT_UNIQUE);
+        }
+    }
+
+    // El índice único respalda la validación cuando dos peticiones concurrentes usan el mismo nombre
+    private LaboratoryEntity saveWithUniqueName(LaboratoryEntity laboratory) {
+        try {
+            return labRepo.saveAndFlush(laboratory);
+        } catch (DataIntegrityViolationException e) {
+            if (UniqueKeyGuard.isViolationOf(e, LABORATORY_NAME_UNIQUE_KEY)) {
+                throw new IllegalArgumentException(LABORATORY_NAME_NOT_UNIQUE);
+            }
+            throw e;
         }
     }
 
@@ -68,6 +96,10 @@ public class LaboratoryService {
         LaboratoryEntity existing = labRepo.findById(id)
                 .orElseThrow(() -> new NotFoundException("Laboratory not found"));
 
+        if (!existing.getLaboratoryName().equalsIgnoreCase(dto.getLaboratoryName())) {
+            this.validateUniqueName(dto.getLaboratoryName(), id);
+        }
+
         LocationEntity location = locRepo.findById(dto.getLocation().getId())
                 .orElseThrow(() -> new NotFoundException("Location not found"));
 
@@ -77,7 +109,7 @@ public class LaboratoryService {
         existing.setLaboratoryLocation(location);
         existing.setLaboratoryObservations(dto.getLaboratoryObservations());
 
-        return mapper.mapEntityToDTO(labRepo.save(existing));
+        return mapper.mapEntityToDTO(saveWithUniqueName(existing));
     }
 
     public boolean delete(Long id) {
@@ -89,25 +121,30 @@ public class LaboratoryService {
     }
 
     public PageResponse<LaboratoryDTO> filterLaboratories(LaboratoryFilterDTO filters, int page, int size) {
+        return filterLaboratories(filters, page, size, null, true);
+    }
+
+    /**
+     * @param cursor    si no es null se pagina por keyset sobre el id desde ese cursor; "" es la primera página
+     * @param withCount en modo offset, false omite el COUNT(*) y los totales se devuelven como desconocidos
+     */
+    public PageResponse<LaboratoryDTO> filterLaboratories(LaboratoryFilterDTO filters, int page, int size, String cursor, boolean withCount) {
         if (size <= 0) {
             throw new IllegalArgumentException("Page size must be greater than 0");
         }
 
         Specification<LaboratoryEntity> spec = labSpecification.build(filters);
-        Pageable pageable = PageRequest.of(page, size);
-        Page<LaboratoryEntity> pageResult = labRepo.findAll(spec, pageable);
+        PageResponse<LaboratoryEntity> pageResult = FilterPages.read(
+                labRepo, spec, page, size,
+                Sort.unsorted(), KEYSET_SORT, KEYSET_KEYS,
+                cursor, withCount
+        );
 
         List<LaboratoryDTO> content = pageResult.getContent().stream()
                 .map(mapper::mapEntityToDTO)
                 .collect(Collectors.toList());
 
-        return new PageResponse<>(
-                pageResult.getNumber(),
-                pageResult.getSize(),
-                pageResult.getTotalElements(),
-                pageResult.getTotalPages(),
-                content
-        );
+        return pageResult.withContent(content);
     }
 
     public boolean existsByName(String laboratoryName) {
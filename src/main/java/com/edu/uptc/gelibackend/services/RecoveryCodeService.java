@@ -2,45 +2,91 @@ package com.edu.uptc.gelibackend.services;
 
 import com.edu.uptc.gelibackend.entities.PasswordRecoveryCode;
 import com.edu.uptc.gelibackend.repositories.PasswordRecoveryCodeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.Optional;
-import java.util.Random;
 
+/**
+ * Códigos de recuperación de contraseña, en password_recovery_codes (varias instancias detrás del balanceador
+ * comparten la tabla). Todas las lecturas van a la tabla por sus índices únicos de usuario y token temporal,
+ * así que un código regenerado o usado en otra instancia deja de servir en todas. Las filas vencidas las borra
+ * {@link #sweepExpired} por lotes.
+ */
 @Service
+@Slf4j
 public class RecoveryCodeService {
 
+    public static final Duration CODE_VALIDITY = Duration.ofMinutes(5);
+
+    private static final int GENERATE_ATTEMPTS = 3;
+
     private final PasswordRecoveryCodeRepository repository;
+    private final TransactionTemplate newTransaction;
+    private final SecureRandom random = new SecureRandom();
+
+    @Value("${recovery-code.sweep-batch-size:500}")
+    private int sweepBatchSize;
 
-    public RecoveryCodeService(PasswordRecoveryCodeRepository repository) {
+    public RecoveryCodeService(PasswordRecoveryCodeRepository repository, PlatformTransactionManager transactionManager) {
         this.repository = repository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
     }
 
-    @Transactional
+    /**
+     * Reemplaza el código del usuario por uno nuevo, en su propia transacción. Hay un código por usuario
+     * (prc_username_uk): si dos envíos simultáneos chocan al insertar, el que pierde se reintenta y su código
+     * reemplaza al otro, como si hubiera llegado después.
+     */
     public String generateCode(String username) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return newTransaction.execute(status -> replaceCode(username));
+            } catch (DataIntegrityViolationException e) {
+                if (attempt >= GENERATE_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Concurrent recovery code for {}, retrying: {}", username, e.getMessage());
+            }
+        }
+    }
+
+    private String replaceCode(String username) {
         // Eliminar cualquier código anterior
         repository.deleteByUsername(username);
 
         // Generar nuevo código
-        String code = String.format("%06d", new Random().nextInt(999999));
+        String code = String.format("%06d", random.nextInt(1_000_000));
+        LocalDateTime now = now();
 
         PasswordRecoveryCode entity = new PasswordRecoveryCode();
         entity.setUsername(username);
         entity.setCode(code);
-        entity.setCreatedAt(ZonedDateTime.now(ZoneId.of("America/Bogota")).toLocalDateTime());
-        entity.setExpiresAt(ZonedDateTime.now(ZoneId.of("America/Bogota")).toLocalDateTime().plusMinutes(5));
+        entity.setCreatedAt(now);
+        entity.setExpiresAt(now.plus(CODE_VALIDITY));
 
         repository.save(entity);
         return code;
     }
 
     public boolean verifyCode(String username, String code) {
+        LocalDateTime now = now();
         return repository.findByUsername(username)
+                .filter(rc -> rc.getExpiresAt().isAfter(now))
                 .filter(rc -> rc.getCode().equals(code))
-                .filter(rc -> rc.getExpiresAt().isAfter(ZonedDateTime.now(ZoneId.of("America/Bogota")).toLocalDateTime()))
                 .isPresent();
     }
 
@@ -55,15 +101,43 @@ public class RecoveryCodeService {
     }
 
     public String getUsernameByTempToken(String tempToken) {
-        return repository.findByTempToken(tempToken)
-                .filter(rc -> rc.getExpiresAt().isAfter(ZonedDateTime.now(ZoneId.of("America/Bogota")).toLocalDateTime()))
+        return findByTempToken(tempToken)
                 .map(PasswordRecoveryCode::getUsername)
                 .orElse(null);
     }
 
+    /**
+     * El código vigente asociado al token temporal, o vacío si no existe o ya venció.
+     */
     public Optional<PasswordRecoveryCode> findByTempToken(String tempToken) {
+        if (tempToken == null) {
+            return Optional.empty();
+        }
+        LocalDateTime now = now();
         return repository.findByTempToken(tempToken)
-                .filter(rc -> rc.getExpiresAt().isAfter(ZonedDateTime.now(ZoneId.of("America/Bogota")).toLocalDateTime()));
+                .filter(rc -> rc.getExpiresAt().isAfter(now));
     }
 
+    // Borra por lotes las filas vencidas, cada lote en su propia transacción
+    @Scheduled(
+            initialDelayString = "${recovery-code.sweep-interval-ms:60000}",
+            fixedDelayString = "${recovery-code.sweep-interval-ms:60000}"
+    )
+    public void sweepExpired() {
+        LocalDateTime now = now();
+        int total = 0;
+        Integer deleted;
+        do {
+            deleted = newTransaction.execute(status -> repository.deleteExpired(now, sweepBatchSize));
+            total += deleted == null ? 0 : deleted;
+        } while (deleted != null && deleted >= sweepBatchSize);
+
+        if (total > 0) {
+            log.info("Deleted {} expired password recovery codes", total);
+        }
+    }
+
+    private static LocalDateTime now() {
+        return ZonedDateTime.now(ZoneId.of("America/Bogota")).toLocalDateTime();
+    }
 }
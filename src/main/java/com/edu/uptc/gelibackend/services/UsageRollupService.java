@@ -0,0 +1,190 @@
+package com.edu.uptc.gelibackend.services;
+
+import com.edu.uptc.gelibackend.dtos.statistics.FunctionUsageStatisticsDTO;
+import com.edu.uptc.gelibackend.dtos.statistics.UsageStatisticsDTO;
+import com.edu.uptc.gelibackend.repositories.EquipmentUsageRollupRepository;
+import com.edu.uptc.gelibackend.repositories.FunctionUsageRollupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Agregados de uso por equipo, laboratorio, función, día y hora de inicio.
+ *
+ * <p>Cada uso finalizado suma sus valores a las franjas correspondientes una vez confirmado el fin del uso
+ * ({@link EquipmentUseEndedEvent}). Si esa actualización falla el uso no se pierde: la reconstrucción nocturna
+ * recalcula los últimos días desde equipment_usage, y {@link #rebuild} permite recalcular cualquier rango
+ * (carga inicial o corrección).</p>
+ *
+ * <p>Una suma incremental y la reconstrucción de un mes no se cruzan: desde antes de confirmar el fin del uso
+ * hasta terminar su suma se tiene la lectura de {@link #rebuildLock}, y cada mes se reconstruye con la
+ * escritura. Así una reconstrucción o ve el uso ya confirmado y sumado (lo recalcula desde cero) o no lo ve y
+ * la suma llega después; nunca lo lee confirmado y además recibe su suma. Mientras se reconstruye un mes, los
+ * fines de uso esperan antes de confirmar. Como {@link EquipmentOccupancyRegistry}, el candado es local a la
+ * instancia.</p>
+ */
+@Service
+@Slf4j
+public class UsageRollupService {
+
+    public enum Granularity { DAY, HOUR }
+
+    private final EquipmentUsageRollupRepository usageRollupRepo;
+    private final FunctionUsageRollupRepository functionRollupRepo;
+    private final TransactionTemplate newTransaction;
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+    @Value("${usage-rollup.rebuild-days:2}")
+    private int rebuildDays;
+
+    @Value("${usage-rollup.rebuild-max-days:93}")
+    private int rebuildMaxDays;
+
+    public UsageRollupService(EquipmentUsageRollupRepository usageRollupRepo,
+                              FunctionUsageRollupRepository functionRollupRepo,
+                              PlatformTransactionManager transactionManager) {
+        this.usageRollupRepo = usageRollupRepo;
+        this.functionRollupRepo = functionRollupRepo;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // Toma la lectura antes de confirmar el fin del uso y la suelta al terminar la transacción, ya sumado
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void holdRebuildsUntilAdded(EquipmentUseEndedEvent event) {
+        rebuildLock.readLock().lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                rebuildLock.readLock().unlock();
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEquipmentUseEnded(EquipmentUseEndedEvent event) {
+        // Sin transacción no pasó por holdRebuildsUntilAdded
+        rebuildLock.readLock().lock();
+        try {
+            newTransaction.executeWithoutResult(status -> addUse(event));
+        } catch (RuntimeException e) {
+            log.warn("Could not add equipment use {} to the usage rollups, it will be picked up by the next rebuild: {}",
+                    event.useId(), e.getMessage());
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    private void addUse(EquipmentUseEndedEvent event) {
+        LocalDate bucketDate = event.startUseTime().toLocalDate();
+        int bucketHour = event.startUseTime().getHour();
+        long minutes = ChronoUnit.MINUTES.between(
+                event.startUseTime().truncatedTo(ChronoUnit.SECONDS), event.endUseTime().truncatedTo(ChronoUnit.SECONDS));
+
+        usageRollupRepo.addSession(event.equipmentId(), event.laboratoryId(), bucketDate, bucketHour,
+                minutes, event.samplesNumber());
+        for (Long functionId : event.functionIds()) {
+            functionRollupRepo.addUse(event.equipmentId(), event.laboratoryId(), functionId, bucketDate, bucketHour);
+        }
+    }
+
+    // Reconstrucción nocturna de los últimos días, por si alguna actualización incremental falló
+    @Scheduled(cron = "${usage-rollup.rebuild-cron:0 30 2 * * *}", zone = "America/Bogota")
+    public void rebuildRecent() {
+        LocalDate today = ZonedDateTime.now(ZoneId.of("America/Bogota")).toLocalDate();
+        rebuild(today.minusDays(rebuildDays), today);
+    }
+
+    /**
+     * Reconstrucción pedida por HTTP: corre dentro de la petición, así que el rango se limita a
+     * {@code usage-rollup.rebuild-max-days}.
+     *
+     * @throws IllegalArgumentException si el rango no es válido o es más largo que el límite
+     */
+    public int rebuildRequested(LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        if (ChronoUnit.DAYS.between(from, to) >= rebuildMaxDays) {
+            throw new IllegalArgumentException("The date range cannot be longer than " + rebuildMaxDays + " days");
+        }
+        return rebuild(from, to);
+    }
+
+    /**
+     * Recalcula las franjas de los días {@code [from, to]} desde equipment_usage, mes a mes y cada mes en su
+     * propia transacción.
+     *
+     * @return cantidad de franjas de uso generadas
+     */
+    public int rebuild(LocalDate from, LocalDate to) {
+        validateRange(from, to);
+
+        int buckets = 0;
+        for (LocalDate start = from; !start.isAfter(to); start = start.plusMonths(1).withDayOfMonth(1)) {
+            LocalDate endExclusive = min(start.plusMonths(1).withDayOfMonth(1), to.plusDays(1));
+            LocalDate chunkStart = start;
+            Integer rebuilt;
+            rebuildLock.writeLock().lock();
+            try {
+                rebuilt = newTransaction.execute(status -> rebuildChunk(chunkStart, endExclusive));
+            } finally {
+                rebuildLock.writeLock().unlock();
+            }
+            buckets += rebuilt == null ? 0 : rebuilt;
+        }
+        log.info("Usage rollups rebuilt from {} to {}: {} buckets", from, to, buckets);
+        return buckets;
+    }
+
+    private int rebuildChunk(LocalDate from, LocalDate toExclusive) {
+        usageRollupRepo.deleteBuckets(from, toExclusive);
+        functionRollupRepo.deleteBuckets(from, toExclusive);
+
+        LocalDateTime fromTime = from.atStartOfDay();
+        LocalDateTime toTime = toExclusive.atStartOfDay();
+        functionRollupRepo.rebuildBuckets(fromTime, toTime);
+        return usageRollupRepo.rebuildBuckets(fromTime, toTime);
+    }
+
+    @Transactional(readOnly = true)
+    public List<UsageStatisticsDTO> getUsage(LocalDate from, LocalDate to, Long laboratoryId, Long equipmentId,
+                                             Granularity granularity) {
+        validateRange(from, to);
+        return granularity == Granularity.HOUR
+                ? usageRollupRepo.sumByHour(from, to, laboratoryId, equipmentId)
+                : usageRollupRepo.sumByDay(from, to, laboratoryId, equipmentId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<FunctionUsageStatisticsDTO> getFunctionUsage(LocalDate from, LocalDate to, Long laboratoryId, Long equipmentId) {
+        validateRange(from, to);
+        return functionRollupRepo.sumByFunction(from, to, laboratoryId, equipmentId);
+    }
+
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new IllegalArgumentException("The date range is not valid");
+        }
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
@@ -7,30 +7,42 @@ import com.edu.uptc.gelibackend.entities.ids.AuthorizedUserEquipmentsId;
 import com.edu.uptc.gelibackend.filters.UserFilterDTO;
 import com.edu.uptc.gelibackend.mappers.UserMapper;
 import com.edu.uptc.gelibackend.repositories.*;
+import com.edu.uptc.gelibackend.repositories.projections.UserLatestStatusChange;
 import com.edu.uptc.gelibackend.specifications.UserSpecification;
+import com.edu.uptc.gelibackend.utils.FilterPages;
 import com.edu.uptc.gelibackend.utils.KeyCloakUtils;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.keycloak.representations.idm.UserRepresentation;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.persistence.EntityManager;
 import jakarta.ws.rs.core.Response;
 
-import org.springframework.data.domain.Pageable;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
+@Timed("geli.service")
 public class UserService {
 
+    // Orden keyset de /filter: el id es único, así que basta como clave del cursor
+    private static final Sort KEYSET_SORT = Sort.by("id");
+    private static final Map<String, Class<?>> KEYSET_KEYS = Map.of("id", Long.class);
+
+    // Vida máxima en email_outbox del correo de bienvenida, que lleva la contraseña temporal
+    static final Duration WELCOME_EMAIL_VALIDITY = Duration.ofHours(24);
+
     private final PositionRepository positionRepo;      // ← inject this
     private final UserStatusHistoryRepository historyRepo;
     private final EquipmentRepository equipmentRepo;
@@ -40,11 +52,13 @@ public class UserService {
     private final UserSpecification userSpecification;
     private final UserPositionHistoryRepository positionHistoryRepo;
     private final AuthorizedUserEquipmentsRepo authorizedUserEquipmentsRepo;
-    private final JavaMailSender mailSender; // Para enviar correos
+    private final EmailOutboxService emailOutboxService; // Correos en la misma transacción, se envían después
+    private final EntityManager entityManager;
 
     public List<UserResponseDTO> findAll() {
         List<UserEntity> userEntities = userRepo.findAll(); // asegúrate que esté con @EntityGraph para traer position
-        List<UserStatusHistoryEntity> historyEntities = historyRepo.findAll();
+        Map<Long, LocalDate> latestStatusChanges = historyRepo.findLatestStatusChangePerUser().stream()
+                .collect(Collectors.toMap(UserLatestStatusChange::getUserId, UserLatestStatusChange::getModificationStatusDate));
 
         return userEntities.stream()
                 .map(entity -> {
@@ -59,16 +73,53 @@ public class UserService {
                     }
 
                     // Agregar modificación de estado
-                    historyEntities.stream()
-                            .filter(h -> h.getUser().getId().equals(dto.getId()))
-                            .max(Comparator.comparing(UserStatusHistoryEntity::getModificationStatusDate))
-                            .ifPresent(h -> dto.setModificationStatusDate(h.getModificationStatusDate()));
+                    LocalDate latestStatusChange = latestStatusChanges.get(dto.getId());
+                    if (latestStatusChange != null) {
+                        dto.setModificationStatusDate(latestStatusChange);
+                    }
 
                     return dto;
                 })
                 .toList();
     }
 
+    /**
+     * Recorre todos los usuarios con un cursor de solo avance y entrega cada {@link UserResponseDTO} al {@code sink}.
+     * Los usuarios se procesan por bloques: se consulta la última fecha de cambio de estado del bloque y luego
+     * se vacía el contexto de persistencia, de modo que la memoria usada no depende del número de usuarios.
+     */
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<UserResponseDTO> sink) {
+        List<UserEntity> chunk = new ArrayList<>(UserRepository.STREAM_FETCH_SIZE);
+        try (Stream<UserEntity> users = userRepo.streamAll()) {
+            users.forEach(user -> {
+                chunk.add(user);
+                if (chunk.size() == UserRepository.STREAM_FETCH_SIZE) {
+                    exportChunk(chunk, sink);
+                }
+            });
+        }
+        exportChunk(chunk, sink);
+    }
+
+    private void exportChunk(List<UserEntity> chunk, Consumer<UserResponseDTO> sink) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<Long> userIds = chunk.stream().map(UserEntity::getId).toList();
+        Map<Long, LocalDate> latestStatusChanges = historyRepo.findLatestStatusChangeByUserIds(userIds).stream()
+                .collect(Collectors.toMap(UserLatestStatusChange::getUserId, UserLatestStatusChange::getModificationStatusDate));
+
+        for (UserEntity entity : chunk) {
+            UserResponseDTO dto = mapper.completeDTOWithEntity(new UserResponseDTO(), entity);
+            dto.setModificationStatusDate(latestStatusChanges.get(entity.getId()));
+            sink.accept(dto);
+        }
+
+        chunk.clear();
+        entityManager.clear();
+    }
+
     @Transactional(readOnly = true)
     public Optional<UserResponseDTO> findById(Long id) {
         return userRepo.findById(id) // o findByIdWithPosition
@@ -222,21 +273,20 @@ public class UserService {
         }
     }
 
+    // Se encola en la transacción de createUser: si la creación se revierte, el correo no sale. Lleva la
+    // contraseña temporal, así que si no sale en WELCOME_EMAIL_VALIDITY se descarta (hay que restablecerla)
     private void sendWelcomeEmail(String toEmail, String password) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(toEmail);
-        message.setSubject("Bienvenido a GELI - Credenciales de acceso");
-
-        message.setText(
+        emailOutboxService.enqueue(
+                toEmail,
+                "Bienvenido a GELI - Credenciales de acceso",
                 "¡Bienvenido a GELI!\n\n"
                 + "Tu cuenta ha sido creada exitosamente.\n"
                 + "Tu contraseña temporal para ingresar es: " + password + "\n\n"
                 + "Por razones de seguridad, cambia tu contraseña en tu primer inicio de sesión.\n\n"
                 + "Saludos,\n"
-                + "Equipo GELI"
+                + "Equipo GELI",
+                WELCOME_EMAIL_VALIDITY
         );
-
-        mailSender.send(message);
     }
 
     private UserResponseDTO mergeEntityWithRepresentationInDTO(UserEntity userEntity, UserRepresentation keycloakUser) {
@@ -407,17 +457,30 @@ public class UserService {
 
     @Transactional(readOnly = true)
     public PageResponse<UserFilterResponseDTO> filter(UserFilterDTO filter, int page, int size) {
+        return filter(filter, page, size, null, true);
+    }
+
+    /**
+     * @param cursor    si no es null se pagina por keyset sobre el id desde ese cursor; "" es la primera página
+     * @param withCount en modo offset, false omite el COUNT(*) y los totales se devuelven como desconocidos
+     */
+    @Transactional(readOnly = true)
+    public PageResponse<UserFilterResponseDTO> filter(UserFilterDTO filter, int page, int size, String cursor, boolean withCount) {
         if (size <= 0) {
             throw new IllegalArgumentException("Page size must be greater than 0");
         }
 
         Specification<UserEntity> spec = userSpecification.build(filter);
-        Pageable pageable = PageRequest.of(page, size);
-        Page<UserEntity> pageResult = userRepo.findAll(spec, pageable);
+        PageResponse<UserEntity> pageResult = FilterPages.read(
+                userRepo, spec, page, size,
+                Sort.unsorted(), KEYSET_SORT, KEYSET_KEYS,
+                cursor, withCount
+        );
 
-        List<UserRepresentation> keycloakUsers = keyCloakUserService.getAllUsers();
-        Map<String, UserRepresentation> usersMap = keycloakUsers.stream()
-                .collect(Collectors.toMap(UserRepresentation::getId, u -> u));
+        List<String> keycloakIds = pageResult.getContent().stream()
+                .map(UserEntity::getKeycloakId)
+                .toList();
+        Map<String, UserRepresentation> usersMap = keyCloakUserService.getUsersByIds(keycloakIds);
 
         List<UserFilterResponseDTO> content = pageResult.getContent().stream()
                 .map(userEntity -> {
@@ -435,13 +498,7 @@ public class UserService {
                 })
                 .toList();
 
-        return new PageResponse<>(
-                pageResult.getNumber(),
-                pageResult.getSize(),
-                pageResult.getTotalElements(),
-                pageResult.getTotalPages(),
-                content
-        );
+        return pageResult.withContent(content);
     }
 
 
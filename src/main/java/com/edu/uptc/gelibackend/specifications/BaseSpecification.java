@@ -1,8 +1,14 @@
 package com.edu.uptc.gelibackend.specifications;
 
 import com.edu.uptc.gelibackend.filters.BaseFilterDTO;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.util.function.BiFunction;
+
 public abstract class BaseSpecification<T, F extends BaseFilterDTO> {
 
     public Specification<T> build(F filter) {
@@ -13,4 +19,24 @@ public abstract class BaseSpecification<T, F extends BaseFilterDTO> {
 
     // Método abstracto que cada clase hija debe implementar para aplicar filtros
     protected abstract Specification<T> addFilters(Specification<T> spec, F filter);
+
+    /**
+     * Filtro por una colección hija como {@code EXISTS (SELECT 1 FROM type s WHERE s.owner = root AND condición)}.
+     *
+     * <p>A diferencia de un join sobre la colección no multiplica las filas de la raíz, así que la página no
+     * trae duplicados y el COUNT(*) que Spring deriva de la misma especificación sigue siendo un conteo simple
+     * sobre la tabla raíz, sin joins ni DISTINCT.</p>
+     *
+     * @param ownerAttribute atributo de {@code type} que referencia a la entidad raíz
+     */
+    protected static <T, S> Specification<T> exists(Class<S> type, String ownerAttribute,
+                                                    BiFunction<Root<S>, CriteriaBuilder, Predicate> condition) {
+        return (root, query, cb) -> {
+            Subquery<Integer> sq = query.subquery(Integer.class);
+            Root<S> child = sq.from(type);
+            sq.select(cb.literal(1))
+                    .where(cb.equal(child.get(ownerAttribute), root), condition.apply(child, cb));
+            return cb.exists(sq);
+        };
+    }
 }
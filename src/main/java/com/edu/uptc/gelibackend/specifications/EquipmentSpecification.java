@@ -1,13 +1,11 @@
 package com.edu.uptc.gelibackend.specifications;
 
 import com.edu.uptc.gelibackend.entities.EquipmentEntity;
+import com.edu.uptc.gelibackend.entities.EquipmentFunctionsEntity;
 import com.edu.uptc.gelibackend.filters.EquipmentFilterDTO;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 
-import jakarta.persistence.criteria.Join;
-import jakarta.persistence.criteria.JoinType;
-
 @Component
 public class EquipmentSpecification extends BaseSpecification<EquipmentEntity, EquipmentFilterDTO> {
 
@@ -42,10 +40,8 @@ public class EquipmentSpecification extends BaseSpecification<EquipmentEntity, E
 
         // Función (verifica si alguna de las funciones del equipo coincide)
         if (filter.getFunctionId() != null) {
-            spec = spec.and((root, query, cb) -> {
-                Join<?, ?> join = root.join("equipmentFunctions", JoinType.INNER);
-                return cb.equal(join.get("function").get("id"), filter.getFunctionId());
-            });
+            spec = spec.and(exists(EquipmentFunctionsEntity.class, "equipment", (equipmentFunction, cb)
+                    -> cb.equal(equipmentFunction.get("id").get("functionId"), filter.getFunctionId())));
         }
 
         return spec;
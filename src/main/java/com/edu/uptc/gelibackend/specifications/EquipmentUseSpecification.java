@@ -1,12 +1,13 @@
 package com.edu.uptc.gelibackend.specifications;
 
+import com.edu.uptc.gelibackend.entities.EquipmentFunctionsUsedEntity;
 import com.edu.uptc.gelibackend.entities.EquipmentUseEntity;
 import com.edu.uptc.gelibackend.filters.BaseFilterDTO;
 import com.edu.uptc.gelibackend.filters.EquipmentUseFilterDTO;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Component
 public class EquipmentUseSpecification extends BaseSpecification<EquipmentUseEntity, BaseFilterDTO> {
@@ -54,50 +55,36 @@ public class EquipmentUseSpecification extends BaseSpecification<EquipmentUseEnt
                     )
             );
         }
-        // Filtro por fecha (sin hora)
+        // Filtro por fecha (sin hora): rango semiabierto [desde 00:00, hasta + 1 día 00:00) sobre eu_start_date
         if (equipmentUseFilter.getUseDateFrom() != null) {
-            String dateFrom = equipmentUseFilter.getUseDateFrom().toString(); // "2025-06-25"
+            LocalDateTime from = equipmentUseFilter.getUseDateFrom().atStartOfDay();
             spec = spec.and((root, query, cb) ->
-                    cb.greaterThanOrEqualTo(
-                            cb.function("TO_CHAR", String.class, root.get("startUseTime"), cb.literal("YYYY-MM-DD")),
-                            dateFrom
-                    )
+                    cb.greaterThanOrEqualTo(root.get("startUseTime"), from)
             );
         }
 
         if (equipmentUseFilter.getUseDateTo() != null) {
-            String dateTo = equipmentUseFilter.getUseDateTo().toString(); // "2025-06-27"
+            LocalDateTime toExclusive = equipmentUseFilter.getUseDateTo().plusDays(1).atStartOfDay();
             spec = spec.and((root, query, cb) ->
-                    cb.lessThanOrEqualTo(
-                            cb.function("TO_CHAR", String.class, root.get("startUseTime"), cb.literal("YYYY-MM-DD")),
-                            dateTo
-                    )
+                    cb.lessThan(root.get("startUseTime"), toExclusive)
             );
         }
 
-
-// Filtro por hora (sin fecha)
+        // Filtro por hora (sin fecha) sobre la columna indexada eu_start_minute_of_day
         if (equipmentUseFilter.getStartTimeFrom() != null) {
-            String timeFrom = equipmentUseFilter.getStartTimeFrom().toString(); // "08:00"
+            int minuteFrom = EquipmentUseEntity.minuteOfDay(equipmentUseFilter.getStartTimeFrom()); // 08:00 -> 480
             spec = spec.and((root, query, cb) ->
-                    cb.greaterThanOrEqualTo(
-                            cb.function("TO_CHAR", String.class, root.get("startUseTime"), cb.literal("HH24:MI")),
-                            timeFrom
-                    )
+                    cb.greaterThanOrEqualTo(root.get("startMinuteOfDay"), minuteFrom)
             );
         }
 
         if (equipmentUseFilter.getEndTimeTo() != null) {
-            String timeTo = equipmentUseFilter.getEndTimeTo().toString(); // "18:00"
+            int minuteTo = EquipmentUseEntity.minuteOfDay(equipmentUseFilter.getEndTimeTo()); // 18:00 -> 1080
             spec = spec.and((root, query, cb) ->
-                    cb.lessThanOrEqualTo(
-                            cb.function("TO_CHAR", String.class, root.get("startUseTime"), cb.literal("HH24:MI")),
-                            timeTo
-                    )
+                    cb.lessThanOrEqualTo(root.get("startMinuteOfDay"), minuteTo)
             );
         }
 
-
         if (equipmentUseFilter.getEquipmentId() != null) {
             spec = spec.and((root, query, cb) ->
                     cb.equal(root.get("equipment").get("id"), equipmentUseFilter.getEquipmentId()));
@@ -111,10 +98,9 @@ public class EquipmentUseSpecification extends BaseSpecification<EquipmentUseEnt
                     cb.equal(root.join("equipment").get("laboratory").get("id"), equipmentUseFilter.getLaboratoryId()));
         }
         if (equipmentUseFilter.getUsedFunctionsIds() != null && !equipmentUseFilter.getUsedFunctionsIds().isEmpty()) {
-            spec = spec.and((root, query, cb) -> {
-                var usedFunctions = root.join("equipmentFunctionsUsedList").join("function");
-                return usedFunctions.get("id").in(equipmentUseFilter.getUsedFunctionsIds());
-            });
+            // Al menos una de las funciones usadas está en la lista, sin repetir el uso por cada coincidencia
+            spec = spec.and(exists(EquipmentFunctionsUsedEntity.class, "equipment", (usedFunction, cb)
+                    -> usedFunction.get("id").get("functionId").in(equipmentUseFilter.getUsedFunctionsIds())));
         }
 
         if (equipmentUseFilter.getEquipmentName() != null && !equipmentUseFilter.getEquipmentName().isBlank()) {
@@ -1,7 +1,11 @@
 package com.edu.uptc.gelibackend.specifications;
 
+import com.edu.uptc.gelibackend.entities.EquipmentEntity;
 import com.edu.uptc.gelibackend.entities.LaboratoryEntity;
 import com.edu.uptc.gelibackend.filters.LaboratoryFilterDTO;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 
@@ -36,13 +40,25 @@ public class LaboratorySpecification extends BaseSpecification<LaboratoryEntity,
                     cb.like(cb.lower(root.get("laboratoryObservations")), "%" + filter.getLaboratoryObservations().toLowerCase() + "%"));
         }
 
-        if (filter.getEquipmentCountFrom() != null) {
-            spec = spec.and((root, query, cb) ->
-                    cb.greaterThanOrEqualTo(cb.size(root.join("equipmentList")), filter.getEquipmentCountFrom()));
-        }
-        if (filter.getEquipmentCountTo() != null) {
-            spec = spec.and((root, query, cb) ->
-                    cb.lessThanOrEqualTo(cb.size(root.join("equipmentList")), filter.getEquipmentCountTo()));
+        // Cantidad de equipos mediante un COUNT correlacionado, sin join sobre equipmentList
+        if (filter.getEquipmentCountFrom() != null || filter.getEquipmentCountTo() != null) {
+            spec = spec.and((root, query, cb) -> {
+                Subquery<Long> sq = query.subquery(Long.class);
+                Root<EquipmentEntity> equipment = sq.from(EquipmentEntity.class);
+                sq.select(cb.count(equipment));
+                sq.where(cb.equal(equipment.get("laboratory"), root));
+
+                Predicate countPred = cb.conjunction();
+                if (filter.getEquipmentCountFrom() != null) {
+                    countPred = cb.and(countPred,
+                            cb.greaterThanOrEqualTo(sq, filter.getEquipmentCountFrom().longValue()));
+                }
+                if (filter.getEquipmentCountTo() != null) {
+                    countPred = cb.and(countPred,
+                            cb.lessThanOrEqualTo(sq, filter.getEquipmentCountTo().longValue()));
+                }
+                return countPred;
+            });
         }
         return spec;
     }
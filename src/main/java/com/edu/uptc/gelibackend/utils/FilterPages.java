@@ -0,0 +1,67 @@
+package com.edu.uptc.gelibackend.utils;
+
+import com.edu.uptc.gelibackend.dtos.PageResponse;
+import org.springframework.data.domain.*;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+import java.util.Map;
+
+/**
+ * Lectura de páginas para los endpoints /filter en sus tres modos:
+ * <ul>
+ *     <li>offset con conteo (el comportamiento original): {@code findAll(spec, pageable)} más COUNT(*);</li>
+ *     <li>offset sin conteo ({@code withCount=false}): la misma página sin el COUNT(*);</li>
+ *     <li>keyset (se envía {@code cursor}): {@code WHERE (claves) > (última fila)} sobre el orden indicado,
+ *     sin OFFSET ni COUNT(*), por lo que una página profunda cuesta lo mismo que la primera.</li>
+ * </ul>
+ * El orden keyset debe terminar en una columna única (el id) para que el cursor sea estable.
+ */
+public final class FilterPages {
+
+    private FilterPages() {
+    }
+
+    public static <E> PageResponse<E> read(
+            JpaSpecificationExecutor<E> repo,
+            Specification<E> spec,
+            int page,
+            int size,
+            Sort offsetSort,
+            Sort keysetSort,
+            Map<String, Class<?>> keyTypes,
+            String cursor,
+            boolean withCount
+    ) {
+        if (cursor != null) {
+            KeysetScrollPosition position = KeysetCursor.decode(cursor, keyTypes);
+            Window<E> window = repo.findBy(spec, q -> q.sortBy(keysetSort).limit(size).scroll(position));
+            String nextCursor = window.hasNext() && !window.isEmpty()
+                    ? KeysetCursor.encode(window.positionAt(window.size() - 1))
+                    : null;
+            return new PageResponse<>(PageResponse.UNKNOWN, size, PageResponse.UNKNOWN, PageResponse.UNKNOWN,
+                    window.getContent(), window.hasNext(), nextCursor);
+        }
+
+        if (page < 0) {
+            throw new IllegalArgumentException("Page index must not be less than zero");
+        }
+
+        if (!withCount) {
+            // OffsetScrollPosition.of(n) empieza después de la fila n, por eso el -1
+            ScrollPosition position = page == 0 ? ScrollPosition.offset() : ScrollPosition.offset((long) page * size - 1);
+            Window<E> window = repo.findBy(spec, q -> q.sortBy(offsetSort).limit(size).scroll(position));
+            return new PageResponse<>(page, size, PageResponse.UNKNOWN, PageResponse.UNKNOWN,
+                    window.getContent(), window.hasNext(), null);
+        }
+
+        Page<E> pageResult = repo.findAll(spec, PageRequest.of(page, size, offsetSort));
+        return new PageResponse<>(
+                pageResult.getNumber(),
+                pageResult.getSize(),
+                pageResult.getTotalElements(),
+                pageResult.getTotalPages(),
+                pageResult.getContent()
+        );
+    }
+}
@@ -1,6 +1,9 @@
 package com.edu.uptc.gelibackend.utils;
 
+import com.edu.uptc.gelibackend.config.KeycloakRequestMetrics;
 import lombok.RequiredArgsConstructor;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.jboss.resteasy.client.jaxrs.engines.ManualClosingApacheHttpClient43Engine;
 import org.jboss.resteasy.client.jaxrs.internal.ResteasyClientBuilderImpl;
 import org.keycloak.OAuth2Constants;
 import org.keycloak.admin.client.Keycloak;
@@ -20,9 +23,13 @@ public class KeyCloakAdminConfig {
     @Value("${keycloak.realm.client}")
     private String CLIENT_ID;
     private final String CLIENT_SECRET = System.getenv("CLIENT_SECRET");
+    private final KeycloakRequestMetrics keycloakRequestMetrics;
 
+    // RESTEasy 6.2 marca para eliminación todos sus motores sobre Apache HttpClient 4; éste es la
+    // implementación (ApacheHttpClient43Engine sólo la extiende) y el único modo de compartir keycloakHttpClient
     @Bean
-    public Keycloak KeyCloakAdminClient() {
+    @SuppressWarnings("removal")
+    public Keycloak KeyCloakAdminClient(CloseableHttpClient keycloakHttpClient) {
         return KeycloakBuilder.builder()
                 .serverUrl(SERVER_URL)
                 .realm(REALM)
@@ -30,8 +37,11 @@ public class KeyCloakAdminConfig {
                 .clientId(CLIENT_ID)
                 .clientSecret(CLIENT_SECRET)
                 .resteasyClient(new ResteasyClientBuilderImpl()
-                        .connectionPoolSize(10)
+                        // Pool compartido con el RestTemplate; el bean keycloakHttpClient se cierra con el contexto
+                        .httpEngine(new ManualClosingApacheHttpClient43Engine(keycloakHttpClient, false))
+                        .register(keycloakRequestMetrics.adminClientFilter())
                         .build())
                 .build();
     }
-}
\ No newline at end of file
+
+}
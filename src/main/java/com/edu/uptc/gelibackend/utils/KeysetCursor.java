@@ -0,0 +1,95 @@
+package com.edu.uptc.gelibackend.utils;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Codifica la posición de una página keyset (los valores de las columnas de orden de la última fila)
+ * como un token opaco para el cliente, y lo decodifica de vuelta con los tipos esperados.
+ */
+public final class KeysetCursor {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private KeysetCursor() {
+    }
+
+    public static String encode(ScrollPosition position) {
+        if (!(position instanceof KeysetScrollPosition keyset)) {
+            throw new IllegalArgumentException("Only keyset positions can be encoded as a cursor");
+        }
+        StringBuilder raw = new StringBuilder();
+        keyset.getKeys().forEach((key, value) -> {
+            if (!raw.isEmpty()) {
+                raw.append('&');
+            }
+            raw.append(key).append('=').append(URLEncoder.encode(String.valueOf(value), StandardCharsets.UTF_8));
+        });
+        return ENCODER.encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor. Un cursor vacío es la primera página.
+     *
+     * @param keyTypes columnas de orden, en orden, con el tipo de su valor
+     */
+    public static KeysetScrollPosition decode(String cursor, Map<String, Class<?>> keyTypes) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+
+        Map<String, Object> keys = new LinkedHashMap<>();
+        try {
+            String raw = new String(DECODER.decode(cursor), StandardCharsets.UTF_8);
+            for (String pair : raw.split("&")) {
+                int separator = pair.indexOf('=');
+                String key = pair.substring(0, separator);
+                Class<?> type = keyTypes.get(key);
+                if (type == null) {
+                    throw new IllegalArgumentException("Unexpected cursor key: " + key);
+                }
+                keys.put(key, parse(URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8), type));
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+
+        if (!keys.keySet().equals(keyTypes.keySet())) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    private static Object parse(String value, Class<?> type) {
+        if (type == Long.class) {
+            return Long.valueOf(value);
+        }
+        if (type == Integer.class) {
+            return Integer.valueOf(value);
+        }
+        if (type == LocalDateTime.class) {
+            return LocalDateTime.parse(value);
+        }
+        if (type == LocalDate.class) {
+            return LocalDate.parse(value);
+        }
+        if (type == LocalTime.class) {
+            return LocalTime.parse(value);
+        }
+        if (type == String.class) {
+            return value;
+        }
+        throw new IllegalArgumentException("Unsupported cursor key type: " + type.getSimpleName());
+    }
+}
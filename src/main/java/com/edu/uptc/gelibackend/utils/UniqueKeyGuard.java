@@ -0,0 +1,24 @@
+package com.edu.uptc.gelibackend.utils;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+public class UniqueKeyGuard {
+
+    /**
+     * Indica si la excepción fue causada por la violación del índice único {@code constraintName}.
+     * Oracle reporta el nombre con el esquema como prefijo (ESQUEMA.NOMBRE), por eso sólo se compara el sufijo.
+     */
+    public static boolean isViolationOf(DataIntegrityViolationException exception, String constraintName) {
+        Throwable cause = exception;
+        while (cause != null) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                String violated = violation.getConstraintName();
+                violated = violated.substring(violated.lastIndexOf('.') + 1);
+                return violated.equalsIgnoreCase(constraintName);
+            }
+            cause = cause.getCause();
+        }
+        return false;
+    }
+}
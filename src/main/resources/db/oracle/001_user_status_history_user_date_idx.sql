@@ -0,0 +1,4 @@
+-- Índice para "último cambio de estado por usuario" (UserStatusHistoryRepository.findLatestStatusChange*).
+-- Cubre el GROUP BY / MAX y la subconsulta correlacionada de UserSpecification sin leer la tabla.
+-- El esquema se valida con ddl-auto=validate, por lo que este script se aplica manualmente.
+CREATE INDEX ush_user_modified_idx ON user_status_history (ush_user_id, ush_modified_at);
@@ -0,0 +1,7 @@
+-- Índices basados en función para las validaciones de unicidad sin distinción de mayúsculas.
+-- Las consultas existsBy...IgnoreCase comparan UPPER(columna) = UPPER(:valor), por lo que cada
+-- validación es una sola búsqueda en el índice. Los índices únicos además rechazan los duplicados
+-- que se cuelen entre la validación y el INSERT (ver UniqueKeyGuard).
+CREATE UNIQUE INDEX equipments_inventory_number_uk ON equipments (UPPER(equipment_inventory_number));
+CREATE INDEX equipments_name_upper_idx ON equipments (UPPER(equipment_name));
+CREATE UNIQUE INDEX laboratories_name_uk ON laboratories (UPPER(laboratory_name));
@@ -0,0 +1,3 @@
+-- Índice para la paginación keyset de /equipment-use/filter (ORDER BY eu_start_date DESC, equipment_usage_id DESC).
+-- Con él cada página es un rango del índice a partir del cursor, sin OFFSET, sin importar lo profunda que sea.
+CREATE INDEX eu_start_date_id_idx ON equipment_usage (eu_start_date DESC, equipment_usage_id DESC);
@@ -0,0 +1,14 @@
+-- Minuto del día de eu_start_date para los filtros por hora de EquipmentUseSpecification.
+-- La aplicación lo mantiene al insertar/actualizar (EquipmentUseEntity.syncStartMinuteOfDay); aquí se
+-- agrega la columna, se rellena para las filas existentes y se indexa.
+-- Debe aplicarse antes de desplegar: el esquema se valida con ddl-auto=validate.
+ALTER TABLE equipment_usage ADD (eu_start_minute_of_day NUMBER(4));
+
+UPDATE equipment_usage
+SET eu_start_minute_of_day = EXTRACT(HOUR FROM CAST(eu_start_date AS TIMESTAMP)) * 60
+                           + EXTRACT(MINUTE FROM CAST(eu_start_date AS TIMESTAMP));
+COMMIT;
+
+ALTER TABLE equipment_usage MODIFY (eu_start_minute_of_day NOT NULL);
+
+CREATE INDEX eu_start_minute_idx ON equipment_usage (eu_start_minute_of_day);
@@ -0,0 +1,5 @@
+-- Oracle no indexa las llaves foráneas automáticamente. El filtro equipmentCountFrom/To de
+-- LaboratorySpecification cuenta los equipos de cada laboratorio con un COUNT correlacionado por
+-- equipment_laboratory_id; con este índice cada conteo se resuelve en el índice.
+-- Los EXISTS sobre equipment_functions y equipment_function_usage ya usan sus llaves primarias compuestas.
+CREATE INDEX equipments_laboratory_idx ON equipments (equipment_laboratory_id);
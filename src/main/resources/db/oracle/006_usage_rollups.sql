@@ -0,0 +1,28 @@
+-- Agregados de uso por equipo / función, día y hora de inicio (UsageRollupService).
+-- Después de crearlas, cargar el histórico con POST /api/v1/statistics/rollups/rebuild?from=...&to=...
+CREATE TABLE equipment_usage_rollup (
+    equipment_usage_rollup_id NUMBER(19) GENERATED BY DEFAULT ON NULL AS IDENTITY PRIMARY KEY,
+    eur_equipment_id          NUMBER(19) NOT NULL,
+    eur_laboratory_id         NUMBER(19) NOT NULL,
+    eur_bucket_date           DATE       NOT NULL,
+    eur_bucket_hour           NUMBER(10) NOT NULL,
+    eur_session_count         NUMBER(19) NOT NULL,
+    eur_total_minutes         NUMBER(19) NOT NULL,
+    eur_total_samples         NUMBER(19) NOT NULL,
+    CONSTRAINT eur_equipment_bucket_uk UNIQUE (eur_equipment_id, eur_bucket_date, eur_bucket_hour)
+);
+
+CREATE INDEX eur_laboratory_bucket_idx ON equipment_usage_rollup (eur_laboratory_id, eur_bucket_date);
+
+CREATE TABLE function_usage_rollup (
+    function_usage_rollup_id NUMBER(19) GENERATED BY DEFAULT ON NULL AS IDENTITY PRIMARY KEY,
+    fur_equipment_id         NUMBER(19) NOT NULL,
+    fur_laboratory_id        NUMBER(19) NOT NULL,
+    fur_function_id          NUMBER(19) NOT NULL,
+    fur_bucket_date          DATE       NOT NULL,
+    fur_bucket_hour          NUMBER(10) NOT NULL,
+    fur_use_count            NUMBER(19) NOT NULL,
+    CONSTRAINT fur_equipment_function_bucket_uk UNIQUE (fur_equipment_id, fur_function_id, fur_bucket_date, fur_bucket_hour)
+);
+
+CREATE INDEX fur_laboratory_bucket_idx ON function_usage_rollup (fur_laboratory_id, fur_bucket_date);
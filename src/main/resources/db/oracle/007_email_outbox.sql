@@ -0,0 +1,18 @@
+-- Bandeja de salida de correo (EmailOutboxService / EmailOutboxDispatcher). Los correos enviados se borran,
+-- sólo quedan filas PENDING (por enviar o reintentar) y FAILED (agotaron los reintentos). Las FAILED se guardan
+-- sin eo_body (puede llevar contraseñas temporales o códigos): sólo destinatario, asunto y error.
+CREATE TABLE email_outbox (
+    email_outbox_id    NUMBER(19) GENERATED BY DEFAULT ON NULL AS IDENTITY PRIMARY KEY,
+    eo_recipient       VARCHAR2(320 CHAR)  NOT NULL,
+    eo_subject         VARCHAR2(255 CHAR)  NOT NULL,
+    eo_body            VARCHAR2(4000 CHAR),
+    eo_status          VARCHAR2(20 CHAR)   NOT NULL,
+    eo_attempts        NUMBER(10)          NOT NULL,
+    eo_next_attempt_at TIMESTAMP(6)        NOT NULL,
+    eo_created_at      TIMESTAMP(6)        NOT NULL,
+    eo_expires_at      TIMESTAMP(6),
+    eo_last_error      VARCHAR2(1000 CHAR),
+    CONSTRAINT eo_status_ck CHECK (eo_status IN ('PENDING', 'FAILED'))
+);
+
+CREATE INDEX eo_status_next_attempt_idx ON email_outbox (eo_status, eo_next_attempt_at);
@@ -0,0 +1,20 @@
+-- Índices de password_recovery_codes (RecoveryCodeService): búsqueda por usuario y por token temporal, y
+-- borrado por lotes de las filas vencidas.
+-- Antes de crear los únicos: quitar las filas vencidas (nunca se borraban) y, si quedara más de un código
+-- vigente por usuario, dejar sólo el más reciente.
+DELETE FROM password_recovery_codes
+WHERE prc_expires_at < CAST(SYSTIMESTAMP AT TIME ZONE 'America/Bogota' AS TIMESTAMP)
+   OR prc_expires_at IS NULL;
+
+DELETE FROM password_recovery_codes p
+WHERE EXISTS (
+    SELECT 1 FROM password_recovery_codes newer
+    WHERE newer.prc_username = p.prc_username
+      AND newer.password_recovery_code_id > p.password_recovery_code_id
+);
+
+COMMIT;
+
+CREATE UNIQUE INDEX prc_username_uk ON password_recovery_codes (prc_username);
+CREATE UNIQUE INDEX prc_temp_token_uk ON password_recovery_codes (prc_temp_token);
+CREATE INDEX prc_expires_at_idx ON password_recovery_codes (prc_expires_at);
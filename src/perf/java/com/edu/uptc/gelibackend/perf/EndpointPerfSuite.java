@@ -0,0 +1,192 @@
+package com.edu.uptc.gelibackend.perf;
+
+import com.edu.uptc.gelibackend.datagen.SyntheticDataGenerator;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Suite de rendimiento de los endpoints de lectura principales: contexto completo de Spring sobre H2 en modo
+ * Oracle con datos de {@link SyntheticDataGenerator} y Keycloak simulado en proceso ({@link KeycloakStub}).
+ *
+ * <p>Por endpoint reporta p50/p95/p99, throughput y sentencias SQL y llamadas a Keycloak por petición, en
+ * consola y en target/perf/endpoint-perf.csv, y falla si algún endpoint responde con error o si una petición
+ * supera el presupuesto de sentencias SQL de su escenario. Sólo se ejecuta con el perfil de Maven {@code perf}:</p>
+ * <pre>
+ * mvn -Pperf test
+ * mvn -Pperf test -Dperf.clients=16 -Dperf.requests=500 -Dperf.uses=200000
+ * </pre>
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("perf")
+class EndpointPerfSuite {
+
+    private static final SyntheticDataGenerator.Volumes VOLUMES = new SyntheticDataGenerator.Volumes(
+            Integer.getInteger("perf.laboratories", 20),
+            Integer.getInteger("perf.equipments", 500),
+            Integer.getInteger("perf.users", 2_000),
+            Long.getLong("perf.uses", 50_000L),
+            40, 20, 10, 4, 5, 5, 100, 2, 3.0, 1_000, 2, 42);
+    private static final int CLIENTS = Integer.getInteger("perf.clients", 8);
+    private static final int REQUESTS_PER_CLIENT = Integer.getInteger("perf.requests", 100);
+    private static final int WARMUP_PER_CLIENT = Integer.getInteger("perf.warmup", 25);
+
+    private static final List<String> READ_AUTHORITIES =
+            List.of("EQUIPMENT_READ", "EQUIPMENT_USE_READ", "LABORATORY_READ", "USER_READ");
+
+    private static final KeycloakStub KEYCLOAK = startKeycloak();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @DynamicPropertySource
+    static void keycloakProperties(DynamicPropertyRegistry registry) {
+        registry.add("KEYCLOAK_URL", KEYCLOAK::getBaseUrl);
+    }
+
+    @AfterAll
+    static void stopKeycloak() throws IOException {
+        KEYCLOAK.close();
+    }
+
+    @Test
+    void readEndpoints() throws Exception {
+        new SyntheticDataGenerator(jdbc, VOLUMES).generate();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        LoadRunner runner = new LoadRunner(CLIENTS);
+
+        String adminToken = KEYCLOAK.issueAccessToken(1,
+                List.of(SyntheticDataGenerator.ADMIN_ROLE, SyntheticDataGenerator.AUTHORIZED_ROLE), READ_AUTHORITIES);
+        // Un token por usuario autorizado para el endpoint que resuelve al usuario desde el JWT
+        List<String> userTokens = new ArrayList<>();
+        for (long user = 2; user <= Math.min(51, VOLUMES.users()); user++) {
+            userTokens.add(KEYCLOAK.issueAccessToken(user, List.of(SyntheticDataGenerator.AUTHORIZED_ROLE), READ_AUTHORITIES));
+        }
+        LocalDate today = LocalDate.now();
+
+        List<Scenario> scenarios = List.of(
+                new Scenario("GET /api/v1/equipments", 40, i ->
+                        get("/api/v1/equipments?page=" + (i % 5) + "&size=50", adminToken)),
+                new Scenario("POST /api/v1/equipments/filter", 5, i ->
+                        post("/api/v1/equipments/filter?page=0&size=10",
+                                "{\"laboratoryId\":" + laboratory(i) + ",\"availability\":true}", adminToken)),
+                new Scenario("POST /api/v1/equipment-use/filter", 5, i ->
+                        post("/api/v1/equipment-use/filter?page=0&size=10",
+                                "{\"laboratoryId\":" + laboratory(i)
+                                        + ",\"useDateFrom\":\"" + today.minusDays(90) + "\""
+                                        + ",\"useDateTo\":\"" + today + "\"}", adminToken)),
+                new Scenario("GET /api/v1/laboratories/authorized/by-user", 10, i ->
+                        get("/api/v1/laboratories/authorized/by-user", userTokens.get(i % userTokens.size()))),
+                new Scenario("POST /api/v1/users/filter", 5, i ->
+                        post("/api/v1/users/filter?page=" + (i % 20) + "&size=10", "{}", adminToken)),
+                // Sólo el grant password contra Keycloak: mide el cliente HTTP hacia Keycloak bajo concurrencia
+                new Scenario("POST /api/auth/login", 0, i ->
+                        post("/api/auth/login", "{\"username\":\"user" + (2 + i % 50) + "\",\"password\":\"secret\"}", null))
+        );
+
+        List<LoadRunner.Result> results = new ArrayList<>();
+        for (Scenario scenario : scenarios) {
+            runner.run(scenario.name(), WARMUP_PER_CLIENT, scenario.request(),
+                    statistics::getPrepareStatementCount, KEYCLOAK::getAdminCalls);
+            results.add(runner.run(scenario.name(), REQUESTS_PER_CLIENT, scenario.request(),
+                    statistics::getPrepareStatementCount, KEYCLOAK::getAdminCalls));
+        }
+
+        report(results);
+        for (int i = 0; i < scenarios.size(); i++) {
+            LoadRunner.Result result = results.get(i);
+            assertEquals(0, result.errors(), result.endpoint() + " answered with errors");
+            assertTrue(result.maxStatements() <= scenarios.get(i).statementBudget(), result.endpoint()
+                    + " ran " + result.maxStatements() + " SQL statements in one request, budget is "
+                    + scenarios.get(i).statementBudget());
+        }
+    }
+
+    /**
+     * @param statementBudget máximo de sentencias SQL por petición, para detectar regresiones N+1
+     */
+    private record Scenario(String name, long statementBudget, IntFunction<HttpRequest> request) {
+    }
+
+    private long laboratory(int i) {
+        return 1 + i % VOLUMES.laboratories();
+    }
+
+    private HttpRequest get(String path, String token) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String path, String body, String token) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return request.build();
+    }
+
+    private static KeycloakStub startKeycloak() {
+        KeycloakStub stub = new KeycloakStub(VOLUMES.users());
+        try {
+            stub.start();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start the Keycloak stub", e);
+        }
+        return stub;
+    }
+
+    private static void report(List<LoadRunner.Result> results) throws IOException {
+        StringBuilder table = new StringBuilder(String.format("%n%-46s %8s %6s %9s %9s %9s %9s %9s %8s %8s %8s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms", "sql/req", "sql max", "kc/req"));
+        StringBuilder csv = new StringBuilder("endpoint,requests,errors,throughput,p50_ms,p95_ms,p99_ms,max_ms,"
+                + "statements_per_request,max_statements,keycloak_calls_per_request\n");
+        for (LoadRunner.Result r : results) {
+            table.append(String.format("%-46s %8d %6d %9.1f %9.2f %9.2f %9.2f %9.2f %8.2f %8d %8.2f%n",
+                    r.endpoint(), r.requests(), r.errors(), r.throughput(), r.p50Ms(), r.p95Ms(), r.p99Ms(),
+                    r.maxMs(), r.statementsPerRequest(), r.maxStatements(), r.keycloakCallsPerRequest()));
+            csv.append(String.format(Locale.ROOT, "%s,%d,%d,%.1f,%.2f,%.2f,%.2f,%.2f,%.2f,%d,%.2f%n",
+                    r.endpoint(), r.requests(), r.errors(), r.throughput(), r.p50Ms(), r.p95Ms(), r.p99Ms(),
+                    r.maxMs(), r.statementsPerRequest(), r.maxStatements(), r.keycloakCallsPerRequest()));
+        }
+        table.append(String.format("%d clients, %s%n", CLIENTS, VOLUMES));
+        System.out.println(table);
+
+        Path output = Path.of("target", "perf", "endpoint-perf.csv");
+        Files.createDirectories(output.getParent());
+        Files.writeString(output, csv);
+    }
+}
@@ -0,0 +1,217 @@
+package com.edu.uptc.gelibackend.perf;
+
+import com.edu.uptc.gelibackend.datagen.SyntheticDataGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keycloak simulado en proceso: token del cliente admin, JWKS para validar los JWT de las peticiones
+ * y los endpoints de administración que usan {@link com.edu.uptc.gelibackend.services.KeyCloakUserCache}
+ * y {@link com.edu.uptc.gelibackend.services.KeyCloakUserService} (usuarios, roles de realm y miembros de rol).
+ *
+ * <p>Los usuarios no se guardan: el usuario {@code i} (1..userCount) se genera bajo demanda con el mismo
+ * keycloakId, correo, rol y estado que {@link SyntheticDataGenerator} inserta en la base de datos.</p>
+ */
+public class KeycloakStub implements AutoCloseable {
+
+    public static final String REALM = "geli-dev";
+    public static final String CLIENT_ID = "geli-backend";
+
+    private static final String ADMIN_PREFIX = "/admin/realms/" + REALM;
+    private static final String OIDC_PREFIX = "/realms/" + REALM + "/protocol/openid-connect";
+
+    private final MockWebServer server = new MockWebServer();
+    private final ObjectMapper json = new ObjectMapper();
+    private final RSAKey signingKey;
+    private final int userCount;
+    private final AtomicLong adminCalls = new AtomicLong();
+
+    public KeycloakStub(int userCount) {
+        this.userCount = userCount;
+        try {
+            this.signingKey = new RSAKeyGenerator(2048).keyID("perf-key").generate();
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Could not generate the stub signing key", e);
+        }
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return handle(request);
+            }
+        });
+    }
+
+    public void start() throws IOException {
+        server.start();
+    }
+
+    public String getBaseUrl() {
+        String url = server.url("/").toString();
+        return url.substring(0, url.length() - 1);
+    }
+
+    /**
+     * Peticiones a la API de administración (todo menos token y JWKS) desde que arrancó el stub.
+     */
+    public long getAdminCalls() {
+        return adminCalls.get();
+    }
+
+    /**
+     * JWT firmado con la clave del stub para el usuario {@code userIndex}, con los roles de realm y
+     * las autoridades del cliente geli-backend que exigen los @PreAuthorize de los controladores.
+     */
+    public String issueAccessToken(long userIndex, List<String> realmRoles, List<String> authorities) {
+        Instant now = Instant.now();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer(getBaseUrl() + "/realms/" + REALM)
+                .subject(SyntheticDataGenerator.keycloakId(userIndex))
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plusSeconds(3600)))
+                .jwtID(UUID.randomUUID().toString())
+                .claim("azp", CLIENT_ID)
+                .claim("email", SyntheticDataGenerator.email(userIndex))
+                .claim("preferred_username", "user" + userIndex)
+                .claim("realm_access", Map.of("roles", realmRoles))
+                .claim("resource_access", Map.of(CLIENT_ID, Map.of("roles", authorities)))
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(signingKey.getKeyID()).build(), claims);
+        try {
+            jwt.sign(new RSASSASigner(signingKey));
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Could not sign the stub access token", e);
+        }
+        return jwt.serialize();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.shutdown();
+    }
+
+    private MockResponse handle(RecordedRequest request) {
+        HttpUrl url = request.getRequestUrl();
+        if (url == null) {
+            return new MockResponse().setResponseCode(400);
+        }
+        String path = url.encodedPath();
+
+        if (path.equals(OIDC_PREFIX + "/token")) {
+            return ok(Map.of(
+                    "access_token", issueAccessToken(0, List.of(), List.of()),
+                    "expires_in", 3600,
+                    "refresh_expires_in", 0,
+                    "token_type", "Bearer"));
+        }
+        if (path.equals(OIDC_PREFIX + "/certs")) {
+            return new MockResponse()
+                    .setHeader("Content-Type", "application/json")
+                    .setBody(new JWKSet(signingKey.toPublicJWK()).toString());
+        }
+        if (!path.startsWith(ADMIN_PREFIX)) {
+            return new MockResponse().setResponseCode(404);
+        }
+
+        adminCalls.incrementAndGet();
+        String[] segments = path.substring(ADMIN_PREFIX.length() + 1).split("/");
+        int first = intParam(url, "first", 0);
+        int max = intParam(url, "max", 100);
+
+        // GET users?first&max
+        if (segments.length == 1 && segments[0].equals("users")) {
+            List<Map<String, Object>> page = new ArrayList<>();
+            for (long i = first + 1L; i <= Math.min(userCount, (long) first + max); i++) {
+                page.add(user(i));
+            }
+            return ok(page);
+        }
+        // GET users/{id} y users/{id}/role-mappings/realm[/composite]
+        if (segments.length >= 2 && segments[0].equals("users")) {
+            long index = userIndex(segments[1]);
+            if (index < 1 || index > userCount) {
+                return new MockResponse().setResponseCode(404);
+            }
+            return segments.length == 2 ? ok(user(index)) : ok(List.of(role(SyntheticDataGenerator.realmRole(index))));
+        }
+        // GET roles
+        if (segments.length == 1 && segments[0].equals("roles")) {
+            return ok(List.of(role(SyntheticDataGenerator.ADMIN_ROLE), role(SyntheticDataGenerator.AUTHORIZED_ROLE)));
+        }
+        // GET roles/{name}/users?first&max
+        if (segments.length == 3 && segments[0].equals("roles") && segments[2].equals("users")) {
+            String roleName = segments[1];
+            List<Map<String, Object>> members = new ArrayList<>();
+            long matched = 0;
+            for (long i = 1; i <= userCount && members.size() < max; i++) {
+                if (SyntheticDataGenerator.realmRole(i).equals(roleName) && matched++ >= first) {
+                    members.add(Map.of("id", SyntheticDataGenerator.keycloakId(i), "username", "user" + i));
+                }
+            }
+            return ok(members);
+        }
+        return new MockResponse().setResponseCode(404);
+    }
+
+    private Map<String, Object> user(long index) {
+        return Map.of(
+                "id", SyntheticDataGenerator.keycloakId(index),
+                "username", "user" + index,
+                "email", SyntheticDataGenerator.email(index),
+                "firstName", "Usuario" + index,
+                "lastName", "Apellido" + index,
+                "enabled", SyntheticDataGenerator.enabled(index),
+                "emailVerified", true,
+                "createdTimestamp", 1_672_531_200_000L + index * 86_400_000L);
+    }
+
+    private static Map<String, Object> role(String name) {
+        return Map.of("id", "role-" + name, "name", name, "composite", false, "clientRole", false);
+    }
+
+    private static long userIndex(String keycloakId) {
+        try {
+            String prefix = SyntheticDataGenerator.KEYCLOAK_ID_PREFIX;
+            return keycloakId.startsWith(prefix) ? Long.parseLong(keycloakId.substring(prefix.length())) : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static int intParam(HttpUrl url, String name, int defaultValue) {
+        String value = url.queryParameter(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    private MockResponse ok(Object body) {
+        try {
+            return new MockResponse()
+                    .setHeader("Content-Type", "application/json")
+                    .setBody(json.writeValueAsString(body));
+        } catch (JsonProcessingException e) {
+            return new MockResponse().setResponseCode(500);
+        }
+    }
+}
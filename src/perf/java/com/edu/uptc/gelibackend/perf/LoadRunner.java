@@ -0,0 +1,111 @@
+package com.edu.uptc.gelibackend.perf;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.function.IntFunction;
+import java.util.function.LongSupplier;
+
+/**
+ * Lanza {@code clients} clientes concurrentes contra un endpoint; cada uno hace {@code requestsPerClient}
+ * peticiones seguidas. Mide la latencia de cada petición y, con los contadores que recibe, cuántas
+ * sentencias SQL y llamadas a Keycloak costó cada petición en promedio. El máximo de sentencias de una sola
+ * petición sale de la cabecera {@code X-Sql-Statements} (perfil perf con {@code sql-accounting.response-headers}).
+ */
+public class LoadRunner {
+
+    private static final String STATEMENTS_HEADER = "X-Sql-Statements";
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final int clients;
+
+    public LoadRunner(int clients) {
+        this.clients = clients;
+    }
+
+    public record Result(String endpoint, int requests, int errors, double throughput,
+                         double p50Ms, double p95Ms, double p99Ms, double maxMs,
+                         double statementsPerRequest, long maxStatements, double keycloakCallsPerRequest) {
+    }
+
+    /**
+     * @param request      petición a enviar según el número de petición del cliente (para variar páginas y filtros)
+     * @param statements   contador acumulado de sentencias SQL preparadas
+     * @param keycloakCalls contador acumulado de llamadas a la API de administración de Keycloak
+     */
+    public Result run(String endpoint, int requestsPerClient, IntFunction<HttpRequest> request,
+                      LongSupplier statements, LongSupplier keycloakCalls) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        try {
+            long statementsBefore = statements.getAsLong();
+            long keycloakBefore = keycloakCalls.getAsLong();
+            LongAccumulator maxStatements = new LongAccumulator(Math::max, 0);
+            long startedAt = System.nanoTime();
+
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                int client = c;
+                futures.add(pool.submit(() -> {
+                    long[] latencies = new long[requestsPerClient];
+                    for (int i = 0; i < requestsPerClient; i++) {
+                        long sentAt = System.nanoTime();
+                        HttpResponse<Void> response = http.send(
+                                request.apply(client * requestsPerClient + i), HttpResponse.BodyHandlers.discarding());
+                        long elapsed = System.nanoTime() - sentAt;
+                        OptionalLong requestStatements = response.headers().firstValueAsLong(STATEMENTS_HEADER);
+                        // Sin la cabecera el presupuesto de sentencias no comprobaría nada
+                        if (requestStatements.isEmpty() && response.statusCode() < 300) {
+                            throw new IllegalStateException(response.request().uri() + " answered "
+                                    + response.statusCode() + " without " + STATEMENTS_HEADER);
+                        }
+                        requestStatements.ifPresent(maxStatements::accumulate);
+                        // Una respuesta de error se guarda en negativo para contarla sin perder el orden
+                        latencies[i] = response.statusCode() < 300 ? elapsed : -elapsed;
+                    }
+                    return latencies;
+                }));
+            }
+
+            List<Long> samples = new ArrayList<>();
+            int errors = 0;
+            for (Future<long[]> future : futures) {
+                for (long latency : future.get()) {
+                    if (latency < 0) {
+                        errors++;
+                    }
+                    samples.add(Math.abs(latency));
+                }
+            }
+            double elapsedSeconds = (System.nanoTime() - startedAt) / 1e9;
+            int total = samples.size();
+
+            long[] sorted = samples.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(sorted);
+            return new Result(endpoint, total, errors, total / elapsedSeconds,
+                    percentileMs(sorted, 50), percentileMs(sorted, 95), percentileMs(sorted, 99),
+                    sorted[sorted.length - 1] / 1e6,
+                    (statements.getAsLong() - statementsBefore) / (double) total,
+                    maxStatements.get(),
+                    (keycloakCalls.getAsLong() - keycloakBefore) / (double) total);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Percentil por rango más cercano
+    private static double percentileMs(long[] sorted, int percentile) {
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1e6;
+    }
+}
@@ -0,0 +1,188 @@
+package com.edu.uptc.gelibackend.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimitFilterTest {
+
+    private static final String LOGIN = "/api/auth/login";
+    private static final String PASSWORD = "/api/password/change";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static RateLimitProperties.Bucket perMinute(int capacity) {
+        return new RateLimitProperties.Bucket(capacity, Duration.ofMinutes(1));
+    }
+
+    // login por IP y por campo username del cuerpo; password por usuario del JWT o tempToken
+    private RateLimitFilter filter(int maxBodyBytes, RateLimitProperties.Bucket loginPerIp, RateLimitProperties.Bucket perSubject) {
+        RateLimitProperties properties = new RateLimitProperties(true, 100, maxBodyBytes, Map.of(
+                "login", new RateLimitProperties.Endpoint(List.of(LOGIN), List.of("username"), loginPerIp, perSubject),
+                "password", new RateLimitProperties.Endpoint(List.of("/api/password/**"),
+                        List.of(RateLimitFilter.PRINCIPAL, "tempToken"), null, perSubject)));
+        return new RateLimitFilter(properties, objectMapper, registry);
+    }
+
+    private static MockHttpServletRequest jsonRequest(String uri, String ip, byte[] body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.setRemoteAddr(ip);
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent(body);
+        return request;
+    }
+
+    private double rejected(String endpoint, String key) {
+        return registry.get("geli.rate-limit.rejected").tag("endpoint", endpoint).tag("key", key).counter().count();
+    }
+
+    @Test
+    @DisplayName("doFilter - El controlador debe poder leer el cuerpo JSON que el filtro leyó para buscar el usuario")
+    public void testDoFilter_JsonBody_ShouldStillBeReadableDownstream() throws Exception {
+        // Arrange
+        RateLimitFilter filter = filter(8192, perMinute(30), perMinute(1));
+        byte[] body = "{\"username\":\"Alice\",\"password\":\"secreto\"}".getBytes(StandardCharsets.UTF_8);
+        AtomicReference<JsonNode> read = new AtomicReference<>();
+        FilterChain controller = (request, response) -> read.set(objectMapper.readTree(request.getReader()));
+
+        // Act
+        filter.doFilter(jsonRequest(LOGIN, "10.0.0.1", body), new MockHttpServletResponse(), controller);
+
+        // Assert
+        assertNotNull(read.get(), "La petición debe llegar al controlador");
+        assertEquals("Alice", read.get().get("username").asText());
+        assertEquals("secreto", read.get().get("password").asText());
+
+        // El usuario sí se leyó del cuerpo: otra IP con el mismo usuario ya no tiene cupo
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        filter.doFilter(jsonRequest(LOGIN, "10.0.0.2", " { \"username\" : \"alice \" } ".getBytes(StandardCharsets.UTF_8)),
+                second, (request, response) -> fail("Debe rechazarse antes del controlador"));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), second.getStatus());
+        assertEquals(1.0, rejected("login", "subject"));
+    }
+
+    @Test
+    @DisplayName("doFilter - Un cuerpo chunked más grande que max-body-bytes debe llegar completo al controlador")
+    public void testDoFilter_ChunkedBodyOverLimit_ShouldPassThroughIntact() throws Exception {
+        // Arrange: sin Content-Length el filtro sólo sabe que es grande después de leer max-body-bytes + 1
+        RateLimitFilter filter = filter(16, perMinute(30), perMinute(1));
+        byte[] body = new byte[10_000];
+        for (int i = 0; i < body.length; i++) {
+            body[i] = (byte) ('a' + i % 26);
+        }
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", LOGIN) {
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+
+            @Override
+            public int getContentLength() {
+                return -1;
+            }
+        };
+        request.setRemoteAddr("10.0.0.1");
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent(body);
+        AtomicReference<byte[]> read = new AtomicReference<>();
+        FilterChain controller = (forwarded, response) -> {
+            // Un byte suelto y luego el resto: cruza el borde entre lo guardado y el stream original
+            ByteArrayOutputStream all = new ByteArrayOutputStream();
+            all.write(forwarded.getInputStream().read());
+            all.write(forwarded.getInputStream().readAllBytes());
+            read.set(all.toByteArray());
+        };
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), controller);
+
+        // Assert
+        assertArrayEquals(body, read.get());
+    }
+
+    @Test
+    @DisplayName("doFilter - Con principal en subject-fields, debe limitar por el usuario del JWT antes que por los campos del cuerpo")
+    public void testDoFilter_JwtPrincipal_ShouldBeTheSubject() throws Exception {
+        // Arrange
+        RateLimitFilter filter = filter(8192, perMinute(30), perMinute(1));
+        Jwt jwt = Jwt.withTokenValue("token").header("alg", "none").subject("Bob").build();
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+        byte[] body = "{\"tempToken\":\"uno\"}".getBytes(StandardCharsets.UTF_8);
+
+        // Act: distintas IPs y distinto tempToken, mismo usuario del JWT
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        filter.doFilter(jsonRequest(PASSWORD, "10.0.0.1", body), first, (request, response) -> { });
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        filter.doFilter(jsonRequest(PASSWORD, "10.0.0.2", "{\"tempToken\":\"dos\"}".getBytes(StandardCharsets.UTF_8)),
+                second, (request, response) -> fail("Debe rechazarse antes del controlador"));
+
+        // Assert
+        assertEquals(HttpStatus.OK.value(), first.getStatus());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), second.getStatus());
+        assertEquals(1.0, rejected("password", "subject"));
+
+        // Otro usuario del JWT tiene su propia cubeta
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(
+                Jwt.withTokenValue("token").header("alg", "none").subject("carol").build()));
+        MockHttpServletResponse other = new MockHttpServletResponse();
+        filter.doFilter(jsonRequest(PASSWORD, "10.0.0.2", body), other, (request, response) -> { });
+        assertEquals(HttpStatus.OK.value(), other.getStatus());
+    }
+
+    @Test
+    @DisplayName("doFilter - Sin cupo para la IP, debe responder 429 con Retry-After y un mensaje JSON sin llamar al controlador")
+    public void testDoFilter_WhenIpLimited_ShouldRespond429WithRetryAfter() throws Exception {
+        // Arrange: 2 por minuto, una cada 30 segundos
+        RateLimitFilter filter = filter(8192, perMinute(2), null);
+        byte[] body = "{\"username\":\"alice\"}".getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < 2; i++) {
+            MockHttpServletResponse admitted = new MockHttpServletResponse();
+            filter.doFilter(jsonRequest(LOGIN, "10.0.0.1", body), admitted, (request, response) -> { });
+            assertEquals(HttpStatus.OK.value(), admitted.getStatus());
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(jsonRequest(LOGIN, "10.0.0.1", body), response,
+                (request, ignored) -> fail("Debe rechazarse antes del controlador"));
+
+        // Assert
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), response.getStatus());
+        assertEquals("30", response.getHeader("Retry-After"));
+        assertTrue(response.getContentType().startsWith(MediaType.APPLICATION_JSON_VALUE));
+        JsonNode message = objectMapper.readTree(response.getContentAsByteArray());
+        assertTrue(message.get("message").asText().contains("30 segundos"));
+        assertEquals(1.0, rejected("login", "ip"));
+
+        // Otra IP no comparte la cubeta
+        MockHttpServletResponse otherIp = new MockHttpServletResponse();
+        filter.doFilter(jsonRequest(LOGIN, "10.0.0.2", body), otherIp, (request, ignored) -> { });
+        assertEquals(HttpStatus.OK.value(), otherIp.getStatus());
+    }
+}
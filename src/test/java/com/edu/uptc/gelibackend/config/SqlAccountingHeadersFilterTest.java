@@ -0,0 +1,86 @@
+package com.edu.uptc.gelibackend.config;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SqlAccountingHeadersFilterTest {
+
+    private final SqlAccountingHeadersFilter filter = new SqlAccountingHeadersFilter();
+
+    @AfterEach
+    void tearDown() {
+        SqlRequestCounters.stop();
+    }
+
+    // Lo que hace el interceptor al entrar al controlador
+    private static void startCounting(MockHttpServletRequest request) {
+        request.setAttribute(SqlRequestCounters.REQUEST_ATTRIBUTE, SqlRequestCounters.start());
+    }
+
+    private static void runStatement() {
+        SqlRequestCounters.statementInspector().inspect("select 1 from dual");
+    }
+
+    @Test
+    @DisplayName("doFilter - Una respuesta 204 sin cuerpo debe llevar las cabeceras X-Sql-*")
+    public void testDoFilter_NoContent_ShouldSetHeaders() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/laboratories/authorized/by-user");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(request, response, (req, res) -> {
+            startCounting(request);
+            runStatement();
+            ((HttpServletResponse) res).setStatus(HttpStatus.NO_CONTENT.value());
+        });
+
+        // Assert
+        assertEquals(HttpStatus.NO_CONTENT.value(), response.getStatus());
+        assertEquals("1", response.getHeader(SqlAccountingHeadersFilter.STATEMENTS_HEADER));
+        assertEquals("0", response.getHeader(SqlAccountingHeadersFilter.ROWS_HEADER));
+    }
+
+    @Test
+    @DisplayName("doFilter - Con cuerpo, las cabeceras deben escribirse antes de que la respuesta se confirme")
+    public void testDoFilter_WithBody_ShouldSetHeadersBeforeCommit() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/equipments");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(request, response, (req, res) -> {
+            startCounting(request);
+            runStatement();
+            res.getOutputStream().write("[]".getBytes(StandardCharsets.UTF_8));
+            res.flushBuffer();
+            runStatement();
+        });
+
+        // Assert: la segunda consulta llegó con la respuesta ya confirmada
+        assertTrue(response.isCommitted());
+        assertEquals("1", response.getHeader(SqlAccountingHeadersFilter.STATEMENTS_HEADER));
+    }
+
+    @Test
+    @DisplayName("doFilter - Sin contadores (la petición no llegó a un controlador) no debe agregar cabeceras")
+    public void testDoFilter_WithoutCounters_ShouldNotSetHeaders() throws Exception {
+        // Arrange
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", "/favicon.ico"), response, (req, res) -> { });
+
+        // Assert
+        assertNull(response.getHeader(SqlAccountingHeadersFilter.STATEMENTS_HEADER));
+    }
+}
@@ -0,0 +1,119 @@
+package com.edu.uptc.gelibackend.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenBucketLimiterTest {
+
+    private static final long START = TimeUnit.SECONDS.toNanos(1_000);
+    private static final long ONE_MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    // 5 peticiones por minuto: una cada 12 segundos
+    private static TokenBucketLimiter fivePerMinute(int maxKeys) {
+        return new TokenBucketLimiter(new RateLimitProperties.Bucket(5, Duration.ofMinutes(1)), maxKeys);
+    }
+
+    @Test
+    @DisplayName("tryAcquire - Con la cubeta llena, debe admitir capacity peticiones seguidas y rechazar la siguiente")
+    public void testTryAcquire_Burst_ShouldAdmitCapacityThenReject() {
+        // Arrange
+        TokenBucketLimiter limiter = fivePerMinute(100);
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("alice", START), "La petición " + (i + 1) + " debe entrar");
+        }
+        long wait = limiter.tryAcquire("alice", START);
+
+        // Assert
+        assertEquals(TimeUnit.SECONDS.toNanos(12), wait, "Debe esperar un intervalo de emisión");
+    }
+
+    @Test
+    @DisplayName("tryAcquire - Tras un intervalo de emisión, debe admitir exactamente una petición más")
+    public void testTryAcquire_Refill_ShouldAdmitOneTokenPerInterval() {
+        // Arrange
+        TokenBucketLimiter limiter = fivePerMinute(100);
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("alice", START);
+        }
+        long later = START + TimeUnit.SECONDS.toNanos(12);
+
+        // Act
+        long first = limiter.tryAcquire("alice", later);
+        long second = limiter.tryAcquire("alice", later);
+
+        // Assert
+        assertEquals(0, first);
+        assertTrue(second > 0, "Sólo se rellenó un token");
+    }
+
+    @Test
+    @DisplayName("tryAcquire - Las claves distintas deben tener cubetas independientes")
+    public void testTryAcquire_DifferentKeys_ShouldNotShareBuckets() {
+        // Arrange
+        TokenBucketLimiter limiter = fivePerMinute(100);
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("alice", START);
+        }
+
+        // Act
+        long bob = limiter.tryAcquire("bob", START);
+
+        // Assert
+        assertEquals(0, bob);
+        assertTrue(limiter.tryAcquire("alice", START) > 0);
+        assertEquals(2, limiter.size());
+    }
+
+    @Test
+    @DisplayName("tryAcquire - Con maxKeys alcanzado, las claves nuevas deben compartir cubetas sin crecer el mapa")
+    public void testTryAcquire_WhenMaxKeysReached_ShouldUseOverflowBuckets() {
+        // Arrange
+        TokenBucketLimiter limiter = fivePerMinute(1);
+        limiter.tryAcquire("alice", START);
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("bob", START));
+        }
+        long bobOverLimit = limiter.tryAcquire("bob", START);
+
+        // Assert
+        assertEquals(1, limiter.size(), "Las claves nuevas no deben tener cubeta propia");
+        assertTrue(bobOverLimit > 0, "La cubeta compartida debe seguir limitando");
+        assertEquals(0, limiter.tryAcquire("alice", START), "La clave existente conserva su cubeta");
+    }
+
+    @Test
+    @DisplayName("prune - Debe quitar sólo las cubetas que ya se rellenaron del todo")
+    public void testPrune_ShouldRemoveOnlyRefilledBuckets() {
+        // Arrange
+        TokenBucketLimiter limiter = fivePerMinute(100);
+        limiter.tryAcquire("alice", START);
+        limiter.tryAcquire("bob", START + ONE_MINUTE);
+
+        // Act
+        limiter.prune(START + ONE_MINUTE);
+
+        // Assert
+        assertEquals(1, limiter.size(), "Sólo debe quedar la cubeta de bob, que aún no se rellena");
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("alice", START + ONE_MINUTE), "alice vuelve con la cubeta llena");
+        }
+    }
+
+    @Test
+    @DisplayName("TokenBucketLimiter - Con capacidad o periodo no positivos, debe lanzar IllegalArgumentException")
+    public void testConstructor_InvalidBucket_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new TokenBucketLimiter(new RateLimitProperties.Bucket(0, Duration.ofMinutes(1)), 100));
+        assertThrows(IllegalArgumentException.class,
+                () -> new TokenBucketLimiter(new RateLimitProperties.Bucket(5, Duration.ZERO), 100));
+    }
+}
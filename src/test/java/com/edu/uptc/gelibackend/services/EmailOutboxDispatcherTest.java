@@ -0,0 +1,229 @@
+package com.edu.uptc.gelibackend.services;
+
+import com.edu.uptc.gelibackend.entities.EmailOutboxEntity;
+import com.edu.uptc.gelibackend.repositories.EmailOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.MailSender;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EmailOutboxDispatcherTest {
+
+    private static final long LEASE_MS = 300_000;
+    private static final long RETRY_BASE_MS = 30_000;
+    private static final long RETRY_MAX_MS = 3_600_000;
+
+    @Mock
+    private EmailOutboxRepository outboxRepo;
+
+    @Mock
+    private MailSender mailSender;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry registry;
+    private EmailOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        dispatcher = new EmailOutboxDispatcher(outboxRepo, mailSender, transactionManager, registry);
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 20);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 3);
+        ReflectionTestUtils.setField(dispatcher, "retryBaseMs", RETRY_BASE_MS);
+        ReflectionTestUtils.setField(dispatcher, "retryMaxMs", RETRY_MAX_MS);
+        ReflectionTestUtils.setField(dispatcher, "leaseMs", LEASE_MS);
+        ReflectionTestUtils.setField(dispatcher, "failedRetentionDays", 7);
+    }
+
+    private static EmailOutboxEntity pending(long id, int attempts, LocalDateTime nextAttemptAt) {
+        EmailOutboxEntity email = new EmailOutboxEntity();
+        email.setId(id);
+        email.setRecipient("user" + id + "@uptc.edu.co");
+        email.setSubject("Asunto " + id);
+        email.setBody("Cuerpo " + id);
+        email.setStatus(EmailOutboxEntity.Status.PENDING);
+        email.setAttempts(attempts);
+        email.setNextAttemptAt(nextAttemptAt);
+        email.setCreatedAt(nextAttemptAt);
+        return email;
+    }
+
+    private double dispatched(String result) {
+        return registry.get("geli.mail.outbox.dispatched").tag("result", result).counter().count();
+    }
+
+    @Test
+    @DisplayName("dispatchBatch - Debe tomar cada correo con el próximo intento leído y correrlo un plazo hacia adelante")
+    public void testDispatchBatch_ShouldClaimWithLeaseBeforeSending() {
+        // Arrange
+        LocalDateTime seen = EmailOutboxService.now().minusMinutes(1);
+        when(outboxRepo.findDue(any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of(pending(1L, 0, seen)));
+        when(outboxRepo.claim(eq(1L), eq(seen), any(LocalDateTime.class))).thenReturn(1);
+        LocalDateTime before = EmailOutboxService.now();
+
+        // Act
+        dispatcher.dispatchBatch();
+
+        // Assert
+        LocalDateTime after = EmailOutboxService.now();
+        ArgumentCaptor<LocalDateTime> leaseUntil = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(outboxRepo).claim(eq(1L), eq(seen), leaseUntil.capture());
+        assertFalse(leaseUntil.getValue().isBefore(before.plus(Duration.ofMillis(LEASE_MS))));
+        assertFalse(leaseUntil.getValue().isAfter(after.plus(Duration.ofMillis(LEASE_MS))));
+        verify(mailSender).send(any(SimpleMailMessage[].class));
+        verify(outboxRepo).deleteByIds(List.of(1L));
+        assertEquals(1, dispatched("sent"));
+    }
+
+    @Test
+    @DisplayName("dispatchBatch - Un correo que otra instancia ya tomó no debe enviarse")
+    public void testDispatchBatch_WhenClaimLost_ShouldNotSend() {
+        // Arrange
+        LocalDateTime seen = EmailOutboxService.now().minusMinutes(1);
+        when(outboxRepo.findDue(any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of(pending(1L, 0, seen)));
+        when(outboxRepo.claim(eq(1L), eq(seen), any(LocalDateTime.class))).thenReturn(0);
+
+        // Act
+        dispatcher.dispatchBatch();
+
+        // Assert
+        verifyNoInteractions(mailSender);
+        verify(outboxRepo, never()).deleteByIds(anyList());
+    }
+
+    @Test
+    @DisplayName("dispatchBatch - Un correo vencido debe descartarse sin tomarlo ni enviarlo")
+    public void testDispatchBatch_WhenExpired_ShouldDiscard() {
+        // Arrange
+        EmailOutboxEntity expired = pending(1L, 0, EmailOutboxService.now().minusMinutes(10));
+        expired.setExpiresAt(EmailOutboxService.now().minusMinutes(5));
+        when(outboxRepo.findDue(any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of(expired));
+
+        // Act
+        dispatcher.dispatchBatch();
+
+        // Assert
+        verify(outboxRepo, never()).claim(anyLong(), any(), any());
+        verifyNoInteractions(mailSender);
+        verify(outboxRepo).deleteByIds(List.of(1L));
+        assertEquals(1, dispatched("expired"));
+    }
+
+    @Test
+    @DisplayName("purgeExpired - Debe borrar los pendientes vencidos aunque esperen un reintento y contarlos como expired")
+    public void testPurgeExpired_ShouldDeleteExpiredPendingEmails() {
+        // Arrange
+        when(outboxRepo.deleteExpired(any(LocalDateTime.class))).thenReturn(2);
+        LocalDateTime before = EmailOutboxService.now();
+
+        // Act
+        dispatcher.purgeExpired();
+
+        // Assert
+        ArgumentCaptor<LocalDateTime> now = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(outboxRepo).deleteExpired(now.capture());
+        assertFalse(now.getValue().isBefore(before));
+        verify(outboxRepo, never()).findDue(any(), any());
+        assertEquals(2, dispatched("expired"));
+    }
+
+    @Test
+    @DisplayName("dispatchBatch - Si el envío falla antes del último intento, debe reprogramarlo con espera exponencial")
+    public void testDispatchBatch_WhenSendFailsBelowMaxAttempts_ShouldScheduleRetry() {
+        // Arrange: segundo intento (attempts pasa de 1 a 2)
+        LocalDateTime seen = EmailOutboxService.now().minusMinutes(1);
+        when(outboxRepo.findDue(any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of(pending(1L, 1, seen)));
+        when(outboxRepo.claim(eq(1L), eq(seen), any(LocalDateTime.class))).thenReturn(1);
+        doThrow(new MailSendException("SMTP caído")).when(mailSender).send(any(SimpleMailMessage[].class));
+        LocalDateTime before = EmailOutboxService.now();
+
+        // Act
+        dispatcher.dispatchBatch();
+
+        // Assert
+        LocalDateTime after = EmailOutboxService.now();
+        ArgumentCaptor<LocalDateTime> nextAttempt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(outboxRepo).scheduleRetry(eq(1L), nextAttempt.capture(), contains("SMTP caído"));
+        assertFalse(nextAttempt.getValue().isBefore(before.plus(Duration.ofMillis(2 * RETRY_BASE_MS))));
+        assertFalse(nextAttempt.getValue().isAfter(after.plus(Duration.ofMillis(2 * RETRY_BASE_MS))));
+        verify(outboxRepo, never()).markFailed(anyLong(), anyString());
+        verify(outboxRepo, never()).deleteByIds(anyList());
+        assertEquals(1, dispatched("retry"));
+    }
+
+    @Test
+    @DisplayName("dispatchBatch - Si falla el último intento, debe marcarlo FAILED y no reprogramarlo")
+    public void testDispatchBatch_WhenLastAttemptFails_ShouldMarkFailed() {
+        // Arrange: tercer y último intento
+        LocalDateTime seen = EmailOutboxService.now().minusMinutes(1);
+        when(outboxRepo.findDue(any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of(pending(1L, 2, seen)));
+        when(outboxRepo.claim(eq(1L), eq(seen), any(LocalDateTime.class))).thenReturn(1);
+        doThrow(new MailSendException("SMTP caído")).when(mailSender).send(any(SimpleMailMessage[].class));
+
+        // Act
+        dispatcher.dispatchBatch();
+
+        // Assert
+        verify(outboxRepo).markFailed(eq(1L), contains("SMTP caído"));
+        verify(outboxRepo, never()).scheduleRetry(anyLong(), any(), anyString());
+        assertEquals(1, dispatched("failed"));
+    }
+
+    @Test
+    @DisplayName("dispatchBatch - Con fallos por mensaje, sólo los fallidos deben reintentarse y el resto borrarse")
+    public void testDispatchBatch_WhenSomeMessagesFail_ShouldRetryOnlyThose() {
+        // Arrange
+        LocalDateTime seen = EmailOutboxService.now().minusMinutes(1);
+        when(outboxRepo.findDue(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(pending(1L, 0, seen), pending(2L, 0, seen)));
+        when(outboxRepo.claim(anyLong(), eq(seen), any(LocalDateTime.class))).thenReturn(1);
+        doAnswer(invocation -> {
+            SimpleMailMessage[] batch = (SimpleMailMessage[]) invocation.getRawArguments()[0];
+            throw new MailSendException(Map.of(batch[1], new RuntimeException("buzón lleno")));
+        }).when(mailSender).send(any(SimpleMailMessage[].class));
+
+        // Act
+        dispatcher.dispatchBatch();
+
+        // Assert
+        verify(outboxRepo).deleteByIds(List.of(1L));
+        verify(outboxRepo).scheduleRetry(eq(2L), any(LocalDateTime.class), contains("buzón lleno"));
+        assertEquals(1, dispatched("sent"));
+        assertEquals(1, dispatched("retry"));
+    }
+
+    @Test
+    @DisplayName("backoff - Debe duplicar la espera en cada intento hasta retry-max-ms")
+    public void testBackoff_ShouldDoubleUntilMax() {
+        assertEquals(Duration.ofMillis(RETRY_BASE_MS), dispatcher.backoff(1));
+        assertEquals(Duration.ofMillis(2 * RETRY_BASE_MS), dispatcher.backoff(2));
+        assertEquals(Duration.ofMillis(4 * RETRY_BASE_MS), dispatcher.backoff(3));
+        assertEquals(Duration.ofMillis(RETRY_MAX_MS), dispatcher.backoff(10));
+        assertEquals(Duration.ofMillis(RETRY_MAX_MS), dispatcher.backoff(Integer.MAX_VALUE), "Sin desbordar el corrimiento");
+    }
+}
@@ -0,0 +1,258 @@
+package com.edu.uptc.gelibackend.services;
+
+import com.edu.uptc.gelibackend.dtos.equipment.use.EquipmentAvailabilityEventDTO;
+import com.edu.uptc.gelibackend.repositories.EquipmentRepository;
+import com.edu.uptc.gelibackend.repositories.projections.EquipmentAvailabilitySnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EquipmentAvailabilityStreamServiceTest {
+
+    private static final Long LAB = 1L;
+
+    @Mock
+    private EquipmentRepository equipmentRepo;
+
+    @Mock
+    private EquipmentOccupancyRegistry occupancyRegistry;
+
+    // Emitters en el orden en que los crea subscribe
+    private final List<RecordingEmitter> emitters = new CopyOnWriteArrayList<>();
+    private EquipmentAvailabilityStreamService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new EquipmentAvailabilityStreamService(equipmentRepo, occupancyRegistry, 2) {
+            @Override
+            SseEmitter newEmitter(long timeoutMs) {
+                RecordingEmitter emitter = new RecordingEmitter();
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+        ReflectionTestUtils.setField(service, "streamTimeoutMs", 60_000L);
+        ReflectionTestUtils.setField(service, "queueCapacity", 3);
+        ReflectionTestUtils.setField(service, "maxSubscribersPerLaboratory", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    /**
+     * Registra lo que se envía. Con {@code block} el envío se queda esperando, como un cliente que no lee;
+     * con {@code fail} lanza IOException, como una conexión cerrada.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        final List<String> sent = new CopyOnWriteArrayList<>();
+        volatile CountDownLatch block;
+        volatile boolean fail;
+        volatile boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (block != null) {
+                try {
+                    block.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (fail) {
+                throw new IOException("Broken pipe");
+            }
+            StringBuilder text = new StringBuilder();
+            builder.build().forEach(part -> text.append(part.getData()));
+            sent.add(text.toString());
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+
+    private static EquipmentAvailabilityEventDTO event(Long equipmentId, String status) {
+        return new EquipmentAvailabilityEventDTO(equipmentId, LAB, status, LocalDateTime.now(ZoneId.of("America/Bogota")));
+    }
+
+    private static void await(BooleanSupplier condition, String message) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(condition.getAsBoolean(), message);
+    }
+
+    // Sin convertidores de mensaje, el DTO se envía con su toString
+    private static List<String> statuses(RecordingEmitter emitter) {
+        List<String> statuses = new ArrayList<>();
+        for (String sent : emitter.sent) {
+            for (String status : List.of(EquipmentAvailabilityEventDTO.AVAILABLE,
+                    EquipmentAvailabilityEventDTO.IN_USE, EquipmentAvailabilityEventDTO.UNAVAILABLE)) {
+                if (sent.contains("status=" + status + ",")) {
+                    statuses.add(status);
+                }
+            }
+        }
+        return statuses;
+    }
+
+    @Test
+    @DisplayName("subscribe - Debe enviar el estado actual de cada equipo del laboratorio")
+    public void testSubscribe_ShouldSendSnapshot() throws Exception {
+        // Arrange
+        when(equipmentRepo.findAvailabilityByLaboratoryId(LAB)).thenReturn(List.of(
+                new EquipmentAvailabilitySnapshot(10L, true),
+                new EquipmentAvailabilitySnapshot(11L, true),
+                new EquipmentAvailabilitySnapshot(12L, false)));
+        when(occupancyRegistry.isInUse(10L)).thenReturn(true);
+
+        // Act
+        service.subscribe(LAB);
+
+        // Assert
+        RecordingEmitter emitter = emitters.get(0);
+        await(() -> emitter.sent.size() == 3, "Debe enviar un evento por equipo");
+        assertEquals(List.of(EquipmentAvailabilityEventDTO.IN_USE, EquipmentAvailabilityEventDTO.AVAILABLE,
+                EquipmentAvailabilityEventDTO.UNAVAILABLE), statuses(emitter));
+        assertTrue(emitter.sent.get(0).contains("event:" + EquipmentAvailabilityStreamService.EVENT_NAME));
+    }
+
+    @Test
+    @DisplayName("subscribe - Un cambio publicado mientras se lee el estado inicial debe llegar después de él")
+    public void testSubscribe_ChangeDuringSnapshot_ShouldArriveAfterSnapshot() throws Exception {
+        // Arrange: el equipo pasa a fuera de servicio justo después de leerse como disponible
+        when(equipmentRepo.findAvailabilityByLaboratoryId(LAB)).thenAnswer(invocation -> {
+            List<EquipmentAvailabilitySnapshot> snapshot = List.of(new EquipmentAvailabilitySnapshot(10L, true));
+            service.onAvailabilityChanged(event(10L, EquipmentAvailabilityEventDTO.UNAVAILABLE));
+            return snapshot;
+        });
+
+        // Act
+        service.subscribe(LAB);
+
+        // Assert
+        RecordingEmitter emitter = emitters.get(0);
+        await(() -> emitter.sent.size() == 2, "Debe enviar el estado inicial y el cambio");
+        assertEquals(List.of(EquipmentAvailabilityEventDTO.AVAILABLE, EquipmentAvailabilityEventDTO.UNAVAILABLE),
+                statuses(emitter));
+    }
+
+    @Test
+    @DisplayName("onAvailabilityChanged - Debe enviar el cambio a cada suscriptor del laboratorio y a ninguno de otro")
+    public void testOnAvailabilityChanged_ShouldFanOutToLaboratorySubscribers() throws Exception {
+        // Arrange
+        when(equipmentRepo.findAvailabilityByLaboratoryId(anyLong())).thenReturn(List.of());
+        service.subscribe(LAB);
+        service.subscribe(LAB);
+        service.subscribe(2L);
+
+        // Act
+        service.onAvailabilityChanged(event(10L, EquipmentAvailabilityEventDTO.IN_USE));
+
+        // Assert
+        await(() -> emitters.get(0).sent.size() == 1 && emitters.get(1).sent.size() == 1,
+                "Los dos suscriptores del laboratorio deben recibir el cambio");
+        Thread.sleep(50);
+        assertTrue(emitters.get(2).sent.isEmpty(), "El suscriptor de otro laboratorio no debe recibirlo");
+    }
+
+    @Test
+    @DisplayName("onAvailabilityChanged - Un emitter cuyo envío falla debe quitarse y, si era el último, también su laboratorio")
+    public void testOnAvailabilityChanged_WhenSendFails_ShouldRemoveDeadEmitter() throws Exception {
+        // Arrange
+        when(equipmentRepo.findAvailabilityByLaboratoryId(LAB)).thenReturn(List.of());
+        service.subscribe(LAB);
+        RecordingEmitter dead = emitters.get(0);
+        dead.fail = true;
+
+        // Act
+        service.onAvailabilityChanged(event(10L, EquipmentAvailabilityEventDTO.IN_USE));
+
+        // Assert
+        await(() -> !service.hasLaboratory(LAB), "La lista vacía debe quitarse del mapa");
+        await(() -> dead.completed, "El emitter debe completarse");
+        service.onAvailabilityChanged(event(10L, EquipmentAvailabilityEventDTO.AVAILABLE));
+        assertEquals(0, service.subscriberCount(LAB));
+    }
+
+    @Test
+    @DisplayName("onAvailabilityChanged - Un cliente que no lee no debe retrasar a los demás y, con la cola llena, debe cerrarse")
+    public void testOnAvailabilityChanged_StalledSubscriber_ShouldNotBlockOthers() throws Exception {
+        // Arrange
+        when(equipmentRepo.findAvailabilityByLaboratoryId(LAB)).thenReturn(List.of());
+        service.subscribe(LAB);
+        service.subscribe(LAB);
+        RecordingEmitter stalled = emitters.get(0);
+        RecordingEmitter healthy = emitters.get(1);
+        CountDownLatch release = new CountDownLatch(1);
+        stalled.block = release;
+
+        // Act: el primer envío queda bloqueado; los tres siguientes llenan su cola y el quinto la desborda
+        for (int i = 0; i < 5; i++) {
+            service.onAvailabilityChanged(event(10L + i, EquipmentAvailabilityEventDTO.IN_USE));
+            Thread.sleep(10);
+        }
+
+        // Assert
+        await(() -> healthy.sent.size() == 5, "El cliente sano debe recibir todos los cambios");
+        assertEquals(1, service.subscriberCount(LAB), "El cliente con la cola llena debe quitarse");
+        release.countDown();
+        await(() -> stalled.completed, "El emitter del cliente lento debe completarse al liberar su envío");
+        assertTrue(stalled.sent.size() <= 1, "No debe enviarse lo que quedó en la cola descartada");
+    }
+
+    @Test
+    @DisplayName("subscribe - Con max-subscribers-per-laboratory alcanzado, debe responder 429 sin registrar el emitter")
+    public void testSubscribe_WhenLaboratoryFull_ShouldReject() {
+        // Arrange
+        when(equipmentRepo.findAvailabilityByLaboratoryId(LAB)).thenReturn(List.of());
+        service.subscribe(LAB);
+        service.subscribe(LAB);
+
+        // Act
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> service.subscribe(LAB));
+
+        // Assert
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, ex.getStatusCode());
+        assertEquals(2, service.subscriberCount(LAB));
+        verify(equipmentRepo, times(2)).findAvailabilityByLaboratoryId(LAB);
+    }
+
+    @Test
+    @DisplayName("subscribe - Si falla la lectura del estado inicial, debe quitar el suscriptor y propagar el error")
+    public void testSubscribe_WhenSnapshotFails_ShouldUnregister() {
+        // Arrange
+        when(equipmentRepo.findAvailabilityByLaboratoryId(LAB)).thenThrow(new IllegalStateException("BD caída"));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> service.subscribe(LAB));
+        assertFalse(service.hasLaboratory(LAB));
+    }
+}
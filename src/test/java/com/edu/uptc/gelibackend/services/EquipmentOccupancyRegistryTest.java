@@ -0,0 +1,190 @@
+package com.edu.uptc.gelibackend.services;
+
+import com.edu.uptc.gelibackend.entities.EquipmentEntity;
+import com.edu.uptc.gelibackend.entities.EquipmentUseEntity;
+import com.edu.uptc.gelibackend.entities.UserEntity;
+import com.edu.uptc.gelibackend.repositories.EquipmentUseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EquipmentOccupancyRegistryTest {
+
+    private static final Long EQUIPMENT = 10L;
+
+    @Mock
+    private EquipmentUseRepository equipmentUseRepo;
+
+    private EquipmentOccupancyRegistry registry;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        registry = new EquipmentOccupancyRegistry(equipmentUseRepo);
+        now = LocalDateTime.now(ZoneId.of("America/Bogota"));
+    }
+
+    private static EquipmentUseEntity openUse(Long useId, Long equipmentId, Long userId, LocalDateTime start) {
+        EquipmentEntity equipment = new EquipmentEntity();
+        equipment.setId(equipmentId);
+        UserEntity user = new UserEntity();
+        user.setId(userId);
+        user.setEmail("user" + userId + "@uptc.edu.co");
+        return EquipmentUseEntity.builder()
+                .id(useId)
+                .equipment(equipment)
+                .user(user)
+                .startUseTime(start)
+                .isInUse(true)
+                .build();
+    }
+
+    @Test
+    @DisplayName("tryAcquire - Con inicios simultáneos sobre el mismo equipo, exactamente uno debe ganar la reserva")
+    public void testTryAcquire_ConcurrentStarts_ExactlyOneWins() throws Exception {
+        // Arrange
+        int callers = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            long userId = i;
+            results.add(pool.submit(() -> {
+                go.await();
+                try {
+                    registry.tryAcquire(EQUIPMENT, userId, "user" + userId + "@uptc.edu.co", now);
+                    return true;
+                } catch (IllegalArgumentException e) {
+                    return false;
+                }
+            }));
+        }
+
+        // Act
+        go.countDown();
+
+        // Assert
+        int winners = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get(5, TimeUnit.SECONDS)) {
+                winners++;
+            }
+        }
+        pool.shutdown();
+        assertEquals(1, winners);
+        assertEquals(1, registry.getSessions(EQUIPMENT).size());
+    }
+
+    @Test
+    @DisplayName("release - Debe liberar la reserva para que otro inicio pueda tomar el equipo")
+    public void testRelease_ShouldFreeReservation() {
+        // Arrange
+        EquipmentOccupancyRegistry.ActiveSession reservation = registry.tryAcquire(EQUIPMENT, 1L, "user1@uptc.edu.co", now);
+
+        // Act
+        registry.release(EQUIPMENT, reservation);
+
+        // Assert
+        assertFalse(registry.isInUse(EQUIPMENT));
+        assertNotNull(registry.tryAcquire(EQUIPMENT, 2L, "user2@uptc.edu.co", now));
+    }
+
+    @Test
+    @DisplayName("confirm - Debe reemplazar la reserva por la sesión con su id de uso")
+    public void testConfirm_ShouldAssignUseId() {
+        // Arrange
+        EquipmentOccupancyRegistry.ActiveSession reservation = registry.tryAcquire(EQUIPMENT, 1L, "user1@uptc.edu.co", now);
+
+        // Act
+        registry.confirm(EQUIPMENT, reservation, 100L);
+
+        // Assert
+        List<EquipmentOccupancyRegistry.ActiveSession> sessions = registry.getSessions(EQUIPMENT);
+        assertEquals(1, sessions.size());
+        assertEquals(100L, sessions.get(0).useId());
+        assertTrue(sessions.get(0).belongsTo("USER1@UPTC.EDU.CO"));
+    }
+
+    @Test
+    @DisplayName("end - Debe devolver la sesión quitada sólo la primera vez")
+    public void testEnd_ShouldReturnSessionOnlyOnce() {
+        // Arrange
+        EquipmentOccupancyRegistry.ActiveSession reservation = registry.tryAcquire(EQUIPMENT, 1L, "user1@uptc.edu.co", now);
+        registry.confirm(EQUIPMENT, reservation, 100L);
+
+        // Act
+        EquipmentOccupancyRegistry.ActiveSession first = registry.end(EQUIPMENT, 100L);
+        EquipmentOccupancyRegistry.ActiveSession second = registry.end(EQUIPMENT, 100L);
+
+        // Assert
+        assertNotNull(first);
+        assertEquals(100L, first.useId());
+        assertNull(second);
+        assertFalse(registry.isInUse(EQUIPMENT));
+    }
+
+    @Test
+    @DisplayName("restore - Debe volver a registrar la sesión finalizada sin duplicarla")
+    public void testRestore_ShouldReregisterWithoutDuplicates() {
+        // Arrange
+        EquipmentOccupancyRegistry.ActiveSession reservation = registry.tryAcquire(EQUIPMENT, 1L, "user1@uptc.edu.co", now);
+        registry.confirm(EQUIPMENT, reservation, 100L);
+        EquipmentOccupancyRegistry.ActiveSession ended = registry.end(EQUIPMENT, 100L);
+
+        // Act
+        registry.restore(EQUIPMENT, ended);
+        registry.restore(EQUIPMENT, ended);
+
+        // Assert
+        assertEquals(List.of(ended), registry.getSessions(EQUIPMENT));
+        assertThrows(IllegalArgumentException.class,
+                () -> registry.tryAcquire(EQUIPMENT, 2L, "user2@uptc.edu.co", now));
+    }
+
+    @Test
+    @DisplayName("rebuild - Debe cargar los usos abiertos de findByIsInUseTrue, incluidos varios sobre un mismo equipo")
+    public void testRebuild_ShouldLoadOpenUses() {
+        // Arrange: datos heredados pueden tener dos usos abiertos sobre el mismo equipo
+        when(equipmentUseRepo.findByIsInUseTrue()).thenReturn(List.of(
+                openUse(100L, EQUIPMENT, 1L, now.minusHours(2)),
+                openUse(101L, EQUIPMENT, 2L, now.minusHours(1)),
+                openUse(102L, 11L, 3L, now)));
+
+        // Act
+        registry.rebuild();
+
+        // Assert
+        assertEquals(List.of(100L, 101L),
+                registry.getSessions(EQUIPMENT).stream().map(EquipmentOccupancyRegistry.ActiveSession::useId).toList());
+        assertTrue(registry.getSessions(11L).get(0).belongsTo("user3@uptc.edu.co"));
+        assertFalse(registry.isInUse(12L));
+        verify(equipmentUseRepo).findByIsInUseTrue();
+    }
+
+    @Test
+    @DisplayName("rebuild - Si la base de datos no responde, debe propagar el error para que la aplicación no arranque")
+    public void testRebuild_WhenDatabaseDown_ShouldThrow() {
+        // Arrange
+        when(equipmentUseRepo.findByIsInUseTrue()).thenThrow(new IllegalStateException("BD caída"));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> registry.afterSingletonsInstantiated());
+    }
+}
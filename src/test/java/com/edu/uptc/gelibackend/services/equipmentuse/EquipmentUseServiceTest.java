@@ -0,0 +1,307 @@
+package com.edu.uptc.gelibackend.services.equipmentuse;
+
+import com.edu.uptc.gelibackend.dtos.EquipmentEndUseDTO;
+import com.edu.uptc.gelibackend.dtos.EquipmentStartUseDTO;
+import com.edu.uptc.gelibackend.dtos.EquipmentUseResponseDTO;
+import com.edu.uptc.gelibackend.entities.EquipmentEntity;
+import com.edu.uptc.gelibackend.entities.EquipmentUseEntity;
+import com.edu.uptc.gelibackend.entities.LaboratoryEntity;
+import com.edu.uptc.gelibackend.entities.UserEntity;
+import com.edu.uptc.gelibackend.mappers.EquipmentUseMapper;
+import com.edu.uptc.gelibackend.repositories.EquipmentRepository;
+import com.edu.uptc.gelibackend.repositories.EquipmentUseRepository;
+import com.edu.uptc.gelibackend.repositories.FunctionRepository;
+import com.edu.uptc.gelibackend.repositories.UserRepository;
+import com.edu.uptc.gelibackend.services.EquipmentAvailabilityStreamService;
+import com.edu.uptc.gelibackend.services.EquipmentOccupancyRegistry;
+import com.edu.uptc.gelibackend.services.EquipmentUseService;
+import com.edu.uptc.gelibackend.specifications.EquipmentUseSpecification;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class EquipmentUseServiceTest {
+
+    private static final Long EQUIPMENT = 10L;
+    private static final Long USE = 100L;
+    private static final String EMAIL = "user1@uptc.edu.co";
+
+    @Mock
+    private EquipmentUseRepository equipmentUseRepo;
+    @Mock
+    private UserRepository userRepo;
+    @Mock
+    private EquipmentRepository equipmentRepo;
+    @Mock
+    private FunctionRepository functionRepo;
+    @Mock
+    private EquipmentUseMapper mapper;
+    @Mock
+    private EquipmentUseSpecification specification;
+    @Mock
+    private EquipmentAvailabilityStreamService availabilityStreamService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    // Registro real: las pruebas miran la ocupación que deja cada camino
+    private EquipmentOccupancyRegistry occupancyRegistry;
+    private EquipmentUseService service;
+    private EquipmentEntity equipment;
+    private UserEntity user;
+
+    @BeforeEach
+    void setUp() {
+        occupancyRegistry = new EquipmentOccupancyRegistry(equipmentUseRepo);
+        service = new EquipmentUseService(equipmentUseRepo, userRepo, equipmentRepo, functionRepo, mapper,
+                specification, occupancyRegistry, availabilityStreamService, eventPublisher);
+
+        LaboratoryEntity laboratory = new LaboratoryEntity();
+        laboratory.setId(1L);
+        equipment = new EquipmentEntity();
+        equipment.setId(EQUIPMENT);
+        equipment.setLaboratory(laboratory);
+        equipment.setAvailability(true);
+        user = new UserEntity();
+        user.setId(1L);
+        user.setEmail(EMAIL.toUpperCase());
+
+        when(userRepo.findByEmail(EMAIL.toUpperCase())).thenReturn(user);
+        when(equipmentRepo.findById(EQUIPMENT)).thenReturn(Optional.of(equipment));
+        when(mapper.toResponseDTO(any(EquipmentUseEntity.class))).thenReturn(new EquipmentUseResponseDTO());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private void stubSaveAssigningId() {
+        when(equipmentUseRepo.save(any(EquipmentUseEntity.class))).thenAnswer(invocation -> {
+            EquipmentUseEntity entity = invocation.getArgument(0);
+            if (entity.getId() == null) {
+                entity.setId(USE);
+            }
+            return entity;
+        });
+    }
+
+    // Simula el fin de la transacción en curso con el estado dado
+    private static void completeTransaction(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    private EquipmentUseEntity openUse() {
+        EquipmentUseEntity use = EquipmentUseEntity.builder()
+                .id(USE)
+                .equipment(equipment)
+                .user(user)
+                .startUseTime(LocalDateTime.now(ZoneId.of("America/Bogota")).minusHours(1))
+                .isInUse(true)
+                .build();
+        EquipmentOccupancyRegistry.ActiveSession reservation =
+                occupancyRegistry.tryAcquire(EQUIPMENT, user.getId(), EMAIL, use.getStartUseTime());
+        occupancyRegistry.confirm(EQUIPMENT, reservation, USE);
+        when(equipmentUseRepo.findById(USE)).thenReturn(Optional.of(use));
+        return use;
+    }
+
+    private static EquipmentEndUseDTO endDTO() {
+        return new EquipmentEndUseDTO(false, true, true, 3, List.of(), "Sin novedad");
+    }
+
+    @Test
+    @DisplayName("startEquipmentUse - Con dos inicios simultáneos sobre el mismo equipo, sólo uno debe guardarse")
+    public void testStartEquipmentUse_ConcurrentStarts_ExactlyOneSaved() throws Exception {
+        // Arrange: el guardado tarda, así que los dos inicios se solapan
+        CountDownLatch saving = new CountDownLatch(1);
+        CountDownLatch finishSave = new CountDownLatch(1);
+        when(equipmentUseRepo.save(any(EquipmentUseEntity.class))).thenAnswer(invocation -> {
+            saving.countDown();
+            finishSave.await(5, TimeUnit.SECONDS);
+            EquipmentUseEntity entity = invocation.getArgument(0);
+            entity.setId(USE);
+            return entity;
+        });
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        EquipmentStartUseDTO request = new EquipmentStartUseDTO(EQUIPMENT, user.getId());
+
+        // Act
+        Future<?> first = callers.submit(() -> service.startEquipmentUse(request, EMAIL));
+        assertTrue(saving.await(5, TimeUnit.SECONDS));
+        Future<?> second = callers.submit(() -> service.startEquipmentUse(request, EMAIL));
+        Exception rejected = assertThrows(Exception.class, () -> second.get(5, TimeUnit.SECONDS));
+        finishSave.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        callers.shutdown();
+
+        // Assert
+        assertInstanceOf(IllegalArgumentException.class, rejected.getCause());
+        verify(equipmentUseRepo, times(1)).save(any(EquipmentUseEntity.class));
+        assertEquals(List.of(USE),
+                occupancyRegistry.getSessions(EQUIPMENT).stream().map(EquipmentOccupancyRegistry.ActiveSession::useId).toList());
+    }
+
+    @Test
+    @DisplayName("startEquipmentUse - Si el guardado falla, debe liberar la reserva y propagar el error")
+    public void testStartEquipmentUse_WhenSaveFails_ShouldReleaseReservation() {
+        // Arrange
+        when(equipmentUseRepo.save(any(EquipmentUseEntity.class)))
+                .thenThrow(new DataIntegrityViolationException("ORA-02291"));
+
+        // Act & Assert
+        assertThrows(DataIntegrityViolationException.class,
+                () -> service.startEquipmentUse(new EquipmentStartUseDTO(EQUIPMENT, user.getId()), EMAIL));
+        assertFalse(occupancyRegistry.isInUse(EQUIPMENT));
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    @DisplayName("startEquipmentUse - Si la transacción se revierte tras guardar, debe quitar la sesión del registro")
+    public void testStartEquipmentUse_WhenTransactionRollsBack_ShouldReleaseSession() {
+        // Arrange
+        stubSaveAssigningId();
+        TransactionSynchronizationManager.initSynchronization();
+        service.startEquipmentUse(new EquipmentStartUseDTO(EQUIPMENT, user.getId()), EMAIL);
+        assertTrue(occupancyRegistry.isInUse(EQUIPMENT));
+
+        // Act
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // Assert
+        assertFalse(occupancyRegistry.isInUse(EQUIPMENT));
+    }
+
+    @Test
+    @DisplayName("startEquipmentUse - Si la transacción se confirma, la sesión debe quedar registrada")
+    public void testStartEquipmentUse_WhenTransactionCommits_ShouldKeepSession() {
+        // Arrange
+        stubSaveAssigningId();
+        TransactionSynchronizationManager.initSynchronization();
+        service.startEquipmentUse(new EquipmentStartUseDTO(EQUIPMENT, user.getId()), EMAIL);
+
+        // Act
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        // Assert
+        assertTrue(occupancyRegistry.isInUse(EQUIPMENT));
+        assertTrue(occupancyRegistry.getSessions(EQUIPMENT).get(0).belongsTo(EMAIL));
+    }
+
+    @Test
+    @DisplayName("endEquipmentUse - Si el fin marcado con markEnded no se confirma, debe restaurar la sesión")
+    public void testEndEquipmentUse_WhenTransactionRollsBack_ShouldRestoreSession() {
+        // Arrange
+        openUse();
+        stubSaveAssigningId();
+        when(equipmentUseRepo.markEnded(eq(USE), any(LocalDateTime.class))).thenReturn(1);
+        TransactionSynchronizationManager.initSynchronization();
+        service.endEquipmentUse(USE, endDTO());
+        assertFalse(occupancyRegistry.isInUse(EQUIPMENT));
+
+        // Act
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // Assert
+        assertEquals(List.of(USE),
+                occupancyRegistry.getSessions(EQUIPMENT).stream().map(EquipmentOccupancyRegistry.ActiveSession::useId).toList());
+    }
+
+    @Test
+    @DisplayName("endEquipmentUse - Si la transacción se confirma, el equipo debe quedar libre")
+    public void testEndEquipmentUse_WhenTransactionCommits_ShouldFreeEquipment() {
+        // Arrange
+        openUse();
+        stubSaveAssigningId();
+        when(equipmentUseRepo.markEnded(eq(USE), any(LocalDateTime.class))).thenReturn(1);
+        TransactionSynchronizationManager.initSynchronization();
+        service.endEquipmentUse(USE, endDTO());
+
+        // Act
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        // Assert
+        assertFalse(occupancyRegistry.isInUse(EQUIPMENT));
+    }
+
+    @Test
+    @DisplayName("endEquipmentUse - Si otra finalización ya marcó el uso, debe rechazarla sin tocar el registro")
+    public void testEndEquipmentUse_WhenAlreadyMarkedEnded_ShouldThrow() {
+        // Arrange
+        openUse();
+        when(equipmentUseRepo.markEnded(eq(USE), any(LocalDateTime.class))).thenReturn(0);
+
+        // Act & Assert
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> service.endEquipmentUse(USE, endDTO()));
+        assertTrue(ex.getMessage().contains("already ended"));
+        assertTrue(occupancyRegistry.isInUse(EQUIPMENT));
+        verify(equipmentUseRepo, never()).save(any(EquipmentUseEntity.class));
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    @DisplayName("endEquipmentUse - Dos finalizaciones simultáneas del mismo uso deben publicar un solo fin")
+    public void testEndEquipmentUse_ConcurrentEnds_ShouldPublishOnce() throws Exception {
+        // Arrange: markEnded sólo actualiza la primera vez, como el UPDATE ... WHERE is_in_use = true
+        openUse();
+        stubSaveAssigningId();
+        List<Boolean> marked = new ArrayList<>();
+        when(equipmentUseRepo.markEnded(eq(USE), any(LocalDateTime.class))).thenAnswer(invocation -> {
+            synchronized (marked) {
+                marked.add(true);
+                return marked.size() == 1 ? 1 : 0;
+            }
+        });
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+
+        // Act
+        Future<?> first = callers.submit(() -> service.endEquipmentUse(USE, endDTO()));
+        Future<?> second = callers.submit(() -> service.endEquipmentUse(USE, endDTO()));
+        int failures = 0;
+        for (Future<?> result : List.of(first, second)) {
+            try {
+                result.get(5, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                failures++;
+            }
+        }
+        callers.shutdown();
+
+        // Assert
+        assertEquals(1, failures);
+        verify(equipmentUseRepo, times(1)).save(any(EquipmentUseEntity.class));
+        verify(eventPublisher, times(2)).publishEvent(any(Object.class));
+    }
+}
@@ -0,0 +1,87 @@
+package com.edu.uptc.gelibackend.services.keycloak;
+
+import com.edu.uptc.gelibackend.services.KeyCloakUserCache;
+import com.edu.uptc.gelibackend.services.KeyCloakUserService;
+import jakarta.ws.rs.InternalServerErrorException;
+import jakarta.ws.rs.NotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.resource.UsersResource;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class KeyCloakUserServiceTest {
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private Keycloak keyCloakProvider;
+
+    @Mock
+    private KeyCloakUserCache userCache;
+
+    private KeyCloakUserService service;
+    private UsersResource users;
+
+    @BeforeEach
+    void setUp() {
+        service = new KeyCloakUserService(keyCloakProvider, userCache);
+        ReflectionTestUtils.setField(service, "REALM", "geli");
+        ReflectionTestUtils.setField(service, "CONNECTION_POOL_SIZE", 4);
+        ReflectionTestUtils.setField(service, "LOOKUP_CONCURRENCY", 4);
+        ReflectionTestUtils.invokeMethod(service, "initLookupExecutor");
+        users = keyCloakProvider.realm("geli").users();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(service, "shutdownLookupExecutor");
+    }
+
+    private void stubUser(String id) {
+        UserRepresentation user = new UserRepresentation();
+        user.setId(id);
+        when(users.get(id).toRepresentation()).thenReturn(user);
+        when(users.get(id).roles().realmLevel().listAll()).thenReturn(List.of());
+    }
+
+    @Test
+    @DisplayName("getByIds - Debe devolver los usuarios encontrados y omitir los que ya no existen en Keycloak")
+    public void testGetByIds_ShouldSkipMissingUsers() {
+        // Arrange
+        stubUser("a");
+        when(users.get("gone").toRepresentation()).thenThrow(new NotFoundException());
+
+        // Act
+        Map<String, UserRepresentation> result = service.getByIds(List.of("a", "gone"));
+
+        // Assert
+        assertEquals(List.of("a"), List.copyOf(result.keySet()));
+    }
+
+    @Test
+    @DisplayName("getByIds - Si una consulta falla por otra causa, debe propagar esa excepción sin envolverla")
+    public void testGetByIds_WhenLookupFails_ShouldRethrowCause() {
+        // Arrange
+        stubUser("a");
+        InternalServerErrorException failure = new InternalServerErrorException("Keycloak caído");
+        when(users.get("b").toRepresentation()).thenThrow(failure);
+
+        // Act & Assert
+        InternalServerErrorException thrown = assertThrows(InternalServerErrorException.class,
+                () -> service.getByIds(List.of("a", "b")));
+        assertSame(failure, thrown);
+    }
+}
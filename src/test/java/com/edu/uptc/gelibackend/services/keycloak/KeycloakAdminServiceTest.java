@@ -0,0 +1,217 @@
+package com.edu.uptc.gelibackend.services.keycloak;
+
+import com.edu.uptc.gelibackend.services.KeycloakAdminService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class KeycloakAdminServiceTest {
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    private KeycloakAdminService service;
+    private final AtomicInteger issuedTokens = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        service = new KeycloakAdminService(restTemplate);
+        ReflectionTestUtils.setField(service, "refreshBeforeExpiryMs", 30_000L);
+        ReflectionTestUtils.setField(service, "keycloakUrl", "http://keycloak");
+        ReflectionTestUtils.setField(service, "realm", "geli");
+        ReflectionTestUtils.setField(service, "clientId", "geli-backend");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(service, "shutdownTokenExecutor");
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void stubTokenEndpoint(CountDownLatch release, long expiresInSeconds) {
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class), eq(Map.class)))
+                .thenAnswer(invocation -> {
+                    if (release != null) {
+                        release.await(5, TimeUnit.SECONDS);
+                    }
+                    return ResponseEntity.ok(Map.of(
+                            "access_token", "token-" + issuedTokens.incrementAndGet(),
+                            "expires_in", expiresInSeconds
+                    ));
+                });
+    }
+
+    @SuppressWarnings("unchecked")
+    private void verifyTokenRequests(int times) {
+        verify(restTemplate, times(times)).exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class), eq(Map.class));
+    }
+
+    private static HttpClientErrorException unauthorized() {
+        return HttpClientErrorException.create(HttpStatus.UNAUTHORIZED, "Unauthorized", HttpHeaders.EMPTY, null, null);
+    }
+
+    @Test
+    @DisplayName("getAdminToken - Con peticiones concurrentes y sin token, debe pedir un solo token a Keycloak")
+    public void testGetAdminToken_ConcurrentCallers_ShouldShareOneRequest() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        stubTokenEndpoint(release, 300);
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+
+        // Act
+        List<Future<String>> tokens = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            tokens.add(callers.submit(service::getAdminToken));
+        }
+        Thread.sleep(100);
+        release.countDown();
+
+        // Assert
+        for (Future<String> token : tokens) {
+            assertEquals("token-1", token.get(5, TimeUnit.SECONDS));
+        }
+        callers.shutdown();
+        verifyTokenRequests(1);
+    }
+
+    @Test
+    @DisplayName("getAdminToken - Con un token vigente fuera de la ventana de renovación, no debe llamar a Keycloak")
+    public void testGetAdminToken_WhenTokenFresh_ShouldUseCache() {
+        // Arrange
+        stubTokenEndpoint(null, 300);
+        service.getAdminToken();
+
+        // Act
+        String token = service.getAdminToken();
+
+        // Assert
+        assertEquals("token-1", token);
+        verifyTokenRequests(1);
+    }
+
+    @Test
+    @DisplayName("getAdminToken - En la ventana de renovación, debe devolver el token actual y renovarlo en segundo plano")
+    public void testGetAdminToken_InRefreshWindow_ShouldReturnCurrentAndRefreshInBackground() throws Exception {
+        // Arrange: expira a los 2 s y, al ser menos de 2 * refresh-before-expiry-ms, se renueva a la mitad
+        stubTokenEndpoint(null, 2);
+        assertEquals("token-1", service.getAdminToken());
+        Thread.sleep(1_100);
+        CountDownLatch blockRefresh = new CountDownLatch(1);
+        reset(restTemplate);
+        stubTokenEndpoint(blockRefresh, 2);
+
+        // Act: la renovación queda bloqueada, el llamador no la espera
+        long start = System.nanoTime();
+        String duringRefresh = service.getAdminToken();
+        long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        blockRefresh.countDown();
+
+        // Assert
+        assertEquals("token-1", duringRefresh);
+        assertTrue(waitedMs < 500, "No debe esperar la renovación: " + waitedMs + " ms");
+        verify(restTemplate, timeout(2_000)).exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class), eq(Map.class));
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (!"token-2".equals(service.getAdminToken()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals("token-2", service.getAdminToken());
+    }
+
+    @Test
+    @DisplayName("getAdminToken - Si falla la primera petición del token, debe propagar el error de Keycloak")
+    @SuppressWarnings("unchecked")
+    public void testGetAdminToken_WhenKeycloakDown_ShouldThrowCause() {
+        // Arrange
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class), eq(Map.class)))
+                .thenThrow(new ResourceAccessException("Connection refused"));
+
+        // Act & Assert
+        assertThrows(ResourceAccessException.class, () -> service.getAdminToken());
+    }
+
+    @Test
+    @DisplayName("withAdminToken - Si Keycloak responde 401, debe descartar el token y reintentar una vez con uno nuevo")
+    public void testWithAdminToken_WhenUnauthorized_ShouldInvalidateAndRetryOnce() {
+        // Arrange
+        stubTokenEndpoint(null, 300);
+        List<String> usedTokens = new ArrayList<>();
+
+        // Act
+        String result = service.withAdminToken(token -> {
+            usedTokens.add(token);
+            if (token.equals("token-1")) {
+                throw unauthorized();
+            }
+            return "ok";
+        });
+
+        // Assert
+        assertEquals("ok", result);
+        assertEquals(List.of("token-1", "token-2"), usedTokens);
+        assertEquals("token-2", service.getAdminToken(), "El token nuevo queda en caché");
+        verifyTokenRequests(2);
+    }
+
+    @Test
+    @DisplayName("withAdminToken - Si el reintento también da 401, debe propagar el error sin más reintentos")
+    public void testWithAdminToken_WhenRetryUnauthorized_ShouldThrow() {
+        // Arrange
+        stubTokenEndpoint(null, 300);
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act & Assert
+        assertThrows(HttpClientErrorException.Unauthorized.class, () -> service.withAdminToken(token -> {
+            calls.incrementAndGet();
+            throw unauthorized();
+        }));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    @DisplayName("invalidate - Si el token ya fue reemplazado, debe conservar el nuevo")
+    public void testInvalidate_WhenTokenAlreadyReplaced_ShouldKeepNewToken() {
+        // Arrange
+        stubTokenEndpoint(null, 300);
+        String first = service.getAdminToken();
+        service.invalidate(first);
+        String second = service.getAdminToken();
+
+        // Act: otra petición que usó el primer token lo invalida tarde
+        service.invalidate(first);
+
+        // Assert
+        assertEquals("token-2", second);
+        assertEquals("token-2", service.getAdminToken());
+        verifyTokenRequests(2);
+    }
+}
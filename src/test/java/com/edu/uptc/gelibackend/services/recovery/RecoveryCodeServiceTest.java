@@ -0,0 +1,156 @@
+package com.edu.uptc.gelibackend.services.recovery;
+
+import com.edu.uptc.gelibackend.entities.PasswordRecoveryCode;
+import com.edu.uptc.gelibackend.repositories.PasswordRecoveryCodeRepository;
+import com.edu.uptc.gelibackend.services.RecoveryCodeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RecoveryCodeServiceTest {
+
+    @Mock
+    private PasswordRecoveryCodeRepository repository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private RecoveryCodeService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new RecoveryCodeService(repository, transactionManager);
+        ReflectionTestUtils.setField(service, "sweepBatchSize", 500);
+    }
+
+    @Test
+    @DisplayName("findByTempToken - Debe resolver el token contra la tabla y descartar el código vencido")
+    public void testFindByTempToken_ShouldReadTableAndDropExpired() {
+        // Arrange
+        PasswordRecoveryCode active = code("alice", "123456", bogotaNow().plusMinutes(3));
+        active.setTempToken("token-1");
+        when(repository.findByTempToken("token-1")).thenReturn(Optional.of(active));
+        when(repository.findByTempToken("token-2")).thenReturn(Optional.of(code("bob", "654321", bogotaNow().minusMinutes(1))));
+
+        // Act & Assert
+        assertEquals("alice", service.getUsernameByTempToken("token-1"));
+        assertTrue(service.findByTempToken("token-2").isEmpty(), "Un código vencido no debe resolverse");
+        assertTrue(service.findByTempToken(null).isEmpty());
+        verify(repository, never()).findByTempToken(null);
+    }
+
+    @Test
+    @DisplayName("generateCode - Debe borrar el código anterior y guardar uno nuevo de seis dígitos que vence en CODE_VALIDITY")
+    public void testGenerateCode_ShouldReplacePreviousCode() {
+        // Arrange
+        when(repository.save(any(PasswordRecoveryCode.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        LocalDateTime before = bogotaNow();
+
+        // Act
+        String code = service.generateCode("alice");
+
+        // Assert
+        ArgumentCaptor<PasswordRecoveryCode> saved = ArgumentCaptor.forClass(PasswordRecoveryCode.class);
+        InOrder inOrder = inOrder(repository);
+        inOrder.verify(repository).deleteByUsername("alice");
+        inOrder.verify(repository).save(saved.capture());
+        assertEquals(code, saved.getValue().getCode());
+        assertEquals("alice", saved.getValue().getUsername());
+        assertFalse(saved.getValue().getExpiresAt().isBefore(before.plus(RecoveryCodeService.CODE_VALIDITY)));
+    }
+
+    @Test
+    @DisplayName("verifyCode - Debe aceptar sólo el código vigente en la tabla, aunque esta instancia haya generado otro")
+    public void testVerifyCode_WhenRegeneratedOnAnotherNode_ShouldUseStoredCode() {
+        // Arrange: esta instancia generó un código y otra lo regeneró después
+        when(repository.save(any(PasswordRecoveryCode.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        String localCode = service.generateCode("alice");
+        String storedCode = localCode.equals("111111") ? "222222" : "111111";
+        when(repository.findByUsername("alice")).thenReturn(Optional.of(code("alice", storedCode, bogotaNow().plusHours(1))));
+
+        // Act & Assert
+        assertFalse(service.verifyCode("alice", localCode), "El código reemplazado no debe aceptarse");
+        assertTrue(service.verifyCode("alice", storedCode), "El código vigente en la tabla debe aceptarse");
+        verify(repository, times(2)).findByUsername("alice");
+    }
+
+    @Test
+    @DisplayName("verifyCode - Un código vencido en la tabla no se acepta")
+    public void testVerifyCode_WhenStoredCodeExpired_ShouldReject() {
+        // Arrange
+        when(repository.findByUsername("alice")).thenReturn(Optional.of(code("alice", "123456", bogotaNow().minusHours(1))));
+
+        // Act & Assert
+        assertFalse(service.verifyCode("alice", "123456"));
+    }
+
+    @Test
+    @DisplayName("generateCode - Si otro envío simultáneo insertó primero, debe reintentar y dejar su propio código")
+    public void testGenerateCode_WhenConcurrentInsertWins_ShouldRetry() {
+        // Arrange
+        when(repository.save(any(PasswordRecoveryCode.class)))
+                .thenThrow(new DataIntegrityViolationException("ORA-00001: unique constraint (PRC_USERNAME_UK) violated"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        String code = service.generateCode("alice");
+
+        // Assert
+        assertTrue(code.matches("\\d{6}"));
+        verify(repository, times(2)).deleteByUsername("alice");
+        verify(transactionManager).rollback(any());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    @DisplayName("generateCode - Si el choque se repite en todos los intentos, debe propagar la violación")
+    public void testGenerateCode_WhenConflictPersists_ShouldThrow() {
+        // Arrange
+        when(repository.save(any(PasswordRecoveryCode.class)))
+                .thenThrow(new DataIntegrityViolationException("ORA-00001"));
+
+        // Act & Assert
+        assertThrows(DataIntegrityViolationException.class, () -> service.generateCode("alice"));
+        verify(repository, times(3)).save(any(PasswordRecoveryCode.class));
+    }
+
+    @Test
+    @DisplayName("sweepExpired - Borra por lotes hasta que un lote viene incompleto")
+    public void testSweepExpired_ShouldDeleteInBatchesUntilPartialBatch() {
+        // Arrange
+        when(repository.deleteExpired(any(LocalDateTime.class), anyInt())).thenReturn(500, 500, 20);
+
+        // Act
+        service.sweepExpired();
+
+        // Assert
+        verify(repository, times(3)).deleteExpired(any(LocalDateTime.class), eq(500));
+    }
+
+    // El servicio trabaja con la hora de Bogotá
+    private static LocalDateTime bogotaNow() {
+        return LocalDateTime.now(ZoneId.of("America/Bogota"));
+    }
+
+    private static PasswordRecoveryCode code(String username, String code, LocalDateTime expiresAt) {
+        return new PasswordRecoveryCode(1L, username, code, null, expiresAt.minusMinutes(5), expiresAt);
+    }
+}
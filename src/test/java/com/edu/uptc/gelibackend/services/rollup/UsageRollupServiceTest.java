@@ -0,0 +1,186 @@
+package com.edu.uptc.gelibackend.services.rollup;
+
+import com.edu.uptc.gelibackend.repositories.EquipmentUsageRollupRepository;
+import com.edu.uptc.gelibackend.repositories.FunctionUsageRollupRepository;
+import com.edu.uptc.gelibackend.services.EquipmentUseEndedEvent;
+import com.edu.uptc.gelibackend.services.UsageRollupService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UsageRollupServiceTest {
+
+    @Mock
+    private EquipmentUsageRollupRepository usageRollupRepo;
+
+    @Mock
+    private FunctionUsageRollupRepository functionRollupRepo;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private UsageRollupService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new UsageRollupService(usageRollupRepo, functionRollupRepo, transactionManager);
+        ReflectionTestUtils.setField(service, "rebuildDays", 2);
+        ReflectionTestUtils.setField(service, "rebuildMaxDays", 93);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static EquipmentUseEndedEvent ended(LocalDateTime start, LocalDateTime end, int samples, List<Long> functions) {
+        return new EquipmentUseEndedEvent(100L, 10L, 1L, start, end, samples, functions);
+    }
+
+    @Test
+    @DisplayName("onEquipmentUseEnded - Debe sumar los minutos completos y las muestras a la franja del día y hora de inicio")
+    public void testOnEquipmentUseEnded_ShouldAddMinutesAndSamplesToStartBucket() {
+        // Arrange: 1 h 29 min 59 s, con milisegundos que no cuentan
+        LocalDateTime start = LocalDateTime.of(2025, 3, 14, 9, 45, 10, 900_000_000);
+        LocalDateTime end = LocalDateTime.of(2025, 3, 14, 11, 15, 9, 100_000_000);
+
+        // Act
+        service.onEquipmentUseEnded(ended(start, end, 7, List.of(5L, 6L)));
+
+        // Assert
+        verify(usageRollupRepo).addSession(10L, 1L, LocalDate.of(2025, 3, 14), 9, 89L, 7L);
+        verify(functionRollupRepo).addUse(10L, 1L, 5L, LocalDate.of(2025, 3, 14), 9);
+        verify(functionRollupRepo).addUse(10L, 1L, 6L, LocalDate.of(2025, 3, 14), 9);
+    }
+
+    @Test
+    @DisplayName("onEquipmentUseEnded - Un uso que cruza la medianoche debe quedar en el día en que empezó")
+    public void testOnEquipmentUseEnded_AcrossMidnight_ShouldUseStartDay() {
+        // Arrange
+        LocalDateTime start = LocalDateTime.of(2025, 3, 14, 23, 50);
+        LocalDateTime end = LocalDateTime.of(2025, 3, 15, 0, 20);
+
+        // Act
+        service.onEquipmentUseEnded(ended(start, end, 0, List.of()));
+
+        // Assert
+        verify(usageRollupRepo).addSession(10L, 1L, LocalDate.of(2025, 3, 14), 23, 30L, 0L);
+        verifyNoInteractions(functionRollupRepo);
+    }
+
+    @Test
+    @DisplayName("onEquipmentUseEnded - Si la suma falla, no debe propagar el error al fin del uso")
+    public void testOnEquipmentUseEnded_WhenMergeFails_ShouldNotThrow() {
+        // Arrange
+        when(usageRollupRepo.addSession(anyLong(), anyLong(), any(), anyInt(), anyLong(), anyLong()))
+                .thenThrow(new IllegalStateException("ORA-00060"));
+        LocalDateTime start = LocalDateTime.of(2025, 3, 14, 9, 0);
+
+        // Act & Assert
+        assertDoesNotThrow(() -> service.onEquipmentUseEnded(ended(start, start.plusHours(1), 1, List.of())));
+    }
+
+    @Test
+    @DisplayName("rebuild - Debe reconstruir mes a mes, con el primer y el último tramo recortados al rango")
+    public void testRebuild_ShouldSplitByMonth() {
+        // Arrange
+        when(usageRollupRepo.rebuildBuckets(any(), any())).thenReturn(10);
+
+        // Act
+        int buckets = service.rebuild(LocalDate.of(2025, 1, 15), LocalDate.of(2025, 3, 10));
+
+        // Assert
+        assertEquals(30, buckets);
+        InOrder inOrder = inOrder(usageRollupRepo);
+        inOrder.verify(usageRollupRepo).deleteBuckets(LocalDate.of(2025, 1, 15), LocalDate.of(2025, 2, 1));
+        inOrder.verify(usageRollupRepo).rebuildBuckets(LocalDateTime.of(2025, 1, 15, 0, 0), LocalDateTime.of(2025, 2, 1, 0, 0));
+        inOrder.verify(usageRollupRepo).deleteBuckets(LocalDate.of(2025, 2, 1), LocalDate.of(2025, 3, 1));
+        inOrder.verify(usageRollupRepo).rebuildBuckets(LocalDateTime.of(2025, 2, 1, 0, 0), LocalDateTime.of(2025, 3, 1, 0, 0));
+        inOrder.verify(usageRollupRepo).deleteBuckets(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 11));
+        inOrder.verify(usageRollupRepo).rebuildBuckets(LocalDateTime.of(2025, 3, 1, 0, 0), LocalDateTime.of(2025, 3, 11, 0, 0));
+        verify(functionRollupRepo, times(3)).deleteBuckets(any(), any());
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    @DisplayName("rebuild - Un rango dentro de un mismo día debe ser un solo tramo")
+    public void testRebuild_SingleDay_ShouldRunOneChunk() {
+        // Act
+        service.rebuild(LocalDate.of(2025, 12, 31), LocalDate.of(2025, 12, 31));
+
+        // Assert
+        verify(usageRollupRepo).deleteBuckets(LocalDate.of(2025, 12, 31), LocalDate.of(2026, 1, 1));
+        verify(usageRollupRepo, times(1)).rebuildBuckets(any(), any());
+    }
+
+    @Test
+    @DisplayName("rebuildRequested - Con un rango más largo que rebuild-max-days o invertido, debe lanzar IllegalArgumentException")
+    public void testRebuildRequested_WhenRangeTooLong_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class,
+                () -> service.rebuildRequested(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 4, 4)));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.rebuildRequested(LocalDate.of(2025, 2, 1), LocalDate.of(2025, 1, 1)));
+        verifyNoInteractions(usageRollupRepo);
+
+        service.rebuildRequested(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 4, 3));
+        verify(usageRollupRepo, times(4)).rebuildBuckets(any(), any());
+    }
+
+    @Test
+    @DisplayName("rebuild - Debe esperar a que termine la suma de un uso cuyo fin se está confirmando")
+    public void testRebuild_WhileUseCommitting_ShouldWaitForIncrementalAdd() throws Exception {
+        // Arrange: el fin del uso llegó a BEFORE_COMMIT y aún no se suma
+        LocalDateTime start = LocalDateTime.of(2025, 3, 14, 9, 0);
+        EquipmentUseEndedEvent event = ended(start, start.plusHours(1), 1, List.of());
+        TransactionSynchronizationManager.initSynchronization();
+        service.holdRebuildsUntilAdded(event);
+        ExecutorService rebuilder = Executors.newSingleThreadExecutor();
+
+        // Act
+        Future<Integer> rebuild = rebuilder.submit(() -> service.rebuild(LocalDate.of(2025, 3, 14), LocalDate.of(2025, 3, 14)));
+        Thread.sleep(200);
+        boolean startedBeforeAdd = mockingDetails(usageRollupRepo).getInvocations().stream()
+                .anyMatch(invocation -> invocation.getMethod().getName().equals("deleteBuckets"));
+
+        // Tras confirmar: la suma incremental y luego afterCompletion
+        service.onEquipmentUseEnded(event);
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        rebuild.get(5, TimeUnit.SECONDS);
+        rebuilder.shutdown();
+
+        // Assert
+        assertFalse(startedBeforeAdd, "La reconstrucción no debe empezar mientras el uso se confirma");
+        InOrder inOrder = inOrder(usageRollupRepo);
+        inOrder.verify(usageRollupRepo).addSession(eq(10L), eq(1L), any(), anyInt(), eq(60L), eq(1L));
+        inOrder.verify(usageRollupRepo).deleteBuckets(any(), any());
+    }
+}
@@ -2,15 +2,16 @@ package com.edu.uptc.gelibackend.services.users;
 
 import com.edu.uptc.gelibackend.mappers.UserMapper;
 import com.edu.uptc.gelibackend.repositories.*;
+import com.edu.uptc.gelibackend.services.EmailOutboxService;
 import com.edu.uptc.gelibackend.services.KeyCloakUserService;
 import com.edu.uptc.gelibackend.services.UserService;
 import com.edu.uptc.gelibackend.specifications.UserSpecification;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.mail.javamail.JavaMailSender;
 
 @ExtendWith(MockitoExtension.class)
 public abstract class BaseUserServiceTest {
@@ -43,7 +44,10 @@ public abstract class BaseUserServiceTest {
     protected AuthorizedUserEquipmentsRepo authorizedUserEquipmentsRepo;
     
     @Mock
-    protected JavaMailSender mailSender;
+    protected EmailOutboxService emailOutboxService;
+
+    @Mock
+    protected EntityManager entityManager;
     
     @InjectMocks
     protected UserService userService;
@@ -3,7 +3,7 @@ package com.edu.uptc.gelibackend.services.users;
 import com.edu.uptc.gelibackend.dtos.PositionDTO;
 import com.edu.uptc.gelibackend.dtos.UserResponseDTO;
 import com.edu.uptc.gelibackend.entities.UserEntity;
-import com.edu.uptc.gelibackend.entities.UserStatusHistoryEntity;
+import com.edu.uptc.gelibackend.repositories.projections.UserLatestStatusChange;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
@@ -20,7 +20,7 @@ public class UsersServiceFindTest extends BaseUserServiceTest {
     public void testGetAllUsers_WhenNoUsers_ShouldReturnEmptyList() {
         // Arrange (Preparar)
         when(userRepo.findAll()).thenReturn(Collections.emptyList());
-        when(historyRepo.findAll()).thenReturn(Collections.emptyList());
+        when(historyRepo.findLatestStatusChangePerUser()).thenReturn(Collections.emptyList());
 
         // Act (Actuar)
         List<UserResponseDTO> result = userService.findAll();
@@ -31,7 +31,7 @@ public class UsersServiceFindTest extends BaseUserServiceTest {
 
         // Verificar interacciones con los mocks
         verify(userRepo, times(1)).findAll();
-        verify(historyRepo, times(1)).findAll();
+        verify(historyRepo, times(1)).findLatestStatusChangePerUser();
 
         // Verificar que no hubo más interacciones con los mocks
         verifyNoMoreInteractions(userRepo, historyRepo);
@@ -43,7 +43,7 @@ public class UsersServiceFindTest extends BaseUserServiceTest {
                 userSpecification,
                 positionHistoryRepo,
                 authorizedUserEquipmentsRepo,
-                mailSender
+                emailOutboxService
         );
     }
 
@@ -53,7 +53,7 @@ public class UsersServiceFindTest extends BaseUserServiceTest {
         // Arrange
         List<UserEntity> mockUsers = dataProvider.usersListMock();
         when(userRepo.findAll()).thenReturn(mockUsers);
-        when(historyRepo.findAll()).thenReturn(Collections.emptyList());
+        when(historyRepo.findLatestStatusChangePerUser()).thenReturn(Collections.emptyList());
 
         // Configurar el mock para que devuelva los usuarios con sus datos
         when(mapper.completeDTOWithEntity(any(UserResponseDTO.class), any(UserEntity.class)))
@@ -84,7 +84,7 @@ public class UsersServiceFindTest extends BaseUserServiceTest {
 
         // Verificar que se llamó a los repositorios
         verify(userRepo, times(1)).findAll();
-        verify(historyRepo, times(1)).findAll();
+        verify(historyRepo, times(1)).findLatestStatusChangePerUser();
 
         // Verificar que se mapearon todos los usuarios
         verify(mapper, times(mockUsers.size())).completeDTOWithEntity(any(UserResponseDTO.class), any(UserEntity.class));
@@ -113,7 +113,7 @@ public class UsersServiceFindTest extends BaseUserServiceTest {
             if (expected.getPosition() != null) {
                 assertNotNull(actual.getPosition(), "La posición no debe ser nula");
                 assertEquals(expected.getPosition().getId(), actual.getPosition().getId(), "El ID del cargo debe coincidir");
-                assertEquals(expected.getPosition().getName(), actual.getPosition().getName(), "El nombre del cargo debe coincidir");
+                assertEquals(expected.getPosition().getName(), actual.getPosition().getPositionName(), "El nombre del cargo debe coincidir");
             } else {
                 assertNull(actual.getPosition(), "La posición debe ser nula");
             }
@@ -129,7 +129,7 @@ public class UsersServiceFindTest extends BaseUserServiceTest {
         mockUsers.forEach(user -> user.setPosition(null));
 
         when(userRepo.findAll()).thenReturn(mockUsers);
-        when(historyRepo.findAll()).thenReturn(Collections.emptyList());
+        when(historyRepo.findLatestStatusChangePerUser()).thenReturn(Collections.emptyList());
         when(mapper.completeDTOWithEntity(any(UserResponseDTO.class), any(UserEntity.class)))
                 .thenAnswer(invocation -> {
                     UserResponseDTO dto = new UserResponseDTO();
@@ -154,7 +154,7 @@ public class UsersServiceFindTest extends BaseUserServiceTest {
         // Arrange
         List<UserEntity> mockUsers = dataProvider.usersListMock();
         when(userRepo.findAll()).thenReturn(mockUsers);
-        when(historyRepo.findAll()).thenReturn(Collections.emptyList());
+        when(historyRepo.findLatestStatusChangePerUser()).thenReturn(Collections.emptyList());
 
         // Configurar el mock para devolver el DTO con los datos del usuario incluyendo la posición
         when(mapper.completeDTOWithEntity(any(UserResponseDTO.class), any(UserEntity.class)))
@@ -201,7 +201,7 @@ public class UsersServiceFindTest extends BaseUserServiceTest {
             String expectedPosition = expectedPositions.get(user.getId());
             if (expectedPosition != null) {
                 assertNotNull(user.getPosition(), "La posición no debe ser nula para el usuario " + user.getId());
-                assertEquals(expectedPosition, user.getPosition().getName(),
+                assertEquals(expectedPosition, user.getPosition().getPositionName(),
                         "El cargo del usuario " + user.getId() + " no coincide");
             }
         }
@@ -215,25 +215,14 @@ public class UsersServiceFindTest extends BaseUserServiceTest {
         UserEntity testUser1 = mockUsers.get(0);
         UserEntity testUser2 = mockUsers.get(1);
 
-        // Crear historial de estados para los usuarios
-        UserStatusHistoryEntity statusHistory1 = new UserStatusHistoryEntity();
-        statusHistory1.setModificationStatusDate(java.time.LocalDate.of(2023, 5, 20));
-        statusHistory1.setUser(testUser1);
-
-        // Una fecha más reciente para el mismo usuario
-        UserStatusHistoryEntity statusHistory2 = new UserStatusHistoryEntity();
-        statusHistory2.setModificationStatusDate(java.time.LocalDate.of(2023, 6, 15));
-        statusHistory2.setUser(testUser1);
-
-        // Historial para otro usuario
-        UserStatusHistoryEntity statusHistory3 = new UserStatusHistoryEntity();
-        statusHistory3.setModificationStatusDate(java.time.LocalDate.of(2023, 4, 10));
-        statusHistory3.setUser(testUser2);
-
-        List<UserStatusHistoryEntity> allHistories = Arrays.asList(statusHistory1, statusHistory2, statusHistory3);
+        // Última fecha de cambio de estado por usuario, tal como la calcula la consulta agrupada
+        List<UserLatestStatusChange> allHistories = Arrays.asList(
+                new UserLatestStatusChange(testUser1.getId(), java.time.LocalDate.of(2023, 6, 15)),
+                new UserLatestStatusChange(testUser2.getId(), java.time.LocalDate.of(2023, 4, 10))
+        );
 
         when(userRepo.findAll()).thenReturn(mockUsers);
-        when(historyRepo.findAll()).thenReturn(allHistories);
+        when(historyRepo.findLatestStatusChangePerUser()).thenReturn(allHistories);
 
         // Configurar el mock para devolver el DTO con los datos del usuario
         when(mapper.completeDTOWithEntity(any(UserResponseDTO.class), any(UserEntity.class)))
@@ -298,7 +287,7 @@ public class UsersServiceFindTest extends BaseUserServiceTest {
     public void testGetAllUsers_WhenHistoryRepoThrowsException_ShouldPropagateException() {
         // Arrange
         when(userRepo.findAll()).thenReturn(Collections.emptyList());
-        when(historyRepo.findAll()).thenThrow(new RuntimeException("Error al consultar historial"));
+        when(historyRepo.findLatestStatusChangePerUser()).thenThrow(new RuntimeException("Error al consultar historial"));
 
         // Act & Assert
         RuntimeException exception = assertThrows(
@@ -0,0 +1,94 @@
+-- Benchmark de los filtros de fecha/hora de EquipmentUseSpecification (antes: TO_CHAR, ahora: rangos).
+--
+-- Crea una copia sintética de equipment_usage con 2 millones de usos repartidos en 5 años, con los mismos
+-- índices que el esquema real (003 y 004), y compara planes y tiempos de las dos formas del filtro.
+-- Ejecutar en SQL*Plus / SQLcl sobre un esquema de pruebas; al final se elimina la tabla.
+--
+-- Resultado esperado:
+--   * TO_CHAR(eu_start_date, ...)            -> TABLE ACCESS FULL equipment_usage_bench
+--   * eu_start_date >= :desde AND < :hasta   -> INDEX RANGE SCAN eub_start_date_id_idx
+--   * eu_start_minute_of_day BETWEEN ...     -> INDEX RANGE SCAN eub_start_minute_idx (o FULL si el rango
+--                                              cubre buena parte del día; el optimizador decide por costo)
+
+SET TIMING ON
+SET LINESIZE 200
+SET PAGESIZE 100
+
+CREATE TABLE equipment_usage_bench (
+    equipment_usage_id     NUMBER(19)   NOT NULL PRIMARY KEY,
+    eu_equipment_id        NUMBER(19)   NOT NULL,
+    eu_user_id             NUMBER(19)   NOT NULL,
+    eu_start_date          TIMESTAMP(6) NOT NULL,
+    eu_end_date            TIMESTAMP(6),
+    eu_start_minute_of_day NUMBER(4)    NOT NULL,
+    eu_samples_number      NUMBER(10)   NOT NULL
+);
+
+INSERT /*+ APPEND */ INTO equipment_usage_bench
+SELECT id,
+       MOD(id, 500) + 1,
+       MOD(id, 2000) + 1,
+       start_date,
+       start_date + NUMTODSINTERVAL(MOD(id, 240) + 5, 'MINUTE'),
+       EXTRACT(HOUR FROM start_date) * 60 + EXTRACT(MINUTE FROM start_date),
+       MOD(id, 50) + 1
+FROM (
+    SELECT ROWNUM AS id,
+           TIMESTAMP '2021-01-01 00:00:00' + NUMTODSINTERVAL(DBMS_RANDOM.VALUE(0, 5 * 365 * 24 * 60), 'MINUTE') AS start_date
+    FROM (SELECT 1 FROM dual CONNECT BY LEVEL <= 2000),
+         (SELECT 1 FROM dual CONNECT BY LEVEL <= 1000)
+);
+COMMIT;
+
+CREATE INDEX eub_start_date_id_idx ON equipment_usage_bench (eu_start_date DESC, equipment_usage_id DESC);
+CREATE INDEX eub_start_minute_idx ON equipment_usage_bench (eu_start_minute_of_day);
+
+BEGIN
+    DBMS_STATS.GATHER_TABLE_STATS(USER, 'EQUIPMENT_USAGE_BENCH', cascade => TRUE);
+END;
+/
+
+-- 1. Rango de una semana: forma anterior
+EXPLAIN PLAN SET STATEMENT_ID = 'date_to_char' FOR
+SELECT COUNT(*) FROM equipment_usage_bench
+WHERE TO_CHAR(eu_start_date, 'YYYY-MM-DD') >= '2024-03-04'
+  AND TO_CHAR(eu_start_date, 'YYYY-MM-DD') <= '2024-03-10';
+SELECT * FROM TABLE(DBMS_XPLAN.DISPLAY(NULL, 'date_to_char', 'BASIC +ROWS +COST'));
+
+-- 1. Rango de una semana: forma actual (semiabierta)
+EXPLAIN PLAN SET STATEMENT_ID = 'date_range' FOR
+SELECT COUNT(*) FROM equipment_usage_bench
+WHERE eu_start_date >= TIMESTAMP '2024-03-04 00:00:00'
+  AND eu_start_date <  TIMESTAMP '2024-03-11 00:00:00';
+SELECT * FROM TABLE(DBMS_XPLAN.DISPLAY(NULL, 'date_range', 'BASIC +ROWS +COST'));
+
+-- 2. Franja horaria 07:00-07:30: forma anterior
+EXPLAIN PLAN SET STATEMENT_ID = 'time_to_char' FOR
+SELECT COUNT(*) FROM equipment_usage_bench
+WHERE TO_CHAR(eu_start_date, 'HH24:MI') >= '07:00'
+  AND TO_CHAR(eu_start_date, 'HH24:MI') <= '07:30';
+SELECT * FROM TABLE(DBMS_XPLAN.DISPLAY(NULL, 'time_to_char', 'BASIC +ROWS +COST'));
+
+-- 2. Franja horaria 07:00-07:30: forma actual
+EXPLAIN PLAN SET STATEMENT_ID = 'time_minute' FOR
+SELECT COUNT(*) FROM equipment_usage_bench
+WHERE eu_start_minute_of_day >= 420
+  AND eu_start_minute_of_day <= 450;
+SELECT * FROM TABLE(DBMS_XPLAN.DISPLAY(NULL, 'time_minute', 'BASIC +ROWS +COST'));
+
+-- 3. Tiempos reales (SET TIMING ON), consultas equivalentes a la primera página de /equipment-use/filter
+SELECT * FROM (
+    SELECT equipment_usage_id, eu_start_date FROM equipment_usage_bench
+    WHERE TO_CHAR(eu_start_date, 'YYYY-MM-DD') >= '2024-03-04'
+      AND TO_CHAR(eu_start_date, 'YYYY-MM-DD') <= '2024-03-10'
+    ORDER BY eu_start_date DESC, equipment_usage_id DESC
+) WHERE ROWNUM <= 10;
+
+SELECT * FROM (
+    SELECT equipment_usage_id, eu_start_date FROM equipment_usage_bench
+    WHERE eu_start_date >= TIMESTAMP '2024-03-04 00:00:00'
+      AND eu_start_date <  TIMESTAMP '2024-03-11 00:00:00'
+    ORDER BY eu_start_date DESC, equipment_usage_id DESC
+) WHERE ROWNUM <= 10;
+
+DROP TABLE equipment_usage_bench PURGE;